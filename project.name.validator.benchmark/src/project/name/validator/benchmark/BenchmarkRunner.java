@@ -0,0 +1,33 @@
+package project.name.validator.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Запуск измерений производительности. Кроме времени и
+ * пропускной способности, собирается профиль выделения
+ * памяти (gc.alloc.rate.norm - байт на операцию).
+ * Результаты записываются в файл jmh-result.json.
+ * Параметры командной строки JMH (например, -p
+ * m_projectCount=1000) передаются без изменений.
+ */
+public class BenchmarkRunner
+{
+	public static void main (String[] a_arguments) throws RunnerException, CommandLineOptionException
+	{
+		Options options = new OptionsBuilder()
+			.parent(new CommandLineOptions(a_arguments))
+			.include(ValidationBenchmark.class.getSimpleName())
+			.addProfiler(GCProfiler.class)
+			.resultFormat(ResultFormatType.JSON)
+			.result("jmh-result.json")
+			.build();
+		new Runner(options).run();
+	}
+}
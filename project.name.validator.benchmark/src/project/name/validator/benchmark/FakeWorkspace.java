@@ -0,0 +1,157 @@
+package project.name.validator.benchmark;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
+
+import project.name.validator.marker.ProblemNameMarkerManager;
+
+/**
+ * Заменитель рабочей области для измерений без
+ * запущенной платформы.
+ * Проекты и маркеры создаются динамическими
+ * заместителями (java.lang.reflect.Proxy), которые
+ * поддерживают только методы, вызываемые проверкой
+ * имён проектов. Все данные проектов вычисляются
+ * заранее, поэтому ответы заместителей не обращаются
+ * к файловой системе.
+ */
+public class FakeWorkspace
+{
+	private static final IMarker[] NO_MARKERS = new IMarker[0];
+	
+	private IProject[] m_projects;
+	
+	/**
+	 * Конструктор класса FakeWorkspace.
+	 * @param a_projectCount
+	 * 		  Количество проектов
+	 * @param a_mismatched
+	 * 		  true, если имена всех проектов не должны
+	 * 		  совпадать с именами их папок (на каждом
+	 * 		  таком проекте уже стоит маркер), false - если
+	 * 		  все имена должны совпадать
+	 * @param a_ignoredValue
+	 * 		  Значение свойства RenameIgnoringProperty всех
+	 * 		  проектов или null, если свойства нет
+	 */
+	public FakeWorkspace (int a_projectCount, boolean a_mismatched, String a_ignoredValue)
+	{
+		m_projects = new IProject[a_projectCount];
+		for (int i = 0; i < a_projectCount; i++)
+		{
+			String name = "project-" + i;
+			String folderName = a_mismatched ? "folder-" + i : name;
+			m_projects[i] = createProject(name, new Path("/workspace").append(folderName), a_mismatched ? i : -1,
+										  a_ignoredValue);
+		}
+	}
+	
+	/**
+	 * @return проекты рабочей области
+	 */
+	public IProject[] getProjects ()
+	{
+		return m_projects;
+	}
+	
+	/**
+	 * Создаёт заместитель открытого проекта.
+	 * @param a_name
+	 * 		  Имя проекта
+	 * @param a_location
+	 * 		  Расположение проекта
+	 * @param a_markerId
+	 * 		  Идентификатор маркера проблемного имени или
+	 * 		  -1, если маркера нет
+	 * @param a_ignoredValue
+	 * 		  Значение свойства RenameIgnoringProperty
+	 * @return заместитель проекта
+	 */
+	private static IProject createProject (String a_name, IPath a_location, long a_markerId, String a_ignoredValue)
+	{
+		IProject[] project = new IProject[1];
+		IMarker[] markers = NO_MARKERS;
+		IMarker marker = null;
+		if (a_markerId >= 0)
+		{
+			marker = createMarker(project, a_markerId);
+			markers = new IMarker[] {marker};
+		}
+		IMarker projectMarker = marker;
+		IMarker[] projectMarkers = markers;
+		URI locationURI = a_location.toFile().toURI();
+		/*
+		 * Хеш-код упаковывается заранее, чтобы заместитель
+		 * не создавал объектов при каждом вызове:
+		 */
+		Integer hashCode = a_name.hashCode();
+		project[0] = (IProject)Proxy.newProxyInstance(FakeWorkspace.class.getClassLoader(),
+													  new Class<?>[] {IProject.class}, new InvocationHandler()
+		{
+			@Override
+			public Object invoke (Object a_proxy, Method a_method, Object[] a_arguments)
+			{
+				switch (a_method.getName())
+				{
+					case "getName": return a_name;
+					case "getLocation": return a_location;
+					case "getLocationURI": return locationURI;
+					case "exists":
+					case "isOpen": return Boolean.TRUE;
+					case "getProject": return a_proxy;
+					case "getType": return IResource.PROJECT;
+					case "getPersistentProperty": return a_ignoredValue;
+					case "findMarkers": return projectMarkers;
+					case "getMarker": return projectMarker;
+					case "hashCode": return hashCode;
+					case "equals": return a_proxy == a_arguments[0];
+					case "toString": return a_name;
+					default: throw new UnsupportedOperationException(a_method.getName());
+				}
+			}
+		});
+		return project[0];
+	}
+	
+	/**
+	 * Создаёт заместитель маркера проблемного имени.
+	 * @param a_project
+	 * 		  Массив, в котором будет находиться проект
+	 * 		  маркера
+	 * @param a_id
+	 * 		  Идентификатор маркера
+	 * @return заместитель маркера
+	 */
+	private static IMarker createMarker (IProject[] a_project, long a_id)
+	{
+		return (IMarker)Proxy.newProxyInstance(FakeWorkspace.class.getClassLoader(), new Class<?>[] {IMarker.class},
+											   new InvocationHandler()
+		{
+			@Override
+			public Object invoke (Object a_proxy, Method a_method, Object[] a_arguments)
+			{
+				switch (a_method.getName())
+				{
+					case "exists": return Boolean.TRUE;
+					case "getId": return a_id;
+					case "getResource": return a_project[0];
+					case "getAttribute":
+						return ProblemNameMarkerManager.MARKER_ATTRIBUTE_PROBLEM_NAME.equals(a_arguments[0]) ?
+							   ProblemNameMarkerManager.MARKER_ATTRIBUTE_VALUE_PROBLEM_NAME : null;
+					case "hashCode": return Long.hashCode(a_id);
+					case "equals": return a_proxy == a_arguments[0];
+					case "toString": return "marker-" + a_id;
+					default: throw new UnsupportedOperationException(a_method.getName());
+				}
+			}
+		});
+	}
+}
@@ -0,0 +1,453 @@
+package project.name.validator.benchmark;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IProjectDescription;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.equinox.app.IApplication;
+import org.eclipse.equinox.app.IApplicationContext;
+
+import project.name.validator.ChangedNameValidator;
+import project.name.validator.marker.ProblemNameMarkerManager;
+import project.name.validator.metrics.TimeHistogram;
+import project.name.validator.metrics.ValidatorMetrics;
+
+/**
+ * Нагрузочное приложение, проверяющее поведение
+ * слушателя, добавляемого методом
+ * ChangedNameValidator.addChangedNameListener, при
+ * массовом изменении проектов (например, при получении
+ * рабочей копии командой).
+ * В рабочей области, заданной стандартным параметром
+ * -data (обычно временной), приложение пакетами по
+ * -batch операций создаёт -projects проектов в папках
+ * временного каталога (или каталога -root), затем
+ * переименовывает -renames из них без переноса папок и
+ * переносит -moves последних проектов в новые папки:
+ * половину - в папки с именем проекта, половину - в
+ * папки с другим именем. Каждый пакет выполняется одной
+ * операцией рабочей области.
+ * После этого приложение ждёт (не дольше -timeout
+ * секунд), пока маркеры проблемного имени не будут
+ * стоять ровно на проектах, имя которых не совпадает с
+ * именем папки, и выводит (в стандартный поток вывода
+ * или в файл -output) длительность обработки событий
+ * слушателем (p50 и p99), время до установившегося
+ * состояния маркеров и время удержания блокировки
+ * рабочей области, измеренное WorkspaceLockProbe.
+ * Созданные проекты и их папки в конце удаляются.
+ */
+public class RenameStormApplication implements IApplication
+{
+	/**
+	 * Код завершения в случае, если за отведённое время
+	 * маркеры не пришли в установившееся состояние.
+	 */
+	public static final Integer EXIT_NOT_STEADY = 1;
+	
+	/**
+	 * Код завершения в случае неверных параметров или
+	 * ошибки рабочей области.
+	 */
+	public static final Integer EXIT_ERROR = 2;
+	
+	/**
+	 * Пауза (в миллисекундах) между проверками
+	 * состояния маркеров.
+	 */
+	private static final long POLL_INTERVAL = 50;
+	
+	private static final String ARGUMENT_PROJECTS = "-projects";
+	
+	private static final String ARGUMENT_RENAMES = "-renames";
+	
+	private static final String ARGUMENT_MOVES = "-moves";
+	
+	private static final String ARGUMENT_BATCH = "-batch";
+	
+	private static final String ARGUMENT_ROOT = "-root";
+	
+	private static final String ARGUMENT_TIMEOUT = "-timeout";
+	
+	private static final String ARGUMENT_OUTPUT = "-output";
+	
+	private static final String PROJECT_PREFIX = "storm-";
+	
+	private int m_batchSize;
+	
+	private IPath m_root;
+	
+	@Override
+	public Object start (IApplicationContext a_context) throws Exception
+	{
+		String[] arguments = (String[])a_context.getArguments().get(IApplicationContext.APPLICATION_ARGS);
+		int projectCount;
+		int renameCount;
+		int moveCount;
+		long timeout;
+		try
+		{
+			projectCount = Integer.parseInt(getArgument(arguments, ARGUMENT_PROJECTS, "1000"));
+			renameCount = Integer.parseInt(getArgument(arguments, ARGUMENT_RENAMES, Integer.toString(projectCount / 2)));
+			moveCount = Integer.parseInt(getArgument(arguments, ARGUMENT_MOVES, Integer.toString(projectCount / 4)));
+			m_batchSize = Integer.parseInt(getArgument(arguments, ARGUMENT_BATCH, "50"));
+			timeout = Long.parseLong(getArgument(arguments, ARGUMENT_TIMEOUT, "300"));
+		}
+		catch (NumberFormatException e)
+		{
+			System.err.println("Invalid number: " + e.getMessage());
+			return EXIT_ERROR;
+		}
+		if (projectCount < 1 || renameCount < 0 || moveCount < 0 || m_batchSize < 1 || timeout < 1)
+		{
+			System.err.println("Counts must not be negative, -projects, -batch and -timeout must be positive");
+			return EXIT_ERROR;
+		}
+		String rootArgument = getArgument(arguments, ARGUMENT_ROOT, null);
+		Path root = (rootArgument != null) ? Files.createDirectories(Paths.get(rootArgument)) :
+						Files.createTempDirectory("rename-storm");
+		m_root = org.eclipse.core.runtime.Path.fromOSString(root.toString());
+		String output = getArgument(arguments, ARGUMENT_OUTPUT, null);
+		a_context.applicationRunning();
+		
+		IWorkspace workspace = ResourcesPlugin.getWorkspace();
+		ValidatorMetrics.setTimingEnabled(true);
+		ValidatorMetrics.reset();
+		new ChangedNameValidator().addChangedNameListener();
+		WorkspaceLockProbe probe = new WorkspaceLockProbe(workspace.getRoot());
+		probe.start();
+		List<IProject> projects = new ArrayList<>();
+		try
+		{
+			long start = System.nanoTime();
+			createProjects(workspace, projects, projectCount);
+			renameProjects(workspace, projects, Math.min(renameCount, projectCount));
+			moveProjects(workspace, projects, Math.min(moveCount, projectCount));
+			long stormEnd = System.nanoTime();
+			WorkspaceLockProbe.Phase stormPhase = probe.nextPhase();
+			boolean steady = waitForSteadyState(workspace.getRoot(), stormEnd + timeout * 1_000_000_000L);
+			long steadyEnd = System.nanoTime();
+			WorkspaceLockProbe.Phase settlePhase = probe.nextPhase();
+			
+			Map<String, String> results = new LinkedHashMap<>();
+			results.put("Projects", Integer.toString(projectCount));
+			results.put("Renames", Integer.toString(Math.min(renameCount, projectCount)));
+			results.put("Moves", Integer.toString(Math.min(moveCount, projectCount)));
+			results.put("Batch size", Integer.toString(m_batchSize));
+			results.put("Storm time, ms", formatMillis(stormEnd - start));
+			results.put("Steady marker state", steady ? "reached" : "not reached");
+			results.put("Time to steady marker state, ms", formatMillis(steadyEnd - start));
+			results.put("Settling after storm, ms", formatMillis(steadyEnd - stormEnd));
+			putLockPhase(results, "Storm", stormPhase);
+			putLockPhase(results, "Settling", settlePhase);
+			results.putAll(ValidatorMetrics.snapshot());
+			writeResults(results, output);
+			return steady ? IApplication.EXIT_OK : EXIT_NOT_STEADY;
+		}
+		catch (CoreException e)
+		{
+			System.err.println("Workspace operation failed: " + e.getStatus().getMessage());
+			return EXIT_ERROR;
+		}
+		finally
+		{
+			probe.stop();
+			deleteProjects(workspace);
+			if (rootArgument == null) deleteDirectory(root);
+		}
+	}
+	
+	@Override
+	public void stop ()
+	{
+	}
+	
+	/**
+	 * Создаёт и открывает a_count проектов в папках с
+	 * именами проектов внутри каталога m_root.
+	 * @param a_workspace
+	 * 		  Рабочая область
+	 * @param a_projects
+	 * 		  Список, в который добавляются проекты
+	 * @param a_count
+	 * 		  Количество проектов
+	 * @throws CoreException
+	 */
+	private void createProjects (IWorkspace a_workspace, List<IProject> a_projects, int a_count) throws CoreException
+	{
+		for (int first = 0; first < a_count; first += m_batchSize)
+		{
+			int last = Math.min(first + m_batchSize, a_count);
+			int batchFirst = first;
+			a_workspace.run(new IWorkspaceRunnable()
+			{
+				@Override
+				public void run (IProgressMonitor a_monitor) throws CoreException
+				{
+					for (int i = batchFirst; i < last; i++)
+					{
+						String name = PROJECT_PREFIX + i;
+						IProject project = a_workspace.getRoot().getProject(name);
+						IProjectDescription description = a_workspace.newProjectDescription(name);
+						description.setLocation(m_root.append(name));
+						project.create(description, null);
+						project.open(null);
+						a_projects.add(project);
+					}
+				}
+			}, a_workspace.getRoot(), 0, null);
+		}
+	}
+	
+	/**
+	 * Переименовывает первые a_count проектов без переноса
+	 * их папок, поэтому их имена перестают совпадать с
+	 * именами папок.
+	 * @param a_workspace
+	 * 		  Рабочая область
+	 * @param a_projects
+	 * 		  Проекты. Переименованные проекты заменяются в
+	 * 		  списке
+	 * @param a_count
+	 * 		  Количество переименований
+	 * @throws CoreException
+	 */
+	private void renameProjects (IWorkspace a_workspace, List<IProject> a_projects, int a_count) throws CoreException
+	{
+		for (int first = 0; first < a_count; first += m_batchSize)
+		{
+			int last = Math.min(first + m_batchSize, a_count);
+			int batchFirst = first;
+			a_workspace.run(new IWorkspaceRunnable()
+			{
+				@Override
+				public void run (IProgressMonitor a_monitor) throws CoreException
+				{
+					for (int i = batchFirst; i < last; i++)
+					{
+						IProject project = a_projects.get(i);
+						IProjectDescription description = project.getDescription();
+						description.setName(project.getName() + "-renamed");
+						project.move(description, IResource.FORCE | IResource.SHALLOW, null);
+						a_projects.set(i, a_workspace.getRoot().getProject(description.getName()));
+					}
+				}
+			}, a_workspace.getRoot(), 0, null);
+		}
+	}
+	
+	/**
+	 * Переносит последние a_count проектов в новые папки
+	 * внутри каталога m_root/moved вместе с содержимым.
+	 * Проекты с чётным номером переносятся в папку с
+	 * именем проекта, остальные - в папку с другим
+	 * именем.
+	 * @param a_workspace
+	 * 		  Рабочая область
+	 * @param a_projects
+	 * 		  Проекты
+	 * @param a_count
+	 * 		  Количество переносов
+	 * @throws CoreException
+	 */
+	private void moveProjects (IWorkspace a_workspace, List<IProject> a_projects, int a_count) throws CoreException
+	{
+		int start = a_projects.size() - a_count;
+		for (int first = start; first < a_projects.size(); first += m_batchSize)
+		{
+			int last = Math.min(first + m_batchSize, a_projects.size());
+			int batchFirst = first;
+			a_workspace.run(new IWorkspaceRunnable()
+			{
+				@Override
+				public void run (IProgressMonitor a_monitor) throws CoreException
+				{
+					for (int i = batchFirst; i < last; i++)
+					{
+						IProject project = a_projects.get(i);
+						String folderName = (i % 2 == 0) ? project.getName() : project.getName() + "-moved";
+						IProjectDescription description = project.getDescription();
+						description.setLocation(m_root.append("moved").append(folderName));
+						project.move(description, IResource.FORCE, null);
+					}
+				}
+			}, a_workspace.getRoot(), 0, null);
+		}
+	}
+	
+	/**
+	 * Ждёт, пока маркеры проблемного имени не будут
+	 * стоять ровно на проектах, имя которых не совпадает с
+	 * именем папки.
+	 * @param a_root
+	 * 		  Корень рабочей области
+	 * @param a_deadline
+	 * 		  Момент (System.nanoTime), после которого
+	 * 		  ожидание прекращается
+	 * @return true, если состояние установилось, false -
+	 * иначе
+	 * @throws CoreException
+	 * @throws InterruptedException
+	 */
+	private static boolean waitForSteadyState (IWorkspaceRoot a_root, long a_deadline)
+		throws CoreException, InterruptedException
+	{
+		while (!isSteady(a_root))
+		{
+			if (System.nanoTime() > a_deadline) return false;
+			Thread.sleep(POLL_INTERVAL);
+		}
+		return true;
+	}
+	
+	/**
+	 * @param a_root
+	 * 		  Корень рабочей области
+	 * @return true, если маркер проблемного имени стоит на
+	 * каждом проекте, имя которого не совпадает с именем
+	 * папки, и только на них
+	 * @throws CoreException
+	 */
+	private static boolean isSteady (IWorkspaceRoot a_root) throws CoreException
+	{
+		for (IProject project : a_root.getProjects())
+		{
+			if (!project.isOpen()) continue;
+			IPath location = project.getLocation();
+			boolean mismatch = (location != null) && !project.getName().equals(location.lastSegment());
+			boolean marked = project.findMarkers(ProblemNameMarkerManager.MARKER_TYPE, false,
+												 IResource.DEPTH_ZERO).length > 0;
+			if (mismatch != marked) return false;
+		}
+		return true;
+	}
+	
+	/**
+	 * Удаляет созданные приложением проекты вместе с их
+	 * папками.
+	 * @param a_workspace
+	 * 		  Рабочая область
+	 */
+	private static void deleteProjects (IWorkspace a_workspace)
+	{
+		try
+		{
+			a_workspace.run(new IWorkspaceRunnable()
+			{
+				@Override
+				public void run (IProgressMonitor a_monitor) throws CoreException
+				{
+					for (IProject project : a_workspace.getRoot().getProjects())
+					{
+						if (project.getName().startsWith(PROJECT_PREFIX)) project.delete(true, true, null);
+					}
+				}
+			}, a_workspace.getRoot(), 0, null);
+		}
+		catch (CoreException e)
+		{
+			System.err.println("Cannot delete projects: " + e.getStatus().getMessage());
+		}
+	}
+	
+	/**
+	 * Удаляет каталог a_directory со всем содержимым.
+	 */
+	private static void deleteDirectory (Path a_directory)
+	{
+		try (Stream<Path> paths = Files.walk(a_directory))
+		{
+			Iterator<Path> iterator = paths.sorted(Comparator.reverseOrder()).iterator();
+			while (iterator.hasNext())
+			{
+				Files.deleteIfExists(iterator.next());
+			}
+		}
+		catch (IOException e)
+		{
+			System.err.println("Cannot delete " + a_directory + ": " + e.getMessage());
+		}
+	}
+	
+	/**
+	 * Добавляет в a_results время удержания блокировки
+	 * рабочей области за фазу a_phase.
+	 */
+	private static void putLockPhase (Map<String, String> a_results, String a_name, WorkspaceLockProbe.Phase a_phase)
+	{
+		TimeHistogram waits = a_phase.getWaits();
+		a_results.put(a_name + ": workspace lock held, ms", formatMillis(a_phase.getHeldNanos()));
+		a_results.put(a_name + ": longest lock wait, ms", formatMillis(a_phase.getMaxNanos()));
+		a_results.put(a_name + ": lock probes", Long.toString(waits.getCount()));
+		a_results.put(a_name + ": lock wait p99, us", "< " + formatMicros(waits.getQuantileNanos(0.99)));
+	}
+	
+	/**
+	 * Выводит результаты в файл a_output или, если он не
+	 * задан, в стандартный поток вывода.
+	 * @throws IOException
+	 */
+	private static void writeResults (Map<String, String> a_results, String a_output) throws IOException
+	{
+		PrintStream stream = (a_output != null) ?
+							 new PrintStream(Files.newOutputStream(Paths.get(a_output)), false,
+											 StandardCharsets.UTF_8.name()) :
+							 System.out;
+		for (Map.Entry<String, String> entry : a_results.entrySet())
+		{
+			stream.println(entry.getKey() + ": " + entry.getValue());
+		}
+		stream.flush();
+		if (stream != System.out) stream.close();
+	}
+	
+	private static String formatMillis (long a_nanos)
+	{
+		return String.format("%.3f", a_nanos / 1_000_000.0);
+	}
+	
+	private static String formatMicros (long a_nanos)
+	{
+		return String.format("%.3f", a_nanos / 1_000.0);
+	}
+	
+	/**
+	 * @param a_arguments
+	 * 		  Параметры приложения. Может быть null
+	 * @param a_name
+	 * 		  Имя параметра
+	 * @param a_defaultValue
+	 * 		  Значение по умолчанию
+	 * @return значение, следующее за параметром a_name, или
+	 * a_defaultValue, если параметр не задан
+	 */
+	private static String getArgument (String[] a_arguments, String a_name, String a_defaultValue)
+	{
+		if (a_arguments == null) return a_defaultValue;
+		for (int i = 0; i < a_arguments.length - 1; i++)
+		{
+			if (a_name.equals(a_arguments[i])) return a_arguments[i + 1];
+		}
+		return a_defaultValue;
+	}
+}
@@ -0,0 +1,212 @@
+package project.name.validator.benchmark;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.CoreException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import project.name.validator.ChangedNameValidator;
+import project.name.validator.marker.MarkerUpdateBatch;
+import project.name.validator.marker.ProblemNameMarkerManager;
+import project.name.validator.property.ExceptionPatterns;
+import project.name.validator.property.ExceptionStore;
+import project.name.validator.property.RenameIgnoringProperty;
+import project.name.validator.rule.ForbiddenCharactersRule;
+import project.name.validator.rule.MaxLengthRule;
+import project.name.validator.rule.NamingRule;
+import project.name.validator.rule.PatternRule;
+import project.name.validator.rule.RuleEngine;
+import project.name.validator.state.ProjectStateTable;
+
+/**
+ * Измерения производительности проверки имён проектов
+ * на заменителе рабочей области FakeWorkspace.
+ * Полный проход (аналог ValidateExistingProjectsJob без
+ * записи маркеров) измеряется с пустой таблицей состояния
+ * проектов, остальные измерения - для одного проекта с
+ * заполненной таблицей, по очереди перебирая проекты.
+ * Проверка выполняется без правил именования, кроме
+ * измерения evaluateRules, в котором имя проекта
+ * проверяется тремя типичными правилами, и с двумя
+ * шаблонами исключений, которым имена проектов не
+ * соответствуют.
+ * Измерение standInBaseline показывает собственную
+ * стоимость вызовов заместителей, которую следует вычитать
+ * из остальных результатов. Измерение
+ * validateProjectNameAllocation использует один набор
+ * решений на всё измерение, поэтому его
+ * gc.alloc.rate.norm показывает объекты, создаваемые
+ * самой проверкой проекта (ожидается 0 байт на
+ * операцию).
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark
+{
+	@Param({"100", "1000", "10000", "50000"})
+	public int m_projectCount;
+	
+	@Param({"false", "true"})
+	public boolean m_mismatched;
+	
+	private IProject[] m_projects;
+	
+	/**
+	 * Хранилище исключений, существующее только в памяти.
+	 */
+	private ExceptionStore m_exceptionStore;
+	
+	/**
+	 * Пустой набор правил именования.
+	 */
+	private RuleEngine m_noRules;
+	
+	private RuleEngine m_typicalRules;
+	
+	/**
+	 * Шаблоны исключений, не совпадающие ни с одним
+	 * проектом заменителя рабочей области.
+	 */
+	private ExceptionPatterns m_exceptionPatterns;
+	
+	private ProjectStateTable m_warmTable;
+	
+	private ChangedNameValidator m_warmValidator;
+	
+	/**
+	 * Набор решений, в котором для каждого проекта
+	 * хранится не более одного решения.
+	 */
+	private MarkerUpdateBatch m_reusedBatch;
+	
+	private int m_next;
+	
+	@Setup(Level.Trial)
+	public void setUp ()
+	{
+		m_projects = new FakeWorkspace(m_projectCount, m_mismatched, null).getProjects();
+		m_exceptionStore = new ExceptionStore();
+		m_warmTable = new ProjectStateTable(m_exceptionStore);
+		m_noRules = new RuleEngine(Collections.<NamingRule>emptyList(), false);
+		List<NamingRule> rules = Arrays.<NamingRule>asList(new PatternRule("lowerCase", "lowerCase", 0,
+																		   "[a-z0-9.\\-]+"),
+														   new MaxLengthRule("length", "length", 0, 64),
+														   new ForbiddenCharactersRule("windows", "windows", 0,
+																					   "<>:\"|?*"));
+		m_typicalRules = new RuleEngine(rules, false);
+		m_exceptionPatterns = new ExceptionPatterns("*.tmp\nregex:archive-[0-9]+");
+		m_warmValidator = new ChangedNameValidator(m_warmTable, m_noRules, m_exceptionPatterns);
+		m_reusedBatch = new MarkerUpdateBatch();
+		for (IProject project : m_projects)
+		{
+			m_warmTable.getFlags(project);
+		}
+	}
+	
+	/**
+	 * @return следующий проект при переборе по кругу
+	 */
+	private IProject nextProject ()
+	{
+		IProject project = m_projects[m_next];
+		if (++m_next == m_projects.length) m_next = 0;
+		return project;
+	}
+	
+	/**
+	 * Полный проход по всем проектам с пустой таблицей
+	 * состояния, как при первой проверке после запуска.
+	 */
+	@Benchmark
+	public MarkerUpdateBatch validateExistingProjectNames ()
+	{
+		ChangedNameValidator validator = new ChangedNameValidator(new ProjectStateTable(m_exceptionStore), m_noRules,
+																  m_exceptionPatterns);
+		MarkerUpdateBatch batch = new MarkerUpdateBatch();
+		for (IProject project : m_projects)
+		{
+			validator.validateProjectName(project, false, batch);
+		}
+		return batch;
+	}
+	
+	/**
+	 * Проверка одного проекта с заполненной таблицей
+	 * состояния, как при обработке изменения ресурса.
+	 */
+	@Benchmark
+	public MarkerUpdateBatch validateProjectName ()
+	{
+		MarkerUpdateBatch batch = new MarkerUpdateBatch();
+		m_warmValidator.validateProjectName(nextProject(), false, batch);
+		return batch;
+	}
+	
+	/**
+	 * Проверка одного проекта с заполненной таблицей
+	 * состояния без создания набора решений: измеряет
+	 * выделение памяти самой проверкой.
+	 */
+	@Benchmark
+	public MarkerUpdateBatch validateProjectNameAllocation ()
+	{
+		m_warmValidator.validateProjectName(nextProject(), false, m_reusedBatch);
+		return m_reusedBatch;
+	}
+	
+	/**
+	 * Проверка имени одного проекта тремя правилами
+	 * именования за один проход.
+	 */
+	@Benchmark
+	public List<NamingRule> evaluateRules ()
+	{
+		return m_typicalRules.evaluate(nextProject().getName());
+	}
+	
+	@Benchmark
+	public IMarker findMarker () throws CoreException
+	{
+		return new ProblemNameMarkerManager(nextProject(), m_warmTable).findMarker();
+	}
+	
+	@Benchmark
+	public boolean renameIgnoringPropertyGetValue () throws CoreException
+	{
+		return new RenameIgnoringProperty(nextProject(), m_exceptionStore).getValue();
+	}
+	
+	/**
+	 * Вызовы заместителя проекта, которые выполняет
+	 * любая проверка: имя, расположение и открытость.
+	 */
+	@Benchmark
+	public void standInBaseline (Blackhole a_blackhole)
+	{
+		IProject project = nextProject();
+		a_blackhole.consume(project.getName());
+		a_blackhole.consume(project.getLocationURI());
+		a_blackhole.consume(project.isOpen());
+	}
+}
@@ -0,0 +1,172 @@
+package project.name.validator.benchmark;
+
+import java.util.Objects;
+
+import org.eclipse.core.runtime.jobs.IJobManager;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
+import org.eclipse.core.runtime.jobs.Job;
+
+import project.name.validator.metrics.TimeHistogram;
+
+/**
+ * Поток, раз в PROBE_INTERVAL миллисекунд захватывающий
+ * правило планирования (обычно корень рабочей области)
+ * и сразу освобождающий его. Время ожидания захвата
+ * показывает, как долго правило удерживали другие
+ * потоки: так же долго ждал бы поток пользовательского
+ * интерфейса, которому нужна блокировка рабочей
+ * области. Длительности ожидания записываются в
+ * гистограмму текущей фазы измерения.
+ */
+public class WorkspaceLockProbe implements Runnable
+{
+	/**
+	 * Пауза (в миллисекундах) между попытками захвата.
+	 */
+	public static final long PROBE_INTERVAL = 5;
+	
+	/**
+	 * Ожидание (в наносекундах), которое не считается
+	 * удержанием правила другим потоком: столько занимает
+	 * сам захват свободного правила.
+	 */
+	private static final long FREE_RULE_NANOS = 100_000;
+	
+	private ISchedulingRule m_rule;
+	
+	private Thread m_thread;
+	
+	private volatile boolean m_stopped;
+	
+	private volatile Phase m_phase = new Phase();
+	
+	/**
+	 * Конструктор класса WorkspaceLockProbe.
+	 * @param a_rule
+	 * 		  Правило, время удержания которого измеряется.
+	 * 		  NotNull
+	 */
+	public WorkspaceLockProbe (ISchedulingRule a_rule)
+	{
+		m_rule = Objects.requireNonNull(a_rule);
+	}
+	
+	/**
+	 * Запускает поток измерения.
+	 */
+	public void start ()
+	{
+		m_thread = new Thread(this, "Workspace lock probe");
+		m_thread.setDaemon(true);
+		m_thread.start();
+	}
+	
+	/**
+	 * Начинает новую фазу измерения.
+	 * @return результаты завершённой фазы
+	 */
+	public Phase nextPhase ()
+	{
+		Phase phase = m_phase;
+		m_phase = new Phase();
+		return phase;
+	}
+	
+	/**
+	 * Останавливает поток измерения и дожидается его
+	 * завершения.
+	 * @return результаты последней фазы
+	 * @throws InterruptedException
+	 */
+	public Phase stop () throws InterruptedException
+	{
+		m_stopped = true;
+		m_thread.interrupt();
+		m_thread.join();
+		return m_phase;
+	}
+	
+	@Override
+	public void run ()
+	{
+		IJobManager jobManager = Job.getJobManager();
+		while (!m_stopped)
+		{
+			long start = System.nanoTime();
+			try
+			{
+				jobManager.beginRule(m_rule, null);
+			}
+			catch (RuntimeException e)
+			{
+				/*
+				 * Захват прерван остановкой измерения:
+				 */
+				jobManager.endRule(m_rule);
+				break;
+			}
+			long waited = System.nanoTime() - start;
+			jobManager.endRule(m_rule);
+			m_phase.record(waited);
+			try
+			{
+				Thread.sleep(PROBE_INTERVAL);
+			}
+			catch (InterruptedException e)
+			{
+				break;
+			}
+		}
+	}
+	
+	/**
+	 * Результаты одной фазы измерения.
+	 */
+	public static class Phase
+	{
+		private TimeHistogram m_waits = new TimeHistogram();
+		
+		private volatile long m_maxNanos;
+		
+		private volatile long m_heldNanos;
+		
+		/**
+		 * Записывает длительность одного ожидания захвата.
+		 * Вызывается только потоком измерения.
+		 */
+		void record (long a_nanos)
+		{
+			m_waits.record(a_nanos);
+			if (a_nanos > m_maxNanos) m_maxNanos = a_nanos;
+			if (a_nanos > FREE_RULE_NANOS) m_heldNanos += a_nanos;
+		}
+		
+		/**
+		 * @return гистограмма длительностей ожидания захвата
+		 */
+		public TimeHistogram getWaits ()
+		{
+			return m_waits;
+		}
+		
+		/**
+		 * @return наибольшее ожидание захвата в
+		 * наносекундах
+		 */
+		public long getMaxNanos ()
+		{
+			return m_maxNanos;
+		}
+		
+		/**
+		 * @return суммарное время (в наносекундах), в
+		 * течение которого правило удерживали другие потоки:
+		 * сумма ожиданий, превысивших время захвата
+		 * свободного правила
+		 */
+		public long getHeldNanos ()
+		{
+			return m_heldNanos;
+		}
+	}
+}
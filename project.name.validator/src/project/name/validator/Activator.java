@@ -0,0 +1,79 @@
+package project.name.validator;
+
+import org.eclipse.core.runtime.Plugin;
+import org.eclipse.ui.PlatformUI;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.ServiceRegistration;
+
+import project.name.validator.metrics.ValidatorMetrics;
+import project.name.validator.service.IProjectNameValidationService;
+import project.name.validator.service.ProjectNameValidationService;
+import project.name.validator.watch.ProjectFolderWatcher;
+
+/**
+ * Активатор плагина. Плагин активируется лениво, при
+ * первом обращении к его классам: при открытии
+ * представления, страницы настроек или свойств плагина,
+ * при быстром исправлении маркера или при обращении
+ * другого плагина к службе IProjectNameValidationService.
+ * Запуск рабочей среды плагин не активирует.
+ */
+public class Activator extends Plugin
+{
+	public static final String PLUGIN_ID = "project.name.validator";
+	
+	private static Activator s_plugin;
+	
+	private ProjectNameValidationService m_service;
+	
+	private ServiceRegistration<IProjectNameValidationService> m_serviceRegistration;
+	
+	/**
+	 * Регистрирует службу проверки имён проектов
+	 * IProjectNameValidationService. В рабочей среде,
+	 * кроме того, устанавливает слушатель изменения имени
+	 * проекта и откладывает фоновую проверку имён
+	 * существующих проектов до простоя рабочей среды;
+	 * таблица состояния, хранилище исключений и снимок
+	 * проверки загружаются позже.
+	 */
+	@Override
+	public void start (BundleContext a_context) throws Exception
+	{
+		super.start(a_context);
+		s_plugin = this;
+		m_service = new ProjectNameValidationService();
+		m_serviceRegistration = a_context.registerService(IProjectNameValidationService.class, m_service, null);
+		/*
+		 * Приложения без рабочей среды (проверка и
+		 * нагрузочное приложение) устанавливают слушатель
+		 * сами, если он им нужен:
+		 */
+		if (PlatformUI.isWorkbenchRunning())
+		{
+			ChangedNameValidator validator = new ChangedNameValidator();
+			validator.addChangedNameListener();
+			validator.deferExistingProjectNamesValidation();
+		}
+	}
+	
+	@Override
+	public void stop (BundleContext a_context) throws Exception
+	{
+		m_serviceRegistration.unregister();
+		m_service.dispose();
+		ProjectFolderWatcher.stop();
+		ValidatorMetrics.dumpQuietly();
+		s_plugin = null;
+		super.stop(a_context);
+	}
+	
+	/**
+	 * @return экземпляр активатора или null, если плагин
+	 * не запущен
+	 */
+	public static Activator getDefault ()
+	{
+		return s_plugin;
+	}
+}
@@ -1,67 +1,185 @@
 package project.name.validator;
 
+import java.util.List;
+import java.util.Objects;
+
 import org.eclipse.core.resources.IProject;
-import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.IResourceChangeEvent;
 import org.eclipse.core.resources.IResourceChangeListener;
 import org.eclipse.core.resources.IResourceDelta;
-import org.eclipse.core.resources.IWorkspace;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
-import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.ui.PlatformUI;
 
+import project.name.validator.job.DeferredScanJob;
+import project.name.validator.job.ExceptionMigrationJob;
+import project.name.validator.job.ValidateExistingProjectsJob;
+import project.name.validator.job.ValidationQueueJob;
+import project.name.validator.jfr.ListenerCallbackEvent;
+import project.name.validator.jfr.ProjectValidationEvent;
 import project.name.validator.log.ErrorStatusHandler;
-import project.name.validator.marker.ProblemNameMarkerManager;
-import project.name.validator.ui.ProblemNameDialog;
-import project.name.validator.property.RenameIgnoringProperty;
+import project.name.validator.marker.MarkerUpdateBatch;
+import project.name.validator.metrics.ValidatorMetrics;
+import project.name.validator.property.ExceptionPatterns;
+import project.name.validator.property.ExceptionStore;
+import project.name.validator.rule.NamingRule;
+import project.name.validator.rule.RuleEngine;
+import project.name.validator.state.ProjectStateTable;
+import project.name.validator.state.SnapshotSaveParticipant;
+import project.name.validator.state.ValidationSnapshot;
+import project.name.validator.ui.RenameWarningNotifier;
+import project.name.validator.watch.ProjectFolderWatcher;
 
 /**
  * Класс для проверки имени каждого проекта, входящего в Workspace,
- * на идентичность имени папки проекта в файловой системе.
+ * на идентичность имени папки проекта в файловой системе и на
+ * соответствие правилам именования.
+ * Само сравнение имён выполняет ProjectNameChecker, правила
+ * проверяет RuleEngine, а данный класс управляет маркерами и
+ * предупреждениями пользователя.
  */
 public class ChangedNameValidator
 {
 	/**
-	 * Проверяет имена уже существующих в рабочей области проектов,
-	 * не занесённых пользователем в исключения.
+	 * Задержка (в миллисекундах) перед началом проверки
+	 * существующих проектов, позволяющая рабочей среде
+	 * завершить запуск.
+	 */
+	public static final long VALIDATION_DELAY = 2000;
+	
+	/**
+	 * Предупреждение пользователя о переименованных
+	 * проектах. Создаётся вместе со слушателем изменения
+	 * имени проекта, если запущена рабочая среда.
+	 */
+	private RenameWarningNotifier m_warningNotifier;
+	
+	private ProjectStateTable m_stateTable;
+	
+	private RuleEngine m_ruleEngine;
+	
+	private ExceptionPatterns m_exceptionPatterns;
+	
+	/**
+	 * Отложенная проверка существующих проектов или null,
+	 * если проверка не откладывалась.
+	 */
+	private volatile DeferredScanJob m_deferredScan;
+	
+	/**
+	 * Конструктор класса ChangedNameValidator, использующий
+	 * общую таблицу состояния проектов рабочей области.
+	 */
+	public ChangedNameValidator ()
+	{
+	}
+	
+	/**
+	 * Конструктор класса ChangedNameValidator.
+	 * @param a_stateTable
+	 * 		  Таблица состояния проектов, с которой работает
+	 * 		  проверка. NotNull
+	 */
+	public ChangedNameValidator (ProjectStateTable a_stateTable)
+	{
+		m_stateTable = Objects.requireNonNull(a_stateTable);
+	}
+	
+	/**
+	 * Конструктор класса ChangedNameValidator.
+	 * @param a_stateTable
+	 * 		  Таблица состояния проектов, с которой работает
+	 * 		  проверка. NotNull
+	 * @param a_ruleEngine
+	 * 		  Набор правил именования, которыми проверяются
+	 * 		  проекты. NotNull
+	 */
+	public ChangedNameValidator (ProjectStateTable a_stateTable, RuleEngine a_ruleEngine)
+	{
+		this(a_stateTable);
+		m_ruleEngine = Objects.requireNonNull(a_ruleEngine);
+	}
+	
+	/**
+	 * Конструктор класса ChangedNameValidator.
+	 * @param a_stateTable
+	 * 		  Таблица состояния проектов, с которой работает
+	 * 		  проверка. NotNull
+	 * @param a_ruleEngine
+	 * 		  Набор правил именования, которыми проверяются
+	 * 		  проекты. NotNull
+	 * @param a_exceptionPatterns
+	 * 		  Шаблоны исключений, которым сопоставляются
+	 * 		  имена проектов. NotNull
+	 */
+	public ChangedNameValidator (ProjectStateTable a_stateTable, RuleEngine a_ruleEngine,
+								 ExceptionPatterns a_exceptionPatterns)
+	{
+		this(a_stateTable, a_ruleEngine);
+		m_exceptionPatterns = Objects.requireNonNull(a_exceptionPatterns);
+	}
+	
+	/**
+	 * Запускает фоновое задание, проверяющее имена уже
+	 * существующих в рабочей области проектов, не
+	 * занесённых пользователем в исключения.
+	 * Проекты, имя и расположение которых не изменились с
+	 * последнего сохранения рабочей области, не
+	 * проверяются: их состояние восстанавливается из
+	 * снимка, который записывается при каждом сохранении.
 	 * Если имя проекта не совпадает с именем папки проекта в
 	 * файловой системе, на проект ставится маркер проблемы, иначе
 	 * маркер удаляется.
+	 * @return запланированное задание проверки
 	 */
-	public void validateExistingProjectNames ()
+	public Job validateExistingProjectNames ()
 	{
-		IWorkspace workspace = ResourcesPlugin.getWorkspace();
-		IProject[] projects = workspace.getRoot().getProjects();
-		for (IProject project : projects)
+		if (!ExceptionStore.getInstance().isMigrated()) new ExceptionMigrationJob().schedule(VALIDATION_DELAY);
+		ValidationSnapshot snapshot = SnapshotSaveParticipant.register(getStateTable());
+		/*
+		 * Снимок, сделанный с другим набором правил, не
+		 * соответствует текущим маркерам:*/
+		if (snapshot != null &&
+			!SnapshotSaveParticipant.getConfigurationKey(getRuleEngine(), getExceptionPatterns())
+									.equals(snapshot.getConfiguration()))
 		{
-			if (project.isOpen()) validateProjectName(project, false);
+			snapshot = null;
 		}
+		Job job = new ValidateExistingProjectsJob(this, snapshot);
+		job.schedule(VALIDATION_DELAY);
+		return job;
+	}
+	
+	/**
+	 * Откладывает проверку существующих проектов (см.
+	 * validateExistingProjectNames) до простоя рабочей
+	 * среды или до первого изменения проектов, которое
+	 * получит слушатель, добавленный методом
+	 * addChangedNameListener.
+	 */
+	public void deferExistingProjectNamesValidation ()
+	{
+		DeferredScanJob job = new DeferredScanJob(this);
+		m_deferredScan = job;
+		job.schedule(DeferredScanJob.INITIAL_DELAY);
 	}
 	
 	/**
 	 * Метод, определяющий необходимость проверки проекта, передаваемого
-	 * в качестве параметра.
+	 * в качестве параметра. Значение свойства берётся из таблицы
+	 * состояния проектов, а не из хранилища свойств.
 	 * @param a_project
 	 * 		  Проект, для которого необходимо определить, занесён ли он
-	 * 		  пользователем в исключения
+	 * 		  в исключения
 	 * @return true, если проект занесён в исключения (то есть свойство,
 	 * определяющее, нужно ли игнорировать переименование проекта,
-	 * существует и его значение равно true), false - иначе
+	 * существует и его значение равно true) или его имя соответствует
+	 * шаблону исключений рабочей области, false - иначе
 	 */
 	public boolean ignoreProject (IProject a_project)
 	{
-		try
-		{
-			RenameIgnoringProperty property = new RenameIgnoringProperty(a_project);
-			if (property.exists() && property.getValue()) return true;
-			return false;
-		}
-		catch(CoreException e)
-		{
-			ErrorStatusHandler.log(e, e.getMessage());
-			return false;
-		}
+		return getStateTable().isIgnored(a_project) || getExceptionPatterns().matches(a_project.getName());
 	}
 	
 	/**
@@ -72,140 +190,287 @@ public class ChangedNameValidator
 	 */
 	private boolean renameIgnoringPropertyExists (IProject a_project)
 	{
+		return getStateTable().hasRenameIgnoringProperty(a_project);
+	}
+	
+	/**
+	 * Проверяет имя проекта a_project и сразу применяет
+	 * решение о создании или удалении маркера проблемы.
+	 * @param a_project
+	 * 		  Проект, имя которого необходимо проверить. NotNull
+	 * @param a_createWarningDialog
+	 * 		  Параметр, определяющий нужно ли создавать диалоговое
+	 * 		  окно с предупреждением в случае несовпадения имени
+	 * 		  проекта и имени его папки и несуществования свойства
+	 * 		  RenameIgnoringProperty на проекте
+	 * @see #validateProjectName(IProject, boolean, MarkerUpdateBatch)
+	 */
+	public void validateProjectName (IProject a_project, boolean a_createWarningDialog)
+	{
+		MarkerUpdateBatch batch = new MarkerUpdateBatch();
+		validateProjectName(a_project, a_createWarningDialog, batch);
 		try
 		{
-			RenameIgnoringProperty property = new RenameIgnoringProperty(a_project);
-			return property.exists() ? true : false;
+			batch.apply(null);
 		}
-		catch(CoreException e)
+		catch (CoreException e)
 		{
 			ErrorStatusHandler.log(e, e.getMessage());
-			return false;
 		}
 	}
 	
 	/**
 	 * Проверяет имя проекта a_project.
 	 * Если имя проекта не совпадает с именем папки проекта в
-	 * файловой системе, на проект ставится маркер проблемы,
-	 * иначе маркер удаляется.
+	 * файловой системе, в a_batch добавляется решение о
+	 * постановке на проект маркера проблемы, иначе - решение
+	 * об удалении маркера. Кроме того, имя проверяется всеми
+	 * правилами именования за один проход, и в a_batch
+	 * добавляются нарушенные правила. Решения применяются
+	 * вызывающей стороной.
 	 * Если параметр a_createWarningDialog равен true, в случае
 	 * несовпадения имён и несуществования на проекте свойства
-	 * RenameIgnoringProperty метод создаёт диалоговое окно с
-	 * предупреждением пользователю и возможностью выбрать, нужно
-	 * ли заносить проект a_project в исключения.
+	 * RenameIgnoringProperty проект добавляется в общее
+	 * асинхронное предупреждение пользователю с возможностью
+	 * выбрать, нужно ли заносить проект a_project в исключения.
+	 * Метод не ожидает ответа пользователя.
 	 * @param a_project
 	 * 		  Проект, имя которого необходимо проверить. NotNull
 	 * @param a_createWarningDialog
-	 * 		  Параметр, определяющий нужно ли создавать диалоговое
-	 * 		  окно с предупреждением в случае несовпадения имени
-	 * 		  проекта и имени его папки и несуществования свойства
+	 * 		  Параметр, определяющий нужно ли предупреждать
+	 * 		  пользователя в случае несовпадения имени проекта
+	 * 		  и имени его папки и несуществования свойства
 	 * 		  RenameIgnoringProperty на проекте
+	 * @param a_batch
+	 * 		  Набор, в который добавляется решение о маркере
+	 * 		  проекта. NotNull
 	 */
-	public void validateProjectName (IProject a_project, boolean a_createWarningDialog)
+	public void validateProjectName (IProject a_project, boolean a_createWarningDialog, MarkerUpdateBatch a_batch)
 	{
-		/**
-		 * Если проект занесён в исключения, следует вызвать метод
-		 * ProblemNameMarkerManager.deleteMarker, который
-		 * удалит маркер, если он существует:*/
-		ProblemNameMarkerManager manager = new ProblemNameMarkerManager(a_project);
-		if (ignoreProject(a_project))
+		long start = ValidatorMetrics.VALIDATION_TIME.start();
+		ProjectValidationEvent event = new ProjectValidationEvent();
+		event.begin();
+		ProjectNameChecker.Result result = null;
+		try
 		{
-			deleteMarker(manager);
-			return;
+			result = checkProjectName(a_project, a_createWarningDialog, a_batch);
 		}
-		String name = a_project.getName();
-		IPath location = a_project.getLocation();
-		if (location == null) return;
-		String pathLastSegment = location.lastSegment();
-		if (!name.equals(pathLastSegment))
+		finally
 		{
-			if (a_createWarningDialog && !renameIgnoringPropertyExists(a_project))
+			ValidatorMetrics.PROJECTS_VALIDATED.increment();
+			ValidatorMetrics.VALIDATION_TIME.stop(start);
+			event.end();
+			if (event.shouldCommit())
 			{
-				PlatformUI.getWorkbench().getDisplay().syncExec(new Runnable()
-				{
-				    @Override
-				    public void run ()
-				    {
-				    	ProblemNameDialog dialog = new ProblemNameDialog(a_project);
-						dialog.open();
-				    }
-				});
-				/**
-				 * Если пользователь с помощью диалогового окна занёс
-				 * проект в исключения, необходимость создания маркера
-				 * отсутствует:*/
-				if (ignoreProject(a_project)) return;
+				event.set(a_project.getName(), ProjectNameChecker.getFolderName(a_project),
+						  (result != null) ? result.name() : null);
+				event.commit();
 			}
-			try
-			{
-				manager.createMarker();
-			}
-			catch (CoreException e)
+		}
+	}
+	
+	/**
+	 * Проверяет имя проекта a_project.
+	 * @see #validateProjectName(IProject, boolean, MarkerUpdateBatch)
+	 * @return результат проверки
+	 */
+	private ProjectNameChecker.Result checkProjectName (IProject a_project, boolean a_createWarningDialog,
+														MarkerUpdateBatch a_batch)
+	{
+		/**
+		 * Исключения относятся только к несовпадению имён
+		 * проекта и папки, правила именования проверяются
+		 * всегда. Если правила не нарушены и маркеров
+		 * нарушений на проекте нет, решение не нужно.
+		 * Флаги проекта читаются из таблицы один раз:*/
+		int flags = getStateTable().getFlags(a_project);
+		List<NamingRule> violations = getRuleEngine().evaluate(a_project.getName());
+		if (!violations.isEmpty() || (flags & ProjectStateTable.FLAG_RULE_MARKERS) != 0)
+		{
+			a_batch.addRuleViolations(a_project, violations);
+		}
+		/**
+		 * Если проект занесён в исключения или его имя
+		 * соответствует шаблону исключений, маркер следует
+		 * удалить, если он существует. Свойство проекта при
+		 * этом не записывается, и предупреждение не
+		 * показывается:*/
+		boolean patternIgnored = getExceptionPatterns().matches(a_project.getName());
+		getStateTable().setPatternIgnored(a_project, patternIgnored);
+		if ((flags & ProjectStateTable.FLAG_IGNORED) != 0 || patternIgnored)
+		{
+			addDeletion(a_project, getStateTable().getMarkerId(a_project), a_batch);
+			return ProjectNameChecker.Result.IGNORED;
+		}
+		ProjectNameChecker.Result result = ProjectNameChecker.check(a_project, false,
+																	getRuleEngine().isCaseInsensitive());
+		/**
+		 * Если файловая система проекта не ответила, решение
+		 * о маркере не принимается до следующей проверки:*/
+		boolean unknown = (result == ProjectNameChecker.Result.UNKNOWN);
+		boolean mismatch = (result == ProjectNameChecker.Result.MISMATCH);
+		long markerId = getStateTable().setNameCheckResult(a_project, unknown, mismatch);
+		if (unknown) return result;
+		if (mismatch)
+		{
+			/**
+			 * Предупреждение показывается асинхронно. Если
+			 * пользователь занесёт проект в исключения, маркер
+			 * будет удалён при повторной проверке проекта:*/
+			if (a_createWarningDialog && m_warningNotifier != null && !renameIgnoringPropertyExists(a_project))
 			{
-				ErrorStatusHandler.log(e, Messages.Exception_Marker_Creation);
+				m_warningNotifier.add(a_project);
 			}
+			a_batch.addCreation(a_project);
 		}
-		else deleteMarker(manager);
+		else addDeletion(a_project, markerId, a_batch);
+		return result;
 	}
 	
 	/**
-	 * Метод удаляет маркер проблемного имени проекта, если он
-	 * существует.
-	 * @param a_manager
-	 * 	      Объект, с помощью которого происходит удаление
-	 * 		  маркера
+	 * Добавляет в a_batch решение об удалении маркера
+	 * проблемного имени проекта a_project, только если
+	 * маркер есть в таблице состояния проектов. Иначе
+	 * удалять нечего, и из a_batch лишь убирается прежнее
+	 * решение о проекте, поэтому проверка проекта с
+	 * правильным именем не создаёт объектов.
+	 * @param a_project
+	 * 		  Проект. NotNull
+	 * @param a_markerId
+	 * 		  Идентификатор маркера проекта из таблицы
+	 * 		  состояния проектов
+	 * @param a_batch
+	 * 		  Набор решений. NotNull
 	 */
-	private void deleteMarker (ProblemNameMarkerManager a_manager)
+	private static void addDeletion (IProject a_project, long a_markerId, MarkerUpdateBatch a_batch)
 	{
-		try
+		if (a_markerId != ProjectStateTable.NO_MARKER) a_batch.addDeletion(a_project);
+		else a_batch.removeUpdate(a_project);
+	}
+	
+	/**
+	 * Добавляет в a_batch решения о маркерах проекта
+	 * a_project, строка которого восстановлена из снимка,
+	 * не обращаясь к файловой системе: маркер проблемного
+	 * имени ставится по флагам строки, а правила именования
+	 * проверяются заново в памяти. Используется, если
+	 * маркеры не сохраняются вместе с рабочей областью и
+	 * после запуска их нужно создать заново. Уже
+	 * существующие маркеры не дублируются.
+	 * @param a_project
+	 * 		  Проект, строка которого восстановлена. NotNull
+	 * @param a_batch
+	 * 		  Набор, в который добавляются решения. NotNull
+	 */
+	public void restoreMarkers (IProject a_project, MarkerUpdateBatch a_batch)
+	{
+		int flags = getStateTable().getFlags(a_project);
+		if ((flags & ProjectStateTable.FLAG_MISMATCH) != 0 &&
+			(flags & (ProjectStateTable.FLAG_IGNORED | ProjectStateTable.FLAG_PATTERN_IGNORED)) == 0)
 		{
-			a_manager.deleteMarker();
+			a_batch.addCreation(a_project);
 		}
-		catch (CoreException e)
+		List<NamingRule> violations = getRuleEngine().evaluate(a_project.getName());
+		if (!violations.isEmpty() || (flags & ProjectStateTable.FLAG_RULE_MARKERS) != 0)
 		{
-			ErrorStatusHandler.log(e, Messages.Exception_Marker_Deletion);
+			a_batch.addRuleViolations(a_project, violations);
 		}
 	}
 	
+	/**
+	 * @return таблица состояния проектов, с которой работает
+	 * проверка
+	 */
+	public ProjectStateTable getStateTable ()
+	{
+		if (m_stateTable == null) m_stateTable = ProjectStateTable.getInstance();
+		return m_stateTable;
+	}
+	
+	/**
+	 * @return набор правил именования, которыми проверяются
+	 * проекты
+	 */
+	public RuleEngine getRuleEngine ()
+	{
+		return (m_ruleEngine != null) ? m_ruleEngine : RuleEngine.getInstance();
+	}
+	
+	/**
+	 * @return шаблоны исключений рабочей области, которым
+	 * сопоставляются имена проектов
+	 */
+	public ExceptionPatterns getExceptionPatterns ()
+	{
+		return (m_exceptionPatterns != null) ? m_exceptionPatterns : ExceptionPatterns.getInstance();
+	}
+	
 	/**
 	 * Добавляет к рабочей области слушатель изменения имени
 	 * проекта. Если имя проекта не совпадает с именем папки
 	 * проекта в файловой системе, и проект не занесён в
 	 * исключения, на него ставится маркер проблемы. После
 	 * исправления проблемы пользователем маркер удаляется.
+	 * Проверка выполняется фоновым заданием, а не в потоке
+	 * рассылки уведомлений об изменении ресурсов. Кроме
+	 * того, начинается наблюдение за папками проектов
+	 * (ProjectFolderWatcher), поэтому переименование папки
+	 * проекта вне рабочей среды тоже ставит проект в
+	 * очередь проверки.
 	 */
 	public void addChangedNameListener ()
 	{
-		ResourcesPlugin.getWorkspace().addResourceChangeListener (createPostBuildListener(),
+		ValidationQueueJob queue = new ValidationQueueJob(this);
+		/*
+		 * Без рабочей среды (например, в нагрузочном
+		 * приложении) предупреждение показывать некому:*/
+		if (PlatformUI.isWorkbenchRunning()) m_warningNotifier = new RenameWarningNotifier(queue);
+		ResourcesPlugin.getWorkspace().addResourceChangeListener (createPostBuildListener(queue),
 																  IResourceChangeEvent.POST_BUILD);
+		ProjectFolderWatcher.start(queue);
 	}
 	
 	
 	/**
 	 * Создаёт слушатель изменения ресурса (для события
-	 * IResourceChangeEvent.POST_BUILD). Слушатель вызывает
-	 * метод проверки имени проекта ресурса ("validateProjectName").
+	 * IResourceChangeEvent.POST_BUILD). Слушатель один раз
+	 * обходит дерево изменений до уровня проектов и добавляет
+	 * в очередь проверки добавленные, переименованные,
+	 * перемещённые, открытые заново проекты и проекты с
+	 * изменённым описанием.
+	 * @param a_queue
+	 * 		  Очередь проверки проектов
 	 * @return слушатель изменения ресурса
 	 */
-	private IResourceChangeListener createPostBuildListener ()
+	private IResourceChangeListener createPostBuildListener (ValidationQueueJob a_queue)
 	{
 		return new IResourceChangeListener ()
 		{
 			@Override
 			public void resourceChanged (IResourceChangeEvent a_event)
 			{
+				ValidatorMetrics.LISTENER_INVOCATIONS.increment();
 				IResourceDelta rootDelta = a_event.getDelta();
 				if (rootDelta == null) return;
-				IResourceDelta[] children = rootDelta.getAffectedChildren(IResourceDelta.ADDED);
-				for (IResourceDelta delta : children)
+				long start = ValidatorMetrics.LISTENER_TIME.start();
+				ListenerCallbackEvent event = new ListenerCallbackEvent();
+				event.begin();
+				try
+				{
+					ProjectDeltaVisitor visitor = new ProjectDeltaVisitor(a_queue);
+					rootDelta.accept(visitor);
+					DeferredScanJob deferredScan = m_deferredScan;
+					if (deferredScan != null && visitor.hasProjectChanges()) deferredScan.trigger();
+				}
+				catch (CoreException e)
+				{
+					ErrorStatusHandler.log(e, e.getMessage());
+				}
+				finally
 				{
-					IResource resource = delta.getResource();
-					
-					if (resource == null || !resource.exists() || resource.getType() != IResource.PROJECT) continue;
-					
-					IProject project = resource.getProject();
-					validateProjectName(project, true);
+					ValidatorMetrics.LISTENER_TIME.stop(start);
+					event.setEventType(a_event.getType());
+					event.commit();
 				}
 			}
 		};
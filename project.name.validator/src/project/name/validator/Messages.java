@@ -26,5 +26,70 @@ public class Messages extends NLS
 	public static String Exception_Marker_Creation;
 	
 	public static String Exception_Marker_Deletion;
+	
+	public static String Exception_Project_Validation;
+	
+	public static String Job_Validate_Existing_Projects;
+	
+	public static String Job_Validate_Changed_Projects;
+	
+	public static String Job_Rename_Warning;
+	
+	public static String Job_Save_Exceptions;
+	
+	public static String Exception_Snapshot_Reading;
+	
+	public static String Exception_Snapshot_Saving;
+	
+	public static String Exception_Exceptions_Saving;
+	
+	public static String Job_Migrate_Exceptions;
+	
+	public static String Job_Deferred_Scan;
+	
+	public static String Job_Report_Errors;
+	
+	public static String Error_Report_Summary;
+	
+	public static String Error_Report_Repeated;
+	
+	public static String Error_Report_Dropped;
+	
+	public static String Exception_Rule_Loading;
+	
+	public static String Exception_Rule_Markers;
+	
+	public static String Task_Rename_Projects;
+	
+	public static String Exception_Project_Rename;
+	
+	public static String Exception_Project_Exists;
+	
+	public static String Exception_Folder_Watch;
+	
+	public static String Job_Relocate_Project;
+	
+	public static String Exception_Project_Relocation;
+	
+	public static String Exception_Folder_Marker;
+	
+	public static String Job_Clear_Folder_Marker;
+	
+	public static String Job_Watch_Folders;
+	
+	public static String Exception_Service_Listener;
+	
+	public static String Exception_Exception_Pattern;
+	
+	public static String Exception_Pattern_Back_Reference;
+	
+	public static String Exception_Pattern_Named_Group;
+	
+	public static String Exception_Pattern_Unclosed_Quote;
+	
+	public static String Task_Rename_Folders;
+	
+	public static String Exception_Folder_Rename;
+	
+	public static String Exception_Folder_Exists;
 }
-
@@ -0,0 +1,123 @@
+package project.name.validator;
+
+import java.util.Objects;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IResourceDeltaVisitor;
+
+import project.name.validator.job.ValidationQueueJob;
+import project.name.validator.state.ProjectStateTable;
+
+/**
+ * Обходчик дерева изменений ресурсов, обрабатывающий
+ * изменения проектов. Обход не спускается ниже уровня
+ * проектов.
+ * Добавленный (в том числе переименованный или
+ * перемещённый) проект ставится в очередь один раз, состояние
+ * удалённого или закрытого проекта удаляется из таблицы
+ * состояния проектов, открытый заново проект и проект с
+ * изменённым описанием ставятся в очередь повторно.
+ * Исключение переименованного проекта переносится на его
+ * новое имя, а исключение удалённого проекта удаляется.
+ * Свойство прежнего формата открытого проекта, который был
+ * закрыт во время переноса свойств в хранилище исключений,
+ * переносится отдельным заданием. Изменения хранилища
+ * исключений только передаются очереди проверки, которая
+ * применяет их в своём задании.
+ */
+public class ProjectDeltaVisitor implements IResourceDeltaVisitor
+{
+	private ValidationQueueJob m_queue;
+	
+	/**
+	 * true, если обход встретил добавленный, удалённый,
+	 * открытый, закрытый проект или проект с изменённым
+	 * описанием.
+	 */
+	private boolean m_projectsChanged;
+	
+	/**
+	 * Конструктор класса ProjectDeltaVisitor.
+	 * @param a_queue
+	 * 		  Очередь, в которую добавляются проекты,
+	 * 		  требующие проверки. NotNull
+	 */
+	public ProjectDeltaVisitor (ValidationQueueJob a_queue)
+	{
+		m_queue = Objects.requireNonNull(a_queue);
+	}
+	
+	@Override
+	public boolean visit (IResourceDelta a_delta)
+	{
+		IResource resource = a_delta.getResource();
+		if (resource.getType() == IResource.ROOT) return true;
+		if (resource.getType() != IResource.PROJECT) return false;
+		
+		IProject project = (IProject)resource;
+		if (!isRelevant(a_delta)) return false;
+		m_projectsChanged = true;
+		ProjectStateTable table = ProjectStateTable.getInstance();
+		int flags = a_delta.getFlags();
+		switch (a_delta.getKind())
+		{
+			case IResourceDelta.ADDED:
+				/*
+				 * Переименованный проект приходит парой
+				 * REMOVED (MOVED_TO) и ADDED (MOVED_FROM).
+				 * Проверяется только новый проект, а состояние
+				 * старого удаляется:
+				 */
+				if ((flags & IResourceDelta.MOVED_FROM) != 0)
+				{
+					String oldName = a_delta.getMovedFromPath().lastSegment();
+					table.remove(oldName);
+					m_queue.renameException(oldName, project.getName());
+				}
+				if (project.isOpen()) m_queue.enqueue(project, true);
+				break;
+			case IResourceDelta.REMOVED:
+				table.remove(project.getName());
+				if ((flags & IResourceDelta.MOVED_TO) == 0) m_queue.removeException(project.getName());
+				break;
+			case IResourceDelta.CHANGED:
+				/*
+				 * Состояние закрытого проекта удаляется, а
+				 * состояние открытого заново проекта или проекта
+				 * с изменённым описанием заполняется заново:
+				 */
+				table.remove(project.getName());
+				if (!project.isOpen()) break;
+				m_queue.enqueue(project, false);
+				if ((flags & IResourceDelta.OPEN) != 0) m_queue.projectOpened(project);
+				break;
+			default:
+				break;
+		}
+		return false;
+	}
+	
+	/**
+	 * @param a_delta
+	 * 		  Изменение проекта
+	 * @return true, если изменение требует обработки:
+	 * проект добавлен, удалён, открыт, закрыт или
+	 * изменено его описание
+	 */
+	private static boolean isRelevant (IResourceDelta a_delta)
+	{
+		if (a_delta.getKind() != IResourceDelta.CHANGED) return true;
+		return (a_delta.getFlags() & (IResourceDelta.OPEN | IResourceDelta.DESCRIPTION)) != 0;
+	}
+	
+	/**
+	 * @return true, если обход встретил изменения
+	 * проектов, требующие обработки, false - иначе
+	 */
+	public boolean hasProjectChanges ()
+	{
+		return m_projectsChanged;
+	}
+}
@@ -0,0 +1,409 @@
+package project.name.validator;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.filesystem.EFS;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.CoreException;
+
+/**
+ * Определение расположения проекта с ограничением
+ * времени ожидания файловой системы.
+ * Расположение берётся из getLocationURI, поэтому
+ * поддерживаются проекты в любой файловой системе EFS.
+ * Перед использованием расположения проверяется, что
+ * файловая система отвечает: родительская папка
+ * проекта опрашивается вызовом EFS.fetchInfo в
+ * отдельном пуле потоков. Если ответа нет за
+ * RESOLUTION_TIMEOUT миллисекунд, расположение проекта
+ * считается неизвестным, а поток проверки продолжает
+ * работу с другими проектами. Результат опроса папки
+ * запоминается на PROBE_TTL миллисекунд и используется
+ * для всех проектов, находящихся в ней, поэтому
+ * недоступный сетевой диск задерживает проверку не
+ * более одного раза. Пока опрос папки не завершился,
+ * папка считается недоступной и заново не опрашивается:
+ * поток, зависший в вызове файловой системы, прервать
+ * нельзя. Незавершённых опросов папок одного тома (см.
+ * getMountKey) может быть не больше
+ * MAX_PENDING_PROBES_PER_MOUNT, поэтому недоступный диск
+ * не занимает все потоки опроса. Завершённые устаревшие
+ * опросы удаляются.
+ */
+public final class ProjectLocationResolver
+{
+	/**
+	 * Время (в миллисекундах), в течение которого
+	 * ожидается ответ файловой системы.
+	 */
+	public static final long RESOLUTION_TIMEOUT = 2000;
+	
+	/**
+	 * Время (в миллисекундах), в течение которого
+	 * используется результат опроса папки.
+	 */
+	private static final long PROBE_TTL = 30000;
+	
+	/**
+	 * Максимальное количество потоков, одновременно
+	 * опрашивающих файловую систему. Если свободного
+	 * потока нет, папка считается недоступной при этой
+	 * проверке, но результат не запоминается.
+	 */
+	private static final int MAX_THREAD_COUNT = 16;
+	
+	/**
+	 * Максимальное количество незавершённых опросов папок
+	 * одного тома. Пока их столько, остальные папки тома
+	 * считаются недоступными без опроса.
+	 */
+	private static final int MAX_PENDING_PROBES_PER_MOUNT = 2;
+	
+	/**
+	 * Количество сегментов пути в начале расположения
+	 * папки, по которым определяется том (например,
+	 * /mnt/share или /C:/Users).
+	 */
+	private static final int MOUNT_SEGMENT_COUNT = 2;
+	
+	private static final ThreadPoolExecutor s_executor = createExecutor();
+	
+	/**
+	 * Опросы папок: строка URI папки и последний опрос.
+	 */
+	private static final Map<String, Probe> s_probes = new HashMap<>();
+	
+	/**
+	 * Количество незавершённых опросов по томам (см.
+	 * getMountKey). Изменяется под блокировкой s_probes.
+	 */
+	private static final Map<String, Integer> s_pendingProbes = new HashMap<>();
+	
+	/**
+	 * Последний использованный опрос. Проекты рабочей
+	 * области обычно находятся в одной папке, поэтому
+	 * опрос этой папки находится без выделения строки
+	 * URI папки и без блокировки.
+	 */
+	private static volatile Probe s_lastProbe;
+	
+	private ProjectLocationResolver ()
+	{
+	}
+	
+	/**
+	 * @param a_project
+	 * 		  Проект. NotNull
+	 * @return расположение проекта a_project или null,
+	 * если оно неизвестно или файловая система, в которой
+	 * находится проект, не ответила вовремя
+	 */
+	public static URI resolve (IProject a_project)
+	{
+		URI location = a_project.getLocationURI();
+		if (location == null) return null;
+		return isReachable(location) ? location : null;
+	}
+	
+	/**
+	 * @param a_location
+	 * 		  Строка URI расположения проекта
+	 * @return длина строки URI родительской папки
+	 * расположения a_location (префикса a_location).
+	 * Вычисляется без разбора URI, поскольку вызывается
+	 * при каждой проверке проекта
+	 */
+	private static int getParentKeyLength (String a_location)
+	{
+		int end = a_location.length();
+		if (end > 1 && a_location.charAt(end - 1) == '/') end--;
+		int separator = a_location.lastIndexOf('/', end - 1);
+		return (separator > 0) ? separator + 1 : a_location.length();
+	}
+	
+	/**
+	 * @param a_location
+	 * 		  Расположение проекта
+	 * @return true, если файловая система ответила на
+	 * запрос информации о родительской папке проекта не
+	 * дольше чем за RESOLUTION_TIMEOUT миллисекунд, false
+	 * - иначе
+	 */
+	private static boolean isReachable (URI a_location)
+	{
+		String location = a_location.toString();
+		int keyLength = getParentKeyLength(location);
+		Probe probe = s_lastProbe;
+		if (probe != null && probe.isFolderOf(location, keyLength) && !probe.isExpired()) return probe.await();
+		String key = location.substring(0, keyLength);
+		synchronized (s_probes)
+		{
+			probe = s_probes.get(key);
+			if (probe == null || probe.isExpired())
+			{
+				removeExpiredProbes();
+				String mount = getMountKey(key);
+				Integer pending = s_pendingProbes.get(mount);
+				if (pending != null && pending.intValue() >= MAX_PENDING_PROBES_PER_MOUNT) return false;
+				probe = Probe.start(key, mount);
+				/*
+				 * Нет свободного потока: это не ответ файловой
+				 * системы, поэтому результат не запоминается:
+				 */
+				if (probe == null) return false;
+				s_probes.put(key, probe);
+			}
+		}
+		s_lastProbe = probe;
+		return probe.await();
+	}
+	
+	/**
+	 * Удаляет устаревшие опросы папок. Вызывается при
+	 * создании нового опроса под блокировкой s_probes.
+	 */
+	private static void removeExpiredProbes ()
+	{
+		for (Iterator<Probe> iterator = s_probes.values().iterator(); iterator.hasNext();)
+		{
+			if (iterator.next().isExpired()) iterator.remove();
+		}
+	}
+	
+	/**
+	 * @param a_folder
+	 * 		  Строка URI папки
+	 * @return ключ тома, на котором находится папка
+	 * a_folder: схема, сервер и первые MOUNT_SEGMENT_COUNT
+	 * сегментов пути. Файловая система при этом не
+	 * опрашивается
+	 */
+	private static String getMountKey (String a_folder)
+	{
+		URI folder = URI.create(a_folder);
+		String path = folder.getRawPath();
+		if (path == null) return a_folder;
+		int end = 0;
+		for (int i = 0; i < MOUNT_SEGMENT_COUNT && end >= 0; i++)
+		{
+			end = path.indexOf('/', end + 1);
+		}
+		StringBuilder key = new StringBuilder(String.valueOf(folder.getScheme())).append(':');
+		if (folder.getRawAuthority() != null) key.append("//").append(folder.getRawAuthority());
+		return key.append((end < 0) ? path : path.substring(0, end)).toString();
+	}
+	
+	/**
+	 * Уменьшает количество незавершённых опросов тома
+	 * a_mount.
+	 */
+	private static void probeFinished (String a_mount)
+	{
+		synchronized (s_probes)
+		{
+			Integer pending = s_pendingProbes.get(a_mount);
+			if (pending == null) return;
+			if (pending.intValue() > 1) s_pendingProbes.put(a_mount, pending.intValue() - 1);
+			else s_pendingProbes.remove(a_mount);
+		}
+	}
+	
+	/**
+	 * @return пул потоков опроса файловой системы. Потоки
+	 * создаются по мере необходимости и завершаются после
+	 * минуты бездействия
+	 */
+	private static ThreadPoolExecutor createExecutor ()
+	{
+		return new ThreadPoolExecutor(0, MAX_THREAD_COUNT, 60, TimeUnit.SECONDS, new SynchronousQueue<>(),
+									  new ThreadFactory()
+		{
+			private final AtomicInteger m_threadNumber = new AtomicInteger();
+			
+			@Override
+			public Thread newThread (Runnable a_runnable)
+			{
+				Thread thread = new Thread(a_runnable, "Project location resolver " +
+													   m_threadNumber.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+	
+	/**
+	 * Опрос одной папки.
+	 */
+	private static class Probe
+	{
+		private long m_startTime = System.nanoTime();
+		
+		/**
+		 * Строка URI опрашиваемой папки.
+		 */
+		private String m_key;
+		
+		private Future<Boolean> m_result;
+		
+		/**
+		 * Результат опроса или null, если опрос ещё не
+		 * завершён.
+		 */
+		private volatile Boolean m_reachable;
+		
+		private Probe (String a_key)
+		{
+			m_key = a_key;
+		}
+		
+		/**
+		 * Начинает опрос папки. Вызывается под блокировкой
+		 * s_probes.
+		 * @param a_key
+		 * 		  Строка URI папки
+		 * @param a_mount
+		 * 		  Ключ тома, на котором находится папка
+		 * @return начатый опрос или null, если для него нет
+		 * свободного потока
+		 */
+		static Probe start (String a_key, String a_mount)
+		{
+			Probe probe = new Probe(a_key);
+			try
+			{
+				probe.m_result = s_executor.submit(createTask(URI.create(a_key), a_mount));
+			}
+			catch (RejectedExecutionException e)
+			{
+				return null;
+			}
+			Integer pending = s_pendingProbes.get(a_mount);
+			s_pendingProbes.put(a_mount, (pending != null) ? pending.intValue() + 1 : 1);
+			return probe;
+		}
+		
+		/**
+		 * @param a_folder
+		 * 		  URI папки
+		 * @param a_mount
+		 * 		  Ключ тома, на котором находится папка
+		 * @return задача опроса папки a_folder, возвращающая
+		 * true, если файловая система ответила
+		 */
+		private static Callable<Boolean> createTask (URI a_folder, String a_mount)
+		{
+			return new Callable<Boolean>()
+			{
+				@Override
+				public Boolean call ()
+				{
+					try
+					{
+						/*
+						 * Важен только ответ файловой системы, а не
+						 * существование папки. Локальная файловая
+						 * система (в том числе смонтированные сетевые
+						 * диски) опрашивается напрямую, остальные -
+						 * через EFS:
+						 */
+						if (EFS.SCHEME_FILE.equals(a_folder.getScheme())) Files.exists(Paths.get(a_folder));
+						else EFS.getStore(a_folder).fetchInfo();
+						return Boolean.TRUE;
+					}
+					catch (CoreException | RuntimeException e)
+					{
+						return Boolean.FALSE;
+					}
+					finally
+					{
+						probeFinished(a_mount);
+					}
+				}
+			};
+		}
+		
+		/**
+		 * @param a_location
+		 * 		  Строка URI расположения проекта
+		 * @param a_keyLength
+		 * 		  Длина строки URI родительской папки
+		 * 		  расположения a_location
+		 * @return true, если опрашивается родительская папка
+		 * расположения a_location
+		 */
+		boolean isFolderOf (String a_location, int a_keyLength)
+		{
+			return a_keyLength == m_key.length() && a_location.startsWith(m_key);
+		}
+		
+		/**
+		 * @return true, если результат опроса устарел и
+		 * папку нужно опросить заново. Незавершённый опрос
+		 * не устаревает: пока он не завершится, папка
+		 * считается недоступной
+		 */
+		boolean isExpired ()
+		{
+			return m_result.isDone() && elapsedMillis() > PROBE_TTL;
+		}
+		
+		/**
+		 * Ожидает ответа файловой системы не дольше, чем
+		 * осталось до истечения RESOLUTION_TIMEOUT с начала
+		 * опроса.
+		 * @return true, если файловая система ответила, false
+		 * - если нет
+		 */
+		boolean await ()
+		{
+			Boolean reachable = m_reachable;
+			if (reachable != null) return reachable.booleanValue();
+			long remaining = RESOLUTION_TIMEOUT - elapsedMillis();
+			try
+			{
+				if (remaining <= 0 && !m_result.isDone()) return false;
+				reachable = m_result.get(Math.max(remaining, 0), TimeUnit.MILLISECONDS);
+			}
+			catch (ExecutionException e)
+			{
+				reachable = Boolean.FALSE;
+			}
+			catch (TimeoutException | CancellationException e)
+			{
+				/*
+				 * Опрос не завершился вовремя или отменён как
+				 * устаревший другим потоком:
+				 */
+				return false;
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				return false;
+			}
+			m_reachable = reachable;
+			return reachable.booleanValue();
+		}
+		
+		private long elapsedMillis ()
+		{
+			return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - m_startTime);
+		}
+	}
+}
@@ -0,0 +1,113 @@
+package project.name.validator;
+
+import java.net.URI;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.URIUtil;
+
+/**
+ * Проверка имени проекта на идентичность имени папки
+ * проекта в файловой системе.
+ * Класс не зависит от пользовательского интерфейса и
+ * не изменяет рабочую область, поэтому используется
+ * как в рабочей среде, так и при проверке без неё.
+ */
+public class ProjectNameChecker
+{
+	/**
+	 * Результат проверки имени проекта.
+	 */
+	public enum Result
+	{
+		/**
+		 * Имя проекта совпадает с именем его папки.
+		 */
+		MATCH,
+		
+		/**
+		 * Имя проекта не совпадает с именем его папки.
+		 */
+		MISMATCH,
+		
+		/**
+		 * Проект занесён пользователем в исключения.
+		 */
+		IGNORED,
+		
+		/**
+		 * Расположение проекта в файловой системе
+		 * неизвестно или файловая система не ответила
+		 * вовремя.
+		 */
+		UNKNOWN
+	}
+	
+	/**
+	 * Проверяет имя проекта a_project. Если файловая
+	 * система, в которой находится проект, не отвечает
+	 * дольше ProjectLocationResolver.RESOLUTION_TIMEOUT
+	 * миллисекунд, результатом проверки является UNKNOWN.
+	 * @param a_project
+	 * 		  Проект, имя которого необходимо проверить. NotNull
+	 * @param a_ignored
+	 * 		  Признак того, что проект занесён в исключения
+	 * @return результат проверки
+	 */
+	public static Result check (IProject a_project, boolean a_ignored)
+	{
+		return check(a_project, a_ignored, false);
+	}
+	
+	/**
+	 * Проверяет имя проекта a_project так же, как
+	 * check(IProject, boolean), но позволяет сравнивать
+	 * имя проекта с именем его папки без учёта регистра.
+	 * @param a_project
+	 * 		  Проект, имя которого необходимо проверить. NotNull
+	 * @param a_ignored
+	 * 		  Признак того, что проект занесён в исключения
+	 * @param a_caseInsensitive
+	 * 		  true, если регистр символов не учитывается
+	 * @return результат проверки
+	 */
+	public static Result check (IProject a_project, boolean a_ignored, boolean a_caseInsensitive)
+	{
+		if (a_ignored) return Result.IGNORED;
+		URI location = ProjectLocationResolver.resolve(a_project);
+		if (location == null) return Result.UNKNOWN;
+		String name = a_project.getName();
+		/*
+		 * Путь URI хранится в нём после первого обращения,
+		 * поэтому имя папки сравнивается прямо в пути, без
+		 * выделения его в отдельную строку:
+		 */
+		String path = location.getPath();
+		if (path == null)
+		{
+			String folderName = URIUtil.lastSegment(location);
+			if (folderName == null) return Result.UNKNOWN;
+			boolean match = a_caseInsensitive ? name.equalsIgnoreCase(folderName) : name.equals(folderName);
+			return match ? Result.MATCH : Result.MISMATCH;
+		}
+		int end = path.length();
+		while (end > 0 && path.charAt(end - 1) == '/') end--;
+		if (end == 0) return Result.UNKNOWN;
+		int start = path.lastIndexOf('/', end - 1) + 1;
+		boolean match = (end - start == name.length()) &&
+						path.regionMatches(a_caseInsensitive, start, name, 0, name.length());
+		return match ? Result.MATCH : Result.MISMATCH;
+	}
+	
+	/**
+	 * @param a_project
+	 * 		  Проект. NotNull
+	 * @return имя папки проекта a_project в файловой системе
+	 * или null, если расположение проекта неизвестно. Метод
+	 * не обращается к файловой системе
+	 */
+	public static String getFolderName (IProject a_project)
+	{
+		URI location = a_project.getLocationURI();
+		return (location != null) ? URIUtil.lastSegment(location) : null;
+	}
+}
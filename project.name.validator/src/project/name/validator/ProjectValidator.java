@@ -2,6 +2,7 @@ package project.name.validator;
 
 import java.util.Objects;
 
+import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
 
 /**
@@ -28,7 +29,23 @@ public class ProjectValidator
 	 */
 	public boolean isProjectOpen ()
 	{
-		return (m_resource != null && m_resource.exists() && m_resource.getProject() != null &&
-				m_resource.getProject().isOpen()) ? true : false;
+		return isProjectOpen(m_resource);
+	}
+	
+	/**
+	 * Проверяет, открыт ли проект ресурса, не создавая
+	 * объектов. Для самого проекта не запрашиваются ни его
+	 * дескриптор, ни существование: несуществующий проект
+	 * считается закрытым.
+	 * @param a_resource
+	 * 		  Ресурс. NotNull
+	 * @return true - если проект ресурса a_resource открыт
+	 * и сам ресурс существует, false - иначе
+	 */
+	public static boolean isProjectOpen (IResource a_resource)
+	{
+		if (a_resource.getType() == IResource.PROJECT) return ((IProject)a_resource).isOpen();
+		IProject project = a_resource.getProject();
+		return project != null && project.isOpen() && a_resource.exists();
 	}
 }
@@ -0,0 +1,176 @@
+package project.name.validator.application;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Map;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.equinox.app.IApplication;
+import org.eclipse.equinox.app.IApplicationContext;
+
+import project.name.validator.ProjectNameChecker;
+import project.name.validator.property.ExceptionPatterns;
+import project.name.validator.property.RenameIgnoringProperty;
+import project.name.validator.report.JsonReportWriter;
+import project.name.validator.report.ReportWriter;
+import project.name.validator.report.SarifReportWriter;
+import project.name.validator.rule.RuleEngine;
+
+/**
+ * Приложение, проверяющее имена проектов рабочей
+ * области без пользовательского интерфейса.
+ * Рабочая область задаётся стандартным параметром
+ * -data, формат отчёта - параметром -format (json
+ * или sarif, по умолчанию json), файл отчёта -
+ * параметром -output (по умолчанию отчёт выводится
+ * в стандартный поток вывода).
+ * Результаты записываются в отчёт по мере проверки,
+ * а рабочая область не изменяется.
+ */
+public class ValidationApplication implements IApplication
+{
+	/**
+	 * Код завершения в случае, если найдены проекты,
+	 * имя которых не совпадает с именем их папки.
+	 */
+	public static final Integer EXIT_MISMATCH = 1;
+	
+	/**
+	 * Код завершения в случае неверных параметров или
+	 * ошибки записи отчёта.
+	 */
+	public static final Integer EXIT_ERROR = 2;
+	
+	private static final String ARGUMENT_FORMAT = "-format";
+	
+	private static final String ARGUMENT_OUTPUT = "-output";
+	
+	private static final String FORMAT_JSON = "json";
+	
+	private static final String FORMAT_SARIF = "sarif";
+	
+	@Override
+	public Object start (IApplicationContext a_context) throws Exception
+	{
+		Map<?, ?> arguments = a_context.getArguments();
+		String[] applicationArguments = (String[])arguments.get(IApplicationContext.APPLICATION_ARGS);
+		String format = getArgument(applicationArguments, ARGUMENT_FORMAT, FORMAT_JSON);
+		String output = getArgument(applicationArguments, ARGUMENT_OUTPUT, null);
+		if (!FORMAT_JSON.equals(format) && !FORMAT_SARIF.equals(format))
+		{
+			System.err.println("Unknown report format: " + format);
+			return EXIT_ERROR;
+		}
+		a_context.applicationRunning();
+		
+		try (ReportWriter writer = createReportWriter(format, output))
+		{
+			validate(writer);
+			System.err.println("Checked: " + writer.getCheckedCount() + ", mismatched: " +
+							   writer.getMismatchedCount() + ", ignored: " + writer.getIgnoredCount() +
+							   ", unknown: " + writer.getUnknownCount());
+			return (writer.getMismatchedCount() > 0) ? EXIT_MISMATCH : IApplication.EXIT_OK;
+		}
+		catch (IOException e)
+		{
+			System.err.println("Cannot write report: " + e.getMessage());
+			return EXIT_ERROR;
+		}
+	}
+	
+	@Override
+	public void stop ()
+	{
+	}
+	
+	/**
+	 * Проверяет открытые проекты рабочей области и
+	 * записывает результат проверки каждого из них.
+	 * Закрытые проекты пропускаются.
+	 * @param a_writer
+	 * 		  Объект записи отчёта
+	 * @throws IOException
+	 */
+	private void validate (ReportWriter a_writer) throws IOException
+	{
+		IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
+		a_writer.begin(root.getLocation().toOSString());
+		boolean caseInsensitive = RuleEngine.getInstance().isCaseInsensitive();
+		for (IProject project : root.getProjects())
+		{
+			if (!project.isOpen()) continue;
+			ProjectNameChecker.Result result = ProjectNameChecker.check(project, isIgnored(project), caseInsensitive);
+			IPath location = project.getLocation();
+			a_writer.write(project.getName(), ProjectNameChecker.getFolderName(project),
+						   (location != null) ? location.toOSString() : null, result);
+		}
+		a_writer.end();
+	}
+	
+	/**
+	 * @param a_project
+	 * 		  Проект
+	 * @return true, если проект занесён в исключения или
+	 * его имя соответствует шаблону исключений рабочей
+	 * области, false - иначе
+	 */
+	private static boolean isIgnored (IProject a_project)
+	{
+		if (ExceptionPatterns.getInstance().matches(a_project.getName())) return true;
+		try
+		{
+			return Boolean.parseBoolean(new RenameIgnoringProperty(a_project).readValue());
+		}
+		catch (CoreException e)
+		{
+			System.err.println("Cannot read exception flag of " + a_project.getName() + ": " + e.getMessage());
+			return false;
+		}
+	}
+	
+	/**
+	 * @param a_format
+	 * 		  Формат отчёта
+	 * @param a_output
+	 * 		  Путь к файлу отчёта или null для записи в
+	 * 		  стандартный поток вывода
+	 * @return объект записи отчёта
+	 * @throws IOException
+	 */
+	private static ReportWriter createReportWriter (String a_format, String a_output) throws IOException
+	{
+		Writer writer = (a_output != null) ?
+						Files.newBufferedWriter(Paths.get(a_output), StandardCharsets.UTF_8) :
+						new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+		return FORMAT_SARIF.equals(a_format) ? new SarifReportWriter(writer) : new JsonReportWriter(writer);
+	}
+	
+	/**
+	 * @param a_arguments
+	 * 		  Параметры приложения. Может быть null
+	 * @param a_name
+	 * 		  Имя параметра
+	 * @param a_defaultValue
+	 * 		  Значение по умолчанию
+	 * @return значение, следующее за параметром a_name, или
+	 * a_defaultValue, если параметр не задан
+	 */
+	private static String getArgument (String[] a_arguments, String a_name, String a_defaultValue)
+	{
+		if (a_arguments == null) return a_defaultValue;
+		for (int i = 0; i < a_arguments.length - 1; i++)
+		{
+			if (a_name.equals(a_arguments[i])) return a_arguments[i + 1];
+		}
+		return a_defaultValue;
+	}
+}
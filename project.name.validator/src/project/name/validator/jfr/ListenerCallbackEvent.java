@@ -0,0 +1,30 @@
+package project.name.validator.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Событие JFR, охватывающее обработку уведомления об
+ * изменении ресурсов слушателем плагина.
+ */
+@Name("project.name.validator.ListenerCallback")
+@Label("Listener Callback")
+@Category({"Project Name Validator"})
+@Description("Handling of a resource change notification")
+public class ListenerCallbackEvent extends jdk.jfr.Event
+{
+	@Name("eventType")
+	@Label("Resource Change Event Type")
+	private int m_eventType;
+	
+	/**
+	 * @param a_eventType
+	 * 		  Тип события IResourceChangeEvent
+	 */
+	public void setEventType (int a_eventType)
+	{
+		m_eventType = a_eventType;
+	}
+}
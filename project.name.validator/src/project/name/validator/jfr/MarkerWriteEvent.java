@@ -0,0 +1,52 @@
+package project.name.validator.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Событие JFR, охватывающее создание или удаление
+ * маркера проблемного имени проекта.
+ * По умолчанию записываются только операции дольше
+ * 1 мс.
+ */
+@Name("project.name.validator.MarkerWrite")
+@Label("Marker Write")
+@Category({"Project Name Validator"})
+@Threshold("1 ms")
+@Description("Creation or deletion of a problem name marker")
+public class MarkerWriteEvent extends jdk.jfr.Event
+{
+	/**
+	 * Операция создания маркера.
+	 */
+	public static final String OPERATION_CREATE = "create";
+	
+	/**
+	 * Операция удаления маркера.
+	 */
+	public static final String OPERATION_DELETE = "delete";
+	
+	@Name("projectName")
+	@Label("Project Name")
+	private String m_projectName;
+	
+	@Name("operation")
+	@Label("Operation")
+	private String m_operation;
+	
+	/**
+	 * Заполняет поля события.
+	 * @param a_projectName
+	 * 		  Имя проекта
+	 * @param a_operation
+	 * 		  OPERATION_CREATE или OPERATION_DELETE
+	 */
+	public void set (String a_projectName, String a_operation)
+	{
+		m_projectName = a_projectName;
+		m_operation = a_operation;
+	}
+}
@@ -0,0 +1,53 @@
+package project.name.validator.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Событие JFR, охватывающее проверку имени одного
+ * проекта.
+ * По умолчанию записываются только проверки дольше
+ * 1 мс: при полном проходе по большой рабочей области
+ * быстрые проверки переполнили бы запись. Порог
+ * изменяется настройкой записи
+ * project.name.validator.ProjectValidation#threshold.
+ */
+@Name("project.name.validator.ProjectValidation")
+@Label("Project Validation")
+@Category({"Project Name Validator"})
+@Threshold("1 ms")
+@Description("Comparison of a project name with its folder name")
+public class ProjectValidationEvent extends jdk.jfr.Event
+{
+	@Name("projectName")
+	@Label("Project Name")
+	private String m_projectName;
+	
+	@Name("folderName")
+	@Label("Folder Name")
+	private String m_folderName;
+	
+	@Name("outcome")
+	@Label("Outcome")
+	private String m_outcome;
+	
+	/**
+	 * Заполняет поля события.
+	 * @param a_projectName
+	 * 		  Имя проекта
+	 * @param a_folderName
+	 * 		  Имя папки проекта или null, если расположение
+	 * 		  проекта неизвестно
+	 * @param a_outcome
+	 * 		  Результат проверки
+	 */
+	public void set (String a_projectName, String a_folderName, String a_outcome)
+	{
+		m_projectName = a_projectName;
+		m_folderName = a_folderName;
+		m_outcome = a_outcome;
+	}
+}
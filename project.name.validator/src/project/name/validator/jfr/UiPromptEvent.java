@@ -0,0 +1,40 @@
+package project.name.validator.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Событие JFR, охватывающее показ модального диалога
+ * ProblemNameDialog: время, в течение которого поток
+ * пользовательского интерфейса ожидал ответа.
+ */
+@Name("project.name.validator.UiPrompt")
+@Label("UI Prompt")
+@Category({"Project Name Validator"})
+@Description("Blocking rename warning dialog")
+public class UiPromptEvent extends jdk.jfr.Event
+{
+	@Name("projectCount")
+	@Label("Project Count")
+	private int m_projectCount;
+	
+	@Name("ignoredCount")
+	@Label("Projects Added To Exceptions")
+	private int m_ignoredCount;
+	
+	/**
+	 * Заполняет поля события.
+	 * @param a_projectCount
+	 * 		  Количество проектов в диалоге
+	 * @param a_ignoredCount
+	 * 		  Количество проектов, занесённых пользователем
+	 * 		  в исключения
+	 */
+	public void set (int a_projectCount, int a_ignoredCount)
+	{
+		m_projectCount = a_projectCount;
+		m_ignoredCount = a_ignoredCount;
+	}
+}
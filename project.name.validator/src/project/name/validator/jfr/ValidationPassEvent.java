@@ -0,0 +1,57 @@
+package project.name.validator.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Событие JFR, охватывающее один проход проверки:
+ * проверку всех проектов рабочей области или
+ * обработку одного пакета очереди проверки.
+ */
+@Name("project.name.validator.ValidationPass")
+@Label("Validation Pass")
+@Category({"Project Name Validator"})
+@Description("Validation of a set of workspace projects")
+public class ValidationPassEvent extends jdk.jfr.Event
+{
+	/**
+	 * Источник прохода проверки всех проектов рабочей
+	 * области.
+	 */
+	public static final String TRIGGER_EXISTING_PROJECTS = "existing projects";
+	
+	/**
+	 * Источник прохода проверки пакета очереди.
+	 */
+	public static final String TRIGGER_QUEUE = "queue";
+	
+	@Name("trigger")
+	@Label("Trigger")
+	private String m_trigger;
+	
+	@Name("projectCount")
+	@Label("Project Count")
+	private int m_projectCount;
+	
+	/**
+	 * Конструктор класса ValidationPassEvent.
+	 * @param a_trigger
+	 * 		  Источник прохода: TRIGGER_EXISTING_PROJECTS
+	 * 		  или TRIGGER_QUEUE
+	 */
+	public ValidationPassEvent (String a_trigger)
+	{
+		m_trigger = a_trigger;
+	}
+	
+	/**
+	 * @param a_projectCount
+	 * 		  Количество проектов, проверенных за проход
+	 */
+	public void setProjectCount (int a_projectCount)
+	{
+		m_projectCount = a_projectCount;
+	}
+}
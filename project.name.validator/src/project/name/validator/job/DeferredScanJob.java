@@ -0,0 +1,119 @@
+package project.name.validator.job;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+import project.name.validator.ChangedNameValidator;
+import project.name.validator.Messages;
+
+/**
+ * Задание, откладывающее проверку существующих проектов
+ * до тех пор, пока рабочая среда не станет простаивать
+ * или пока не придёт первое событие, затрагивающее
+ * проекты.
+ * Рабочая среда считается простаивающей, если не
+ * выполняется ни одно задание с приоритетом выше
+ * Job.DECORATE (сборка, обновление, задания
+ * пользователя). Пока среда занята, задание откладывает
+ * себя с удваивающейся задержкой, но не дольше
+ * MAX_WAIT миллисекунд в сумме.
+ */
+public class DeferredScanJob extends Job
+{
+	/**
+	 * Задержка (в миллисекундах) перед первой проверкой
+	 * простоя рабочей среды.
+	 */
+	public static final long INITIAL_DELAY = 5000;
+	
+	/**
+	 * Максимальная задержка (в миллисекундах) между
+	 * проверками простоя рабочей среды.
+	 */
+	private static final long MAX_DELAY = 60000;
+	
+	/**
+	 * Время (в миллисекундах), после которого проверка
+	 * существующих проектов запускается, даже если рабочая
+	 * среда так и не начала простаивать.
+	 */
+	private static final long MAX_WAIT = 300000;
+	
+	private ChangedNameValidator m_validator;
+	
+	/**
+	 * true, если проверка существующих проектов уже
+	 * запущена.
+	 */
+	private AtomicBoolean m_started = new AtomicBoolean();
+	
+	/**
+	 * true, если пришло событие, затрагивающее проекты.
+	 */
+	private volatile boolean m_triggered;
+	
+	private long m_delay = INITIAL_DELAY;
+	
+	private long m_waited = INITIAL_DELAY;
+	
+	/**
+	 * Конструктор класса DeferredScanJob.
+	 * @param a_validator
+	 * 		  Объект, запускающий проверку существующих
+	 * 		  проектов. NotNull
+	 */
+	public DeferredScanJob (ChangedNameValidator a_validator)
+	{
+		super(Messages.Job_Deferred_Scan);
+		m_validator = Objects.requireNonNull(a_validator);
+		setSystem(true);
+		setPriority(Job.DECORATE);
+	}
+	
+	/**
+	 * Запускает проверку существующих проектов как можно
+	 * скорее, не дожидаясь простоя рабочей среды. Метод
+	 * не выполняет проверку в вызывающем потоке, поэтому
+	 * может вызываться слушателем изменения ресурсов.
+	 */
+	public void trigger ()
+	{
+		if (m_started.get() || m_triggered) return;
+		m_triggered = true;
+		if (getState() == Job.SLEEPING) wakeUp();
+		else schedule();
+	}
+	
+	@Override
+	protected IStatus run (IProgressMonitor a_monitor)
+	{
+		if (m_started.get()) return Status.OK_STATUS;
+		if (!m_triggered && m_waited < MAX_WAIT && !isWorkbenchIdle())
+		{
+			m_delay = Math.min(m_delay * 2, MAX_DELAY);
+			m_waited += m_delay;
+			schedule(m_delay);
+			return Status.OK_STATUS;
+		}
+		if (m_started.compareAndSet(false, true)) m_validator.validateExistingProjectNames();
+		return Status.OK_STATUS;
+	}
+	
+	/**
+	 * @return true, если не выполняется ни одно задание с
+	 * приоритетом выше Job.DECORATE, false - иначе
+	 */
+	private boolean isWorkbenchIdle ()
+	{
+		for (Job job : Job.getJobManager().find(null))
+		{
+			if (job != this && job.getState() == Job.RUNNING && job.getPriority() < Job.DECORATE) return false;
+		}
+		return true;
+	}
+}
@@ -0,0 +1,140 @@
+package project.name.validator.job;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.resources.WorkspaceJob;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.core.runtime.jobs.Job;
+
+import project.name.validator.Messages;
+import project.name.validator.log.ErrorStatusHandler;
+import project.name.validator.property.ExceptionStore;
+import project.name.validator.property.RenameIgnoringProperty;
+
+/**
+ * Фоновое задание, переносящее значения свойства
+ * RenameIgnoringProperty из хранилища свойств проектов в
+ * хранилище исключений рабочей области.
+ * Значения всех открытых проектов записываются в
+ * хранилище одной операцией, после чего свойства
+ * прежнего формата удаляются, а перенос отмечается
+ * завершённым. Свойства закрытых проектов прочитать
+ * нельзя, поэтому их имена запоминаются в хранилище, а
+ * свойства переносятся, когда проект будет открыт.
+ */
+public class ExceptionMigrationJob extends WorkspaceJob
+{
+	/**
+	 * Проекты, свойства которых нужно перенести, или null,
+	 * если переносятся свойства всех проектов рабочей
+	 * области.
+	 */
+	private List<IProject> m_projects;
+	
+	/**
+	 * Конструктор класса ExceptionMigrationJob, создающий
+	 * задание, переносящее свойства всех проектов рабочей
+	 * области.
+	 */
+	public ExceptionMigrationJob ()
+	{
+		super(Messages.Job_Migrate_Exceptions);
+		setSystem(true);
+		setPriority(Job.DECORATE);
+	}
+	
+	/**
+	 * Конструктор класса ExceptionMigrationJob, создающий
+	 * задание, переносящее свойства проектов, которые были
+	 * закрыты во время переноса.
+	 * @param a_projects
+	 * 		  Открытые заново проекты. NotNull
+	 */
+	public ExceptionMigrationJob (Collection<IProject> a_projects)
+	{
+		this();
+		m_projects = new ArrayList<>(a_projects);
+	}
+	
+	@Override
+	public IStatus runInWorkspace (IProgressMonitor a_monitor) throws CoreException
+	{
+		ExceptionStore store = ExceptionStore.getInstance();
+		boolean all = (m_projects == null);
+		if (all == store.isMigrated()) return Status.OK_STATUS;
+		List<IProject> projects = all ? Arrays.asList(ResourcesPlugin.getWorkspace().getRoot().getProjects())
+									  : m_projects;
+		SubMonitor subMonitor = SubMonitor.convert(a_monitor, projects.size() * 2);
+		
+		Map<String, Boolean> values = new HashMap<>();
+		Map<IProject, RenameIgnoringProperty> migrated = new HashMap<>();
+		List<String> done = new ArrayList<>();
+		List<String> pending = new ArrayList<>();
+		for (IProject project : projects)
+		{
+			subMonitor.worked(1);
+			if (!store.isPending(project.getName())) continue;
+			if (!project.isOpen())
+			{
+				pending.add(project.getName());
+				continue;
+			}
+			RenameIgnoringProperty property = new RenameIgnoringProperty(project, store);
+			try
+			{
+				String value = property.readLegacyValue();
+				done.add(project.getName());
+				if (value == null) continue;
+				/*
+				 * Значение, уже записанное в хранилище, новее
+				 * значения прежнего формата:
+				 */
+				if (store.get(project.getName()) == null) values.put(project.getName(),
+																	 Boolean.valueOf(value));
+				migrated.put(project, property);
+			}
+			catch (CoreException e)
+			{
+				ErrorStatusHandler.log(e, e.getMessage());
+				pending.add(project.getName());
+			}
+		}
+		/*
+		 * Свойства прежнего формата удаляются только после
+		 * записи хранилища на диск:
+		 */
+		store.setAll(values);
+		store.addPending(pending);
+		store.flush();
+		subMonitor.setWorkRemaining(migrated.size());
+		for (RenameIgnoringProperty property : migrated.values())
+		{
+			try
+			{
+				property.removeLegacyValue();
+			}
+			catch (CoreException e)
+			{
+				ErrorStatusHandler.log(e, e.getMessage());
+			}
+			subMonitor.worked(1);
+		}
+		for (String name : done)
+		{
+			store.removePending(name);
+		}
+		if (all) store.setMigrated();
+		return Status.OK_STATUS;
+	}
+}
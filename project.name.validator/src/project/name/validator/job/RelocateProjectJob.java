@@ -0,0 +1,123 @@
+package project.name.validator.job;
+
+import java.util.Objects;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IProjectDescription;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceRuleFactory;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.WorkspaceJob;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.osgi.util.NLS;
+
+import project.name.validator.Messages;
+import project.name.validator.log.ErrorStatusHandler;
+import project.name.validator.marker.MovedFolderMarkerManager;
+
+/**
+ * Фоновое задание, переносящее расположение проекта в
+ * папку, в которую папка проекта была переименована или
+ * перемещена вне рабочей среды. Содержимое проекта не
+ * перемещается: изменяется только расположение в
+ * описании проекта. После этого проект ставится в
+ * очередь проверки, и несовпадение его имени с новым
+ * именем папки отмечается маркером. Если перенос
+ * расположения выключен настройкой
+ * ProjectFolderWatcher.PREFERENCE_RELOCATE_PROJECTS,
+ * расположение не изменяется, а на проект ставится
+ * маркер MovedFolderMarkerManager с новым расположением
+ * папки.
+ */
+public class RelocateProjectJob extends WorkspaceJob
+{
+	private IProject m_project;
+	
+	private IPath m_location;
+	
+	private ValidationQueueJob m_queue;
+	
+	private boolean m_relocate;
+	
+	/**
+	 * Конструктор класса RelocateProjectJob.
+	 * @param a_project
+	 * 		  Проект, папка которого переименована или
+	 * 		  перемещена. NotNull
+	 * @param a_location
+	 * 		  Новое расположение папки проекта. NotNull
+	 * @param a_queue
+	 * 		  Очередь проверки проектов. NotNull
+	 * @param a_relocate
+	 * 		  true, если расположение проекта нужно
+	 * 		  перенести, false - если только отметить новое
+	 * 		  расположение папки маркером
+	 */
+	public RelocateProjectJob (IProject a_project, IPath a_location, ValidationQueueJob a_queue, boolean a_relocate)
+	{
+		super(NLS.bind(Messages.Job_Relocate_Project, a_project.getName()));
+		m_project = a_project;
+		m_location = Objects.requireNonNull(a_location);
+		m_queue = Objects.requireNonNull(a_queue);
+		m_relocate = a_relocate;
+		setSystem(true);
+		IResourceRuleFactory ruleFactory = a_project.getWorkspace().getRuleFactory();
+		setRule(a_relocate ? ruleFactory.moveRule(a_project, a_project) : ruleFactory.markerRule(a_project));
+	}
+	
+	@Override
+	public IStatus runInWorkspace (IProgressMonitor a_monitor)
+	{
+		if (!m_project.isOpen()) return Status.OK_STATUS;
+		/*
+		 * Пока задание ожидало запуска, папка проекта могла
+		 * вернуться на прежнее место:
+		 */
+		IPath oldLocation = m_project.getLocation();
+		if (oldLocation == null || oldLocation.toFile().exists() || !m_location.toFile().isDirectory())
+		{
+			m_queue.enqueue(m_project, false);
+			return Status.OK_STATUS;
+		}
+		if (!m_relocate)
+		{
+			try
+			{
+				MovedFolderMarkerManager.mark(m_project, m_location);
+			}
+			catch (CoreException e)
+			{
+				ErrorStatusHandler.log(e, NLS.bind(Messages.Exception_Folder_Marker, m_project.getName()));
+			}
+			return Status.OK_STATUS;
+		}
+		IWorkspace workspace = m_project.getWorkspace();
+		/*
+		 * Расположение внутри каталога рабочей области,
+		 * отличное от расположения по умолчанию, рабочая
+		 * область не допускает. В этом случае проект только
+		 * проверяется заново:
+		 */
+		if (!workspace.validateProjectLocationURI(m_project, m_location.toFile().toURI()).isOK())
+		{
+			m_queue.enqueue(m_project, false);
+			return Status.OK_STATUS;
+		}
+		try
+		{
+			IProjectDescription description = m_project.getDescription();
+			description.setLocationURI(m_location.toFile().toURI());
+			m_project.move(description, IResource.SHALLOW | IResource.FORCE, a_monitor);
+		}
+		catch (CoreException e)
+		{
+			ErrorStatusHandler.log(e, NLS.bind(Messages.Exception_Project_Relocation, m_project.getName()));
+		}
+		m_queue.enqueue(m_project, true);
+		return Status.OK_STATUS;
+	}
+}
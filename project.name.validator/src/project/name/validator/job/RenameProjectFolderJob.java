@@ -0,0 +1,214 @@
+package project.name.validator.job;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IProjectDescription;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceRuleFactory;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.resources.WorkspaceJob;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
+import org.eclipse.core.runtime.jobs.MultiRule;
+import org.eclipse.osgi.util.NLS;
+
+import project.name.validator.Activator;
+import project.name.validator.Messages;
+import project.name.validator.log.ErrorStatusHandler;
+
+/**
+ * Фоновое задание, переименовывающее папки проектов в
+ * файловой системе так, чтобы их имена совпали с
+ * именами проектов. Папка переименовывается на месте
+ * одной атомарной операцией файловой системы, после
+ * чего в описании проекта изменяется только его
+ * расположение, поэтому время переименования не зависит
+ * от размера проекта. Если файловая система не
+ * поддерживает атомарное переименование, проект
+ * переносится средствами рабочей области: содержимое
+ * копируется с отображением прогресса, а затем прежняя
+ * папка удаляется. Если расположение проекта не удалось
+ * изменить после переименования папки, папке
+ * возвращается прежнее имя.
+ */
+public class RenameProjectFolderJob extends WorkspaceJob
+{
+	private List<IProject> m_projects;
+	
+	/**
+	 * Конструктор класса RenameProjectFolderJob.
+	 * @param a_projects
+	 * 		  Проекты, папки которых нужно переименовать.
+	 * 		  NotNull
+	 */
+	public RenameProjectFolderJob (Collection<IProject> a_projects)
+	{
+		super(Messages.Task_Rename_Folders);
+		m_projects = new ArrayList<>(a_projects);
+		setUser(true);
+		setRule(createRule(ResourcesPlugin.getWorkspace(), m_projects));
+	}
+	
+	@Override
+	public IStatus runInWorkspace (IProgressMonitor a_monitor)
+	{
+		SubMonitor subMonitor = SubMonitor.convert(a_monitor, Messages.Task_Rename_Folders, m_projects.size());
+		ErrorStatusHandler.beginPass();
+		try
+		{
+			for (IProject project : m_projects)
+			{
+				if (subMonitor.isCanceled()) return Status.CANCEL_STATUS;
+				try
+				{
+					renameFolder(project, subMonitor.split(1));
+				}
+				catch (CoreException e)
+				{
+					ErrorStatusHandler.log(e, NLS.bind(Messages.Exception_Folder_Rename, project.getName()));
+				}
+			}
+		}
+		finally
+		{
+			ErrorStatusHandler.endPass();
+		}
+		return Status.OK_STATUS;
+	}
+	
+	/**
+	 * Переименовывает папку проекта a_project по имени
+	 * проекта, если имена не совпадают, проект открыт,
+	 * находится в локальной файловой системе и рядом нет
+	 * другого файла или папки с таким именем.
+	 * @param a_project
+	 * 		  Проект. NotNull
+	 * @param a_monitor
+	 * 		  Монитор прогресса
+	 * @throws CoreException
+	 */
+	private static void renameFolder (IProject a_project, IProgressMonitor a_monitor) throws CoreException
+	{
+		if (!a_project.isOpen()) return;
+		IPath location = a_project.getLocation();
+		String name = a_project.getName();
+		if (location == null || location.segmentCount() == 0 || name.equals(location.lastSegment())) return;
+		IPath targetLocation = location.removeLastSegments(1).append(name);
+		Path source = location.toFile().toPath();
+		Path target = targetLocation.toFile().toPath();
+		/*
+		 * В файловой системе без учёта регистра папка,
+		 * имя которой отличается только регистром, уже
+		 * "существует" - это сама папка проекта:
+		 */
+		if (Files.exists(target, LinkOption.NOFOLLOW_LINKS) && !isSameFile(source, target))
+		{
+			ErrorStatusHandler.log(null, NLS.bind(Messages.Exception_Folder_Exists, name, target));
+			return;
+		}
+		IWorkspace workspace = a_project.getWorkspace();
+		IProjectDescription description = a_project.getDescription();
+		/*
+		 * Папка с именем проекта в каталоге рабочей области -
+		 * это расположение проекта по умолчанию, и явное
+		 * расположение нужно убрать:
+		 */
+		IPath rootLocation = workspace.getRoot().getLocation();
+		boolean defaultLocation = rootLocation != null && rootLocation.append(name).equals(targetLocation);
+		description.setLocationURI(defaultLocation ? null : targetLocation.toFile().toURI());
+		IStatus status = workspace.validateProjectLocationURI(a_project, description.getLocationURI());
+		if (!status.isOK()) throw new CoreException(status);
+		
+		try
+		{
+			Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (AtomicMoveNotSupportedException e)
+		{
+			a_project.move(description, IResource.FORCE, a_monitor);
+			return;
+		}
+		catch (IOException e)
+		{
+			throw new CoreException(new Status(IStatus.ERROR, Activator.PLUGIN_ID,
+											   NLS.bind(Messages.Exception_Folder_Rename, name), e));
+		}
+		try
+		{
+			a_project.move(description, IResource.SHALLOW | IResource.FORCE, a_monitor);
+		}
+		catch (CoreException | RuntimeException e)
+		{
+			rollBack(target, source, e);
+			throw e;
+		}
+	}
+	
+	/**
+	 * Возвращает папке проекта прежнее имя после неудачной
+	 * попытки изменить расположение проекта. Ошибка
+	 * возврата добавляется к исходной ошибке a_cause.
+	 */
+	private static void rollBack (Path a_target, Path a_source, Exception a_cause)
+	{
+		try
+		{
+			Files.move(a_target, a_source, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (IOException e)
+		{
+			a_cause.addSuppressed(e);
+		}
+	}
+	
+	/**
+	 * @return true, если пути a_first и a_second указывают
+	 * на один и тот же файл, false - иначе или если это не
+	 * удалось определить
+	 */
+	private static boolean isSameFile (Path a_first, Path a_second)
+	{
+		try
+		{
+			return Files.isSameFile(a_first, a_second);
+		}
+		catch (IOException e)
+		{
+			return false;
+		}
+	}
+	
+	/**
+	 * @param a_workspace
+	 * 		  Рабочая область
+	 * @param a_projects
+	 * 		  Проекты, папки которых переименовываются
+	 * @return правило планирования, необходимое для
+	 * изменения расположения всех проектов из a_projects
+	 */
+	private static ISchedulingRule createRule (IWorkspace a_workspace, List<IProject> a_projects)
+	{
+		IResourceRuleFactory ruleFactory = a_workspace.getRuleFactory();
+		ISchedulingRule rule = null;
+		for (IProject project : a_projects)
+		{
+			rule = MultiRule.combine(rule, ruleFactory.moveRule(project, project));
+		}
+		return rule;
+	}
+}
@@ -0,0 +1,69 @@
+package project.name.validator.job;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.core.runtime.jobs.Job;
+
+import project.name.validator.ChangedNameValidator;
+import project.name.validator.Messages;
+import project.name.validator.log.ErrorStatusHandler;
+import project.name.validator.marker.MarkerUpdateBatch;
+
+/**
+ * Фоновое задание, повторно проверяющее заданные
+ * проекты после изменения их исключений. Решения о
+ * маркерах всех проектов применяются одной операцией
+ * рабочей области.
+ */
+public class RevalidateProjectsJob extends Job
+{
+	private List<IProject> m_projects;
+	
+	/**
+	 * Конструктор класса RevalidateProjectsJob.
+	 * @param a_projects
+	 * 		  Проекты для проверки. NotNull
+	 */
+	public RevalidateProjectsJob (Collection<IProject> a_projects)
+	{
+		super(Messages.Job_Validate_Changed_Projects);
+		m_projects = new ArrayList<>(a_projects);
+		setSystem(true);
+	}
+	
+	@Override
+	protected IStatus run (IProgressMonitor a_monitor)
+	{
+		SubMonitor subMonitor = SubMonitor.convert(a_monitor, m_projects.size() + 1);
+		ChangedNameValidator validator = new ChangedNameValidator();
+		MarkerUpdateBatch batch = new MarkerUpdateBatch();
+		ErrorStatusHandler.beginPass();
+		try
+		{
+			for (IProject project : m_projects)
+			{
+				if (subMonitor.isCanceled()) return Status.CANCEL_STATUS;
+				if (project.isOpen()) validator.validateProjectName(project, false, batch);
+				subMonitor.worked(1);
+			}
+			batch.apply(subMonitor.split(1));
+		}
+		catch (CoreException e)
+		{
+			ErrorStatusHandler.log(e, e.getMessage());
+		}
+		finally
+		{
+			ErrorStatusHandler.endPass();
+		}
+		return Status.OK_STATUS;
+	}
+}
@@ -0,0 +1,301 @@
+package project.name.validator.job;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.resources.WorkspaceJob;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.core.runtime.jobs.IJobManager;
+import org.eclipse.core.runtime.jobs.Job;
+
+import project.name.validator.ChangedNameValidator;
+import project.name.validator.Messages;
+import project.name.validator.jfr.ValidationPassEvent;
+import project.name.validator.log.ErrorStatusHandler;
+import project.name.validator.marker.MarkerUpdateBatch;
+import project.name.validator.marker.ProblemNameMarkerManager;
+import project.name.validator.state.ProjectStateTable;
+import project.name.validator.state.ValidationSnapshot;
+
+/**
+ * Фоновое задание, проверяющее имена уже существующих
+ * в рабочей области проектов.
+ * Проекты проверяются параллельно ограниченным пулом
+ * потоков, при этом на время проверки каждого проекта
+ * захватывается правило планирования этого проекта.
+ * Маркеры всех проектов создаются и удаляются одной
+ * операцией рабочей области после завершения проверки.
+ */
+public class ValidateExistingProjectsJob extends WorkspaceJob
+{
+	/**
+	 * Максимальное количество потоков, проверяющих
+	 * проекты одновременно.
+	 */
+	private static final int MAX_WORKER_COUNT = 4;
+	
+	/**
+	 * Интервал (в миллисекундах), с которым задание
+	 * проверяет, не было ли оно отменено, пока ожидает
+	 * завершения проверки очередного проекта.
+	 */
+	private static final long CANCEL_POLL_INTERVAL = 100;
+	
+	private ChangedNameValidator m_validator;
+	
+	/**
+	 * Решения о маркерах, принятые всеми потоками пула.
+	 * Применяются одной операцией после проверки проектов.
+	 */
+	private MarkerUpdateBatch m_batch;
+	
+	/**
+	 * Монитор, общий для всех потоков пула. Используется
+	 * только для передачи признака отмены задания.
+	 */
+	private NullProgressMonitor m_workerMonitor;
+	
+	/**
+	 * Снимок состояния проектов, сохранённый при последнем
+	 * сохранении рабочей области, или null.
+	 */
+	private ValidationSnapshot m_snapshot;
+	
+	/**
+	 * Конструктор класса ValidateExistingProjectsJob.
+	 * @param a_validator
+	 * 		  Объект, с помощью которого проверяется имя
+	 * 		  каждого проекта. NotNull
+	 * @param a_snapshot
+	 * 		  Снимок состояния проектов, сохранённый при
+	 * 		  последнем сохранении рабочей области. Проекты,
+	 * 		  имя и расположение которых с тех пор не
+	 * 		  изменились, не проверяются, а их состояние
+	 * 		  восстанавливается из снимка. Может быть null,
+	 * 		  тогда проверяются все открытые проекты
+	 */
+	public ValidateExistingProjectsJob (ChangedNameValidator a_validator, ValidationSnapshot a_snapshot)
+	{
+		super(Messages.Job_Validate_Existing_Projects);
+		m_validator = Objects.requireNonNull(a_validator);
+		m_snapshot = a_snapshot;
+		/*
+		 * Задание не должно мешать запуску рабочей среды
+		 * и заданиям пользователя:
+		 */
+		setPriority(Job.DECORATE);
+	}
+	
+	@Override
+	public IStatus runInWorkspace (IProgressMonitor a_monitor) throws CoreException
+	{
+		ErrorStatusHandler.beginPass();
+		try
+		{
+			return validateProjects(a_monitor);
+		}
+		finally
+		{
+			ErrorStatusHandler.endPass();
+		}
+	}
+	
+	/**
+	 * Проверяет имена открытых проектов рабочей области,
+	 * отсутствующих в снимке, потоками пула.
+	 * @param a_monitor
+	 * 		  Монитор задания
+	 * @return статус выполнения
+	 * @throws CoreException
+	 */
+	private IStatus validateProjects (IProgressMonitor a_monitor) throws CoreException
+	{
+		IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
+		/*
+		 * Снимок ссылается на маркеры прежнего типа, поэтому
+		 * после их удаления проверяются все проекты:
+		 */
+		if (ProblemNameMarkerManager.removeLegacyMarkers(root)) m_snapshot = null;
+		List<IProject> projects = new ArrayList<>();
+		ProjectStateTable table = m_validator.getStateTable();
+		boolean transientMarkers = ProblemNameMarkerManager.isTransient();
+		m_batch = new MarkerUpdateBatch();
+		for (IProject project : root.getProjects())
+		{
+			if (!project.isOpen()) continue;
+			if (m_snapshot != null && m_snapshot.restore(project, table))
+			{
+				/*
+				 * Маркеры, не сохранённые вместе с рабочей
+				 * областью, создаются заново по снимку:
+				 */
+				if (transientMarkers) m_validator.restoreMarkers(project, m_batch);
+				continue;
+			}
+			projects.add(project);
+		}
+		int openProjectCount = projects.size();
+		SubMonitor subMonitor = SubMonitor.convert(a_monitor, Messages.Job_Validate_Existing_Projects,
+												   openProjectCount);
+		if (openProjectCount == 0)
+		{
+			m_batch.apply(null);
+			return Status.OK_STATUS;
+		}
+		
+		ValidationPassEvent event = new ValidationPassEvent(ValidationPassEvent.TRIGGER_EXISTING_PROJECTS);
+		event.begin();
+		int validatedCount = 0;
+		m_workerMonitor = new NullProgressMonitor();
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(getWorkerCount(), openProjectCount),
+																createThreadFactory());
+		try
+		{
+			CompletionService<IProject> completionService = new ExecutorCompletionService<>(executor);
+			for (IProject project : projects)
+			{
+				completionService.submit(createValidationTask(project));
+			}
+			for (int remaining = openProjectCount; remaining > 0; )
+			{
+				if (subMonitor.isCanceled())
+				{
+					m_workerMonitor.setCanceled(true);
+					return Status.CANCEL_STATUS;
+				}
+				Future<IProject> future = completionService.poll(CANCEL_POLL_INTERVAL, TimeUnit.MILLISECONDS);
+				if (future == null) continue;
+				remaining--;
+				IProject project = getResult(future);
+				if (project != null)
+				{
+					validatedCount++;
+					subMonitor.subTask(project.getName());
+				}
+				subMonitor.worked(1);
+			}
+			m_batch.apply(null);
+			return Status.OK_STATUS;
+		}
+		catch (InterruptedException e)
+		{
+			m_workerMonitor.setCanceled(true);
+			Thread.currentThread().interrupt();
+			return Status.CANCEL_STATUS;
+		}
+		finally
+		{
+			executor.shutdownNow();
+			event.setProjectCount(validatedCount);
+			event.commit();
+		}
+	}
+	
+	/**
+	 * Создаёт задачу проверки имени проекта a_project.
+	 * На время проверки задача захватывает правило
+	 * планирования проекта, поэтому проект не может быть
+	 * изменён другим заданием во время его проверки.
+	 * @param a_project
+	 * 		  Проект для проверки
+	 * @return задача, возвращающая проверенный проект или
+	 * null, если проверка была отменена
+	 */
+	private Callable<IProject> createValidationTask (IProject a_project)
+	{
+		return new Callable<IProject>()
+		{
+			@Override
+			public IProject call ()
+			{
+				if (m_workerMonitor.isCanceled()) return null;
+				IJobManager jobManager = Job.getJobManager();
+				try
+				{
+					jobManager.beginRule(a_project, m_workerMonitor);
+					if (a_project.isOpen()) m_validator.validateProjectName(a_project, false, m_batch);
+					return a_project;
+				}
+				catch (OperationCanceledException e)
+				{
+					return null;
+				}
+				finally
+				{
+					jobManager.endRule(a_project);
+				}
+			}
+		};
+	}
+	
+	/**
+	 * @param a_future
+	 * 		  Результат выполнения задачи проверки проекта
+	 * @return проверенный проект или null, если проверка
+	 * была отменена или завершилась с исключением
+	 * @throws InterruptedException
+	 */
+	private IProject getResult (Future<IProject> a_future) throws InterruptedException
+	{
+		try
+		{
+			return a_future.get();
+		}
+		catch (ExecutionException e)
+		{
+			Throwable cause = e.getCause();
+			ErrorStatusHandler.log(cause instanceof Exception ? (Exception)cause : e,
+								   Messages.Exception_Project_Validation);
+			return null;
+		}
+	}
+	
+	/**
+	 * @return количество потоков пула, проверяющего проекты
+	 */
+	private static int getWorkerCount ()
+	{
+		return Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), MAX_WORKER_COUNT));
+	}
+	
+	/**
+	 * @return фабрика фоновых потоков пула, проверяющего
+	 * проекты
+	 */
+	private static ThreadFactory createThreadFactory ()
+	{
+		return new ThreadFactory()
+		{
+			private final AtomicInteger m_threadNumber = new AtomicInteger();
+			
+			@Override
+			public Thread newThread (Runnable a_runnable)
+			{
+				Thread thread = new Thread(a_runnable, "Project Name Validator Worker-" +
+											m_threadNumber.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		};
+	}
+}
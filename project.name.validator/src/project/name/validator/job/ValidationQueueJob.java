@@ -0,0 +1,307 @@
+package project.name.validator.job;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.core.runtime.jobs.Job;
+
+import project.name.validator.ChangedNameValidator;
+import project.name.validator.Messages;
+import project.name.validator.jfr.ValidationPassEvent;
+import project.name.validator.log.ErrorStatusHandler;
+import project.name.validator.marker.MarkerUpdateBatch;
+import project.name.validator.property.ExceptionStore;
+
+/**
+ * Очередь проектов, ожидающих проверки, и фоновое
+ * задание, которое её обрабатывает.
+ * Слушатель изменения ресурсов только добавляет проекты
+ * в очередь. Повторные добавления одного и того же
+ * проекта объединяются, а задание проверяет накопленные
+ * проекты пакетами, применяя решения о маркерах каждого
+ * пакета одной операцией рабочей области.
+ * Изменения хранилища исключений, вызванные
+ * переименованием, удалением и открытием проектов, тоже
+ * только запоминаются слушателем и применяются заданием
+ * перед проверкой очередного пакета, поэтому хранилище
+ * не загружается в потоке рассылки уведомлений.
+ */
+public class ValidationQueueJob extends Job
+{
+	/**
+	 * Задержка (в миллисекундах) между добавлением проекта
+	 * в очередь и началом её обработки, в течение которой
+	 * накапливаются события от одной операции.
+	 */
+	private static final long COALESCING_DELAY = 200;
+	
+	/**
+	 * Максимальное количество проектов в одном пакете.
+	 */
+	private static final int BATCH_SIZE = 500;
+	
+	private ChangedNameValidator m_validator;
+	
+	/**
+	 * Проекты, ожидающие проверки, и признак необходимости
+	 * предупреждения пользователя для каждого из них.
+	 */
+	private Map<IProject, Boolean> m_pending = new LinkedHashMap<>();
+	
+	/**
+	 * Изменения хранилища исключений в порядке
+	 * поступления. Защищены блокировкой m_pending.
+	 */
+	private List<ExceptionChange> m_exceptionChanges = new ArrayList<>();
+	
+	/**
+	 * Конструктор класса ValidationQueueJob.
+	 * @param a_validator
+	 * 		  Объект, с помощью которого проверяется имя
+	 * 		  проекта. NotNull
+	 */
+	public ValidationQueueJob (ChangedNameValidator a_validator)
+	{
+		super(Messages.Job_Validate_Changed_Projects);
+		m_validator = Objects.requireNonNull(a_validator);
+		setSystem(true);
+	}
+	
+	/**
+	 * Добавляет проект в очередь проверки и планирует её
+	 * обработку. Если проект уже находится в очереди,
+	 * повторная проверка не добавляется.
+	 * @param a_project
+	 * 		  Проект для проверки. NotNull
+	 * @param a_createWarningDialog
+	 * 		  Параметр, определяющий нужно ли предупреждать
+	 * 		  пользователя о несовпадении имени проекта и имени
+	 * 		  его папки
+	 */
+	public void enqueue (IProject a_project, boolean a_createWarningDialog)
+	{
+		Objects.requireNonNull(a_project);
+		synchronized (m_pending)
+		{
+			Boolean warning = m_pending.get(a_project);
+			m_pending.put(a_project, (warning != null && warning.booleanValue()) || a_createWarningDialog);
+		}
+		schedule(COALESCING_DELAY);
+	}
+	
+	/**
+	 * Запоминает, что исключение проекта a_oldName нужно
+	 * перенести на его новое имя a_newName.
+	 * @param a_oldName
+	 * 		  Прежнее имя проекта. NotNull
+	 * @param a_newName
+	 * 		  Новое имя проекта. NotNull
+	 */
+	public void renameException (String a_oldName, String a_newName)
+	{
+		addExceptionChange(new ExceptionChange(ExceptionChange.RENAME, a_oldName, a_newName, null));
+	}
+	
+	/**
+	 * Запоминает, что исключение удалённого проекта a_name
+	 * нужно удалить.
+	 * @param a_name
+	 * 		  Имя проекта. NotNull
+	 */
+	public void removeException (String a_name)
+	{
+		addExceptionChange(new ExceptionChange(ExceptionChange.REMOVE, a_name, null, null));
+	}
+	
+	/**
+	 * Запоминает, что проект a_project открыт заново: если
+	 * его свойство прежнего формата ещё не перенесено в
+	 * хранилище исключений, оно переносится отдельным
+	 * заданием.
+	 * @param a_project
+	 * 		  Открытый проект. NotNull
+	 */
+	public void projectOpened (IProject a_project)
+	{
+		Objects.requireNonNull(a_project);
+		addExceptionChange(new ExceptionChange(ExceptionChange.OPEN, a_project.getName(), null, a_project));
+	}
+	
+	private void addExceptionChange (ExceptionChange a_change)
+	{
+		synchronized (m_pending)
+		{
+			m_exceptionChanges.add(a_change);
+		}
+		schedule(COALESCING_DELAY);
+	}
+	
+	/**
+	 * Применяет накопленные изменения хранилища
+	 * исключений.
+	 */
+	private void applyExceptionChanges ()
+	{
+		List<ExceptionChange> changes;
+		synchronized (m_pending)
+		{
+			if (m_exceptionChanges.isEmpty()) return;
+			changes = new ArrayList<>(m_exceptionChanges);
+			m_exceptionChanges.clear();
+		}
+		ExceptionStore store = ExceptionStore.getInstance();
+		for (ExceptionChange change : changes)
+		{
+			switch (change.m_kind)
+			{
+				case ExceptionChange.RENAME:
+					store.rename(change.m_name, change.m_newName);
+					break;
+				case ExceptionChange.REMOVE:
+					store.remove(change.m_name);
+					break;
+				default:
+					if (change.m_project.isOpen() && store.isMigrated() && store.isPending(change.m_name))
+					{
+						new ExceptionMigrationJob(Collections.singletonList(change.m_project)).schedule();
+					}
+					break;
+			}
+		}
+	}
+	
+	@Override
+	protected IStatus run (IProgressMonitor a_monitor)
+	{
+		ErrorStatusHandler.beginPass();
+		try
+		{
+			return processQueue(a_monitor);
+		}
+		finally
+		{
+			ErrorStatusHandler.endPass();
+		}
+	}
+	
+	/**
+	 * Проверяет проекты очереди пакетами, пока очередь не
+	 * опустеет или задание не будет отменено.
+	 * @param a_monitor
+	 * 		  Монитор задания
+	 * @return статус выполнения
+	 */
+	private IStatus processQueue (IProgressMonitor a_monitor)
+	{
+		SubMonitor subMonitor = SubMonitor.convert(a_monitor);
+		Map<IProject, Boolean> batchProjects = new LinkedHashMap<>();
+		applyExceptionChanges();
+		while (takeBatch(batchProjects))
+		{
+			if (subMonitor.isCanceled())
+			{
+				requeue(batchProjects);
+				return Status.CANCEL_STATUS;
+			}
+			subMonitor.setWorkRemaining(batchProjects.size());
+			ValidationPassEvent event = new ValidationPassEvent(ValidationPassEvent.TRIGGER_QUEUE);
+			event.begin();
+			MarkerUpdateBatch batch = new MarkerUpdateBatch();
+			for (Map.Entry<IProject, Boolean> entry : batchProjects.entrySet())
+			{
+				IProject project = entry.getKey();
+				if (project.isOpen()) m_validator.validateProjectName(project, entry.getValue(), batch);
+				subMonitor.worked(1);
+			}
+			try
+			{
+				batch.apply(null);
+			}
+			catch (CoreException e)
+			{
+				ErrorStatusHandler.log(e, e.getMessage());
+			}
+			event.setProjectCount(batchProjects.size());
+			event.commit();
+			batchProjects.clear();
+			applyExceptionChanges();
+		}
+		return Status.OK_STATUS;
+	}
+	
+	/**
+	 * Переносит из очереди в a_batchProjects не более
+	 * BATCH_SIZE проектов.
+	 * @param a_batchProjects
+	 * 		  Пустой набор для заполнения
+	 * @return true, если набор не пуст, false - если
+	 * очередь пуста
+	 */
+	private boolean takeBatch (Map<IProject, Boolean> a_batchProjects)
+	{
+		synchronized (m_pending)
+		{
+			Iterator<Map.Entry<IProject, Boolean>> iterator = m_pending.entrySet().iterator();
+			while (iterator.hasNext() && a_batchProjects.size() < BATCH_SIZE)
+			{
+				Map.Entry<IProject, Boolean> entry = iterator.next();
+				a_batchProjects.put(entry.getKey(), entry.getValue());
+				iterator.remove();
+			}
+		}
+		return !a_batchProjects.isEmpty();
+	}
+	
+	/**
+	 * Возвращает в очередь проекты, проверка которых была
+	 * отменена, не затирая более новые события.
+	 * @param a_batchProjects
+	 * 		  Непроверенные проекты
+	 */
+	private void requeue (Map<IProject, Boolean> a_batchProjects)
+	{
+		for (Map.Entry<IProject, Boolean> entry : a_batchProjects.entrySet())
+		{
+			enqueue(entry.getKey(), entry.getValue());
+		}
+	}
+	
+	/**
+	 * Отложенное изменение хранилища исключений.
+	 */
+	private static class ExceptionChange
+	{
+		static final int RENAME = 0;
+		
+		static final int REMOVE = 1;
+		
+		static final int OPEN = 2;
+		
+		private int m_kind;
+		
+		private String m_name;
+		
+		private String m_newName;
+		
+		private IProject m_project;
+		
+		ExceptionChange (int a_kind, String a_name, String a_newName, IProject a_project)
+		{
+			m_kind = a_kind;
+			m_name = a_name;
+			m_newName = a_newName;
+			m_project = a_project;
+		}
+	}
+}
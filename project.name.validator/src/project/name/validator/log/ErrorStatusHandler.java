@@ -1,19 +1,99 @@
 package project.name.validator.log;
 
-import org.eclipse.core.internal.runtime.Activator;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.MultiStatus;
+import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.osgi.util.NLS;
+import org.eclipse.ui.PlatformUI;
 import org.eclipse.ui.statushandlers.StatusManager;
+import org.osgi.framework.FrameworkUtil;
+
+import project.name.validator.Activator;
+import project.name.validator.Messages;
 
 /**
  * Обработчик статуса IStatus.ERROR.
+ * Ошибки не сообщаются по одной: они накапливаются,
+ * повторяющиеся причины объединяются, а накопленное
+ * записывается в журнал одним статусом MultiStatus
+ * фоновым заданием. Пока выполняется проход проверки
+ * (между beginPass и endPass), ошибки только
+ * накапливаются и сообщаются после завершения прохода.
+ * Окно с ошибками показывается не чаще одного раза за
+ * сообщение и не чаще одного раза в
+ * MIN_DIALOG_INTERVAL миллисекунд, поэтому неисправная
+ * рабочая область не может заблокировать среду
+ * разработки диалогами.
  */
-@SuppressWarnings("restriction")
 public class ErrorStatusHandler
 {
 	/**
-	 * Логирует передаваемые исключение и сообщение, а также
-	 * показывает их в окне пользователю.
+	 * Задержка (в миллисекундах) между ошибкой, возникшей
+	 * вне прохода проверки, и её записью в журнал.
+	 */
+	private static final long REPORT_DELAY = 500;
+	
+	/**
+	 * Минимальный промежуток (в миллисекундах) между
+	 * показами окна с ошибками.
+	 */
+	private static final long MIN_DIALOG_INTERVAL = 30000;
+	
+	/**
+	 * Максимальное количество различных ошибок в одном
+	 * сообщении. Остальные ошибки только подсчитываются.
+	 */
+	private static final int MAX_DISTINCT_ERRORS = 100;
+	
+	/**
+	 * Накопленные ошибки: ключ причины и первая ошибка с
+	 * такой причиной.
+	 */
+	private static final Map<String, PendingError> s_pending = new LinkedHashMap<>();
+	
+	/**
+	 * Количество ошибок, не вошедших в s_pending из-за
+	 * ограничения MAX_DISTINCT_ERRORS.
+	 */
+	private static int s_droppedCount;
+	
+	/**
+	 * Количество выполняющихся проходов проверки.
+	 */
+	private static int s_passDepth;
+	
+	private static long s_lastDialogTime;
+	
+	private static final Job s_reportJob = new Job(Messages.Job_Report_Errors)
+	{
+		@Override
+		protected IStatus run (IProgressMonitor a_monitor)
+		{
+			report();
+			return Status.OK_STATUS;
+		}
+	};
+	
+	static
+	{
+		s_reportJob.setSystem(true);
+	}
+	
+	/**
+	 * Регистрирует передаваемые исключение и сообщение для
+	 * записи в журнал и показа пользователю. Если рабочая
+	 * среда не запущена (например, при проверке без
+	 * пользовательского интерфейса), исключение и сообщение
+	 * только логируются. Метод не ожидает записи в журнал.
 	 * @param a_exception
 	 * 		  Исключение
 	 * @param a_message
@@ -21,7 +101,169 @@ public class ErrorStatusHandler
 	 */
 	public static void log (Exception a_exception, String a_message)
 	{
-		IStatus status = new Status(IStatus.ERROR, Activator.PLUGIN_ID, a_message, a_exception);
-		StatusManager.getManager().handle(status, StatusManager.LOG | StatusManager.SHOW);
+		String key = getCauseKey(a_exception, a_message);
+		boolean inPass;
+		synchronized (s_pending)
+		{
+			PendingError error = s_pending.get(key);
+			if (error != null) error.m_count++;
+			else if (s_pending.size() < MAX_DISTINCT_ERRORS)
+			{
+				s_pending.put(key, new PendingError(new Status(IStatus.ERROR, Activator.PLUGIN_ID, a_message,
+																a_exception)));
+			}
+			else s_droppedCount++;
+			inPass = (s_passDepth > 0);
+		}
+		if (!inPass) s_reportJob.schedule(REPORT_DELAY);
+	}
+	
+	/**
+	 * Отмечает начало прохода проверки. Ошибки, возникшие
+	 * до соответствующего вызова endPass, сообщаются
+	 * вместе.
+	 */
+	public static void beginPass ()
+	{
+		synchronized (s_pending)
+		{
+			s_passDepth++;
+		}
+	}
+	
+	/**
+	 * Отмечает завершение прохода проверки, начатого
+	 * вызовом beginPass, и планирует сообщение о
+	 * накопленных ошибках, если проходов больше нет.
+	 */
+	public static void endPass ()
+	{
+		boolean report;
+		synchronized (s_pending)
+		{
+			s_passDepth--;
+			report = (s_passDepth == 0) && (!s_pending.isEmpty() || s_droppedCount > 0);
+		}
+		if (report) s_reportJob.schedule();
+	}
+	
+	/**
+	 * Записывает накопленные ошибки в журнал одним статусом
+	 * и, если позволяет MIN_DIALOG_INTERVAL, показывает их
+	 * пользователю.
+	 */
+	private static void report ()
+	{
+		List<PendingError> errors;
+		int droppedCount;
+		synchronized (s_pending)
+		{
+			if (s_passDepth > 0) return;
+			errors = new ArrayList<>(s_pending.values());
+			droppedCount = s_droppedCount;
+			s_pending.clear();
+			s_droppedCount = 0;
+		}
+		if (errors.isEmpty()) return;
+		IStatus status = createStatus(errors, droppedCount);
+		if (!PlatformUI.isWorkbenchRunning())
+		{
+			Platform.getLog(FrameworkUtil.getBundle(ErrorStatusHandler.class)).log(status);
+			return;
+		}
+		int style = StatusManager.LOG;
+		long now = System.currentTimeMillis();
+		if (now - s_lastDialogTime >= MIN_DIALOG_INTERVAL)
+		{
+			s_lastDialogTime = now;
+			style |= StatusManager.SHOW;
+		}
+		StatusManager.getManager().handle(status, style);
+	}
+	
+	/**
+	 * @param a_errors
+	 * 		  Накопленные ошибки. Не пуст
+	 * @param a_droppedCount
+	 * 		  Количество ошибок, не вошедших в a_errors
+	 * @return статус ошибки, если она одна, или MultiStatus
+	 * со всеми ошибками
+	 */
+	private static IStatus createStatus (List<PendingError> a_errors, int a_droppedCount)
+	{
+		if (a_errors.size() == 1 && a_errors.get(0).m_count == 1 && a_droppedCount == 0)
+		{
+			return a_errors.get(0).m_status;
+		}
+		int totalCount = a_droppedCount;
+		for (PendingError error : a_errors)
+		{
+			totalCount += error.m_count;
+		}
+		MultiStatus status = new MultiStatus(Activator.PLUGIN_ID, IStatus.ERROR,
+											 NLS.bind(Messages.Error_Report_Summary, totalCount), null);
+		for (PendingError error : a_errors)
+		{
+			IStatus child = error.m_status;
+			if (error.m_count > 1)
+			{
+				child = new Status(IStatus.ERROR, Activator.PLUGIN_ID,
+								   NLS.bind(Messages.Error_Report_Repeated, child.getMessage(), error.m_count),
+								   child.getException());
+			}
+			status.add(child);
+		}
+		if (a_droppedCount > 0)
+		{
+			status.add(new Status(IStatus.ERROR, Activator.PLUGIN_ID,
+								  NLS.bind(Messages.Error_Report_Dropped, a_droppedCount)));
+		}
+		return status;
+	}
+	
+	/**
+	 * @param a_exception
+	 * 		  Исключение
+	 * @param a_message
+	 * 		  Сообщение
+	 * @return ключ, одинаковый для ошибок с одной и той же
+	 * причиной. Для CoreException причиной считаются класс,
+	 * плагин и код статуса, а не текст сообщения: сообщение
+	 * a_message и сообщение статуса обычно содержат путь к
+	 * ресурсу
+	 */
+	private static String getCauseKey (Exception a_exception, String a_message)
+	{
+		StringBuilder key = new StringBuilder();
+		if (!(a_exception instanceof CoreException)) key.append(a_message);
+		Throwable cause = a_exception;
+		while (cause != null)
+		{
+			key.append('|').append(cause.getClass().getName());
+			if (cause instanceof CoreException)
+			{
+				IStatus status = ((CoreException)cause).getStatus();
+				key.append(':').append(status.getPlugin()).append(':').append(status.getCode());
+			}
+			else key.append(':').append(cause.getMessage());
+			cause = (cause.getCause() != cause) ? cause.getCause() : null;
+		}
+		return key.toString();
+	}
+	
+	/**
+	 * Первая ошибка с некоторой причиной и количество
+	 * ошибок с этой причиной.
+	 */
+	private static class PendingError
+	{
+		private IStatus m_status;
+		
+		private int m_count = 1;
+		
+		PendingError (IStatus a_status)
+		{
+			m_status = a_status;
+		}
 	}
 }
@@ -0,0 +1,213 @@
+package project.name.validator.marker;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceRuleFactory;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
+import org.eclipse.core.runtime.jobs.MultiRule;
+
+import project.name.validator.Messages;
+import project.name.validator.log.ErrorStatusHandler;
+import project.name.validator.rule.NamingRule;
+import project.name.validator.state.ProjectStateTable;
+
+/**
+ * Набор решений о создании и удалении маркеров
+ * проблемного имени и маркеров нарушения правил
+ * именования, накопленных за один проход проверки.
+ * Все решения применяются одной операцией рабочей
+ * области, поэтому слушатели изменения ресурсов
+ * получают одно уведомление на весь проход.
+ * Методы добавления решений могут вызываться из
+ * нескольких потоков одновременно.
+ */
+public class MarkerUpdateBatch
+{
+	/**
+	 * Решения, накопленные для каждого ресурса: true -
+	 * маркер нужно создать, false - удалить. Если для
+	 * ресурса принято несколько решений, действует
+	 * последнее.
+	 */
+	private Map<IResource, Boolean> m_updates = new LinkedHashMap<>();
+	
+	/**
+	 * Нарушенные правила именования, накопленные для
+	 * каждого проекта. Пустой список означает, что все
+	 * маркеры нарушения правил проекта нужно удалить.
+	 */
+	private Map<IProject, List<NamingRule>> m_ruleUpdates = new LinkedHashMap<>();
+	
+	/**
+	 * Добавляет решение о создании маркера на ресурсе
+	 * a_resource.
+	 * @param a_resource
+	 * 		  Ресурс, на который нужно поставить маркер.
+	 * 		  NotNull
+	 */
+	public synchronized void addCreation (IResource a_resource)
+	{
+		m_updates.put(Objects.requireNonNull(a_resource), Boolean.TRUE);
+	}
+	
+	/**
+	 * Добавляет решение об удалении маркера с ресурса
+	 * a_resource.
+	 * @param a_resource
+	 * 		  Ресурс, с которого нужно удалить маркер.
+	 * 		  NotNull
+	 */
+	public synchronized void addDeletion (IResource a_resource)
+	{
+		m_updates.put(Objects.requireNonNull(a_resource), Boolean.FALSE);
+	}
+	
+	/**
+	 * Отменяет решение о маркере ресурса a_resource, если
+	 * оно было принято. Используется вместо решения об
+	 * удалении маркера, которого нет, чтобы не хранить
+	 * решения для каждого проверенного ресурса.
+	 * @param a_resource
+	 * 		  Ресурс. NotNull
+	 */
+	public synchronized void removeUpdate (IResource a_resource)
+	{
+		m_updates.remove(a_resource);
+	}
+	
+	/**
+	 * Добавляет решение о маркерах нарушения правил
+	 * именования проекта a_project.
+	 * @param a_project
+	 * 		  Проект. NotNull
+	 * @param a_violations
+	 * 		  Нарушенные правила. NotNull
+	 */
+	public synchronized void addRuleViolations (IProject a_project, List<NamingRule> a_violations)
+	{
+		m_ruleUpdates.put(Objects.requireNonNull(a_project), Objects.requireNonNull(a_violations));
+	}
+	
+	/**
+	 * @return true - если решений нет, false - иначе
+	 */
+	public synchronized boolean isEmpty ()
+	{
+		return m_updates.isEmpty() && m_ruleUpdates.isEmpty();
+	}
+	
+	/**
+	 * Применяет накопленные решения одной операцией
+	 * рабочей области и очищает набор. Ошибка при
+	 * обработке отдельного ресурса не прерывает
+	 * обработку остальных.
+	 * @param a_monitor
+	 * 		  Монитор прогресса. Может быть null
+	 * @throws CoreException
+	 */
+	public void apply (IProgressMonitor a_monitor) throws CoreException
+	{
+		Map<IResource, Boolean> updates;
+		Map<IProject, List<NamingRule>> ruleUpdates;
+		synchronized (this)
+		{
+			if (isEmpty()) return;
+			updates = m_updates;
+			ruleUpdates = m_ruleUpdates;
+			m_updates = new LinkedHashMap<>();
+			m_ruleUpdates = new LinkedHashMap<>();
+		}
+		IWorkspace workspace = ResourcesPlugin.getWorkspace();
+		workspace.run(createRunnable(updates, ruleUpdates), createRule(workspace, updates, ruleUpdates),
+					  IWorkspace.AVOID_UPDATE, a_monitor);
+	}
+	
+	/**
+	 * Создаёт операцию, применяющую решения a_updates и
+	 * a_ruleUpdates.
+	 * @param a_updates
+	 * 		  Решения о маркерах проблемного имени
+	 * @param a_ruleUpdates
+	 * 		  Решения о маркерах нарушения правил
+	 * @return операция рабочей области
+	 */
+	private IWorkspaceRunnable createRunnable (Map<IResource, Boolean> a_updates,
+											   Map<IProject, List<NamingRule>> a_ruleUpdates)
+	{
+		return new IWorkspaceRunnable()
+		{
+			@Override
+			public void run (IProgressMonitor a_monitor)
+			{
+				SubMonitor subMonitor = SubMonitor.convert(a_monitor, a_updates.size() + a_ruleUpdates.size());
+				for (Map.Entry<IResource, Boolean> update : a_updates.entrySet())
+				{
+					ProblemNameMarkerManager manager = new ProblemNameMarkerManager(update.getKey());
+					boolean creation = update.getValue().booleanValue();
+					try
+					{
+						if (creation) manager.createMarker();
+						else manager.deleteMarker();
+					}
+					catch (CoreException e)
+					{
+						ErrorStatusHandler.log(e, creation ? Messages.Exception_Marker_Creation :
+															 Messages.Exception_Marker_Deletion);
+					}
+					subMonitor.worked(1);
+				}
+				ProjectStateTable table = ProjectStateTable.getInstance();
+				for (Map.Entry<IProject, List<NamingRule>> update : a_ruleUpdates.entrySet())
+				{
+					try
+					{
+						new RuleMarkerManager(update.getKey(), table).update(update.getValue());
+					}
+					catch (CoreException e)
+					{
+						ErrorStatusHandler.log(e, Messages.Exception_Rule_Markers);
+					}
+					subMonitor.worked(1);
+				}
+			}
+		};
+	}
+	
+	/**
+	 * @param a_workspace
+	 * 		  Рабочая область
+	 * @param a_updates
+	 * 		  Решения о маркерах проблемного имени
+	 * @param a_ruleUpdates
+	 * 		  Решения о маркерах нарушения правил
+	 * @return правило планирования, необходимое для
+	 * изменения маркеров всех ресурсов из a_updates и
+	 * a_ruleUpdates. Может быть null
+	 */
+	private ISchedulingRule createRule (IWorkspace a_workspace, Map<IResource, Boolean> a_updates,
+										Map<IProject, List<NamingRule>> a_ruleUpdates)
+	{
+		IResourceRuleFactory ruleFactory = a_workspace.getRuleFactory();
+		ISchedulingRule rule = null;
+		for (IResource resource : a_updates.keySet())
+		{
+			rule = MultiRule.combine(rule, ruleFactory.markerRule(resource));
+		}
+		for (IProject project : a_ruleUpdates.keySet())
+		{
+			rule = MultiRule.combine(rule, ruleFactory.markerRule(project));
+		}
+		return rule;
+	}
+}
@@ -0,0 +1,107 @@
+package project.name.validator.marker;
+
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.osgi.util.NLS;
+
+import project.name.validator.Activator;
+import project.name.validator.jfr.MarkerWriteEvent;
+import project.name.validator.metrics.ValidatorMetrics;
+
+/**
+ * Класс для управления маркером папки проекта,
+ * переименованной или перемещённой вне рабочей среды,
+ * когда расположение проекта не переносится
+ * автоматически (см. ProjectFolderWatcher).
+ * На проект ставится не больше одного такого маркера.
+ * Маркер не сохраняется вместе с рабочей областью:
+ * наблюдение за папками после запуска начинается
+ * заново.
+ */
+public class MovedFolderMarkerManager
+{
+	/**
+	 * Тип маркера переименованной или перемещённой папки
+	 * проекта.
+	 */
+	public static final String MARKER_TYPE = Activator.PLUGIN_ID + ".movedFolderMarker";
+	
+	/**
+	 * Атрибут маркера: новое расположение папки проекта.
+	 */
+	public static final String MARKER_ATTRIBUTE_NEW_LOCATION = "newLocation";
+	
+	public static final String MARKER_MESSAGE = "Папка проекта {0} переименована или перемещена вне рабочей " +
+												"среды: {1}. Укажите новое расположение проекта.";
+	
+	private MovedFolderMarkerManager ()
+	{
+	}
+	
+	/**
+	 * Ставит на проект a_project маркер папки,
+	 * переименованной или перемещённой в a_location.
+	 * Прежний маркер проекта заменяется.
+	 * @param a_project
+	 * 		  Проект. NotNull
+	 * @param a_location
+	 * 		  Новое расположение папки проекта. NotNull
+	 * @throws CoreException
+	 */
+	public static void mark (IProject a_project, IPath a_location) throws CoreException
+	{
+		if (!a_project.isOpen()) return;
+		clear(a_project);
+		MarkerWriteEvent event = new MarkerWriteEvent();
+		event.begin();
+		IMarker marker = a_project.createMarker(MARKER_TYPE);
+		marker.setAttributes(new String[] {MARKER_ATTRIBUTE_NEW_LOCATION, IMarker.MESSAGE, IMarker.SEVERITY,
+										   IMarker.USER_EDITABLE, IMarker.TRANSIENT},
+							 new Object[] {a_location.toOSString(),
+										   NLS.bind(MARKER_MESSAGE, a_project.getName(), a_location.toOSString()),
+										   IMarker.SEVERITY_WARNING, false, true});
+		ValidatorMetrics.MARKERS_CREATED.increment();
+		commitEvent(event, a_project, MarkerWriteEvent.OPERATION_CREATE);
+	}
+	
+	/**
+	 * Удаляет маркер переименованной или перемещённой
+	 * папки проекта a_project, если он есть.
+	 * @param a_project
+	 * 		  Проект. NotNull
+	 * @throws CoreException
+	 */
+	public static void clear (IProject a_project) throws CoreException
+	{
+		if (!a_project.isOpen()) return;
+		for (IMarker marker : a_project.findMarkers(MARKER_TYPE, false, IResource.DEPTH_ZERO))
+		{
+			MarkerWriteEvent event = new MarkerWriteEvent();
+			event.begin();
+			marker.delete();
+			ValidatorMetrics.MARKERS_DELETED.increment();
+			commitEvent(event, a_project, MarkerWriteEvent.OPERATION_DELETE);
+		}
+	}
+	
+	/**
+	 * Записывает событие JFR об изменении маркера, если
+	 * запись событий включена.
+	 * @param a_event
+	 * 		  Начатое событие
+	 * @param a_project
+	 * 		  Проект, маркер которого изменён
+	 * @param a_operation
+	 * 		  Выполненная операция
+	 */
+	private static void commitEvent (MarkerWriteEvent a_event, IProject a_project, String a_operation)
+	{
+		a_event.end();
+		if (!a_event.shouldCommit()) return;
+		a_event.set(a_project.getName(), a_operation);
+		a_event.commit();
+	}
+}
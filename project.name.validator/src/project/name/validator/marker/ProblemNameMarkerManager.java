@@ -1,20 +1,51 @@
 package project.name.validator.marker;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 
 import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspaceRoot;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Platform;
 
+import project.name.validator.Activator;
 import project.name.validator.ProjectValidator;
+import project.name.validator.jfr.MarkerWriteEvent;
+import project.name.validator.metrics.ValidatorMetrics;
+import project.name.validator.state.ProjectStateTable;
 
 /**
  * Класс для управления процессами создания и удаления
  * маркера.
+ * Маркеры плагина имеют собственные типы (подтипы
+ * MARKER_TYPE_BASE, объявленные в plugin.xml), поэтому
+ * при поиске маркеров плагина не перебираются чужие
+ * проблемные маркеры проекта.
  */
 public class ProblemNameMarkerManager
 {
+	/**
+	 * Общий тип маркеров плагина (подтип
+	 * IMarker.PROBLEM).
+	 */
+	public static final String MARKER_TYPE_BASE = Activator.PLUGIN_ID + ".marker";
+	
+	/**
+	 * Тип маркера проблемного имени.
+	 */
+	public static final String MARKER_TYPE = Activator.PLUGIN_ID + ".problemNameMarker";
+	
+	/**
+	 * Настройка плагина: маркеры плагина не сохраняются
+	 * вместе с рабочей областью, а восстанавливаются при
+	 * запуске по снимку таблицы состояния проектов.
+	 */
+	public static final String PREFERENCE_TRANSIENT_MARKERS = "transientMarkers";
+	
 	public static final String MARKER_ATTRIBUTE_PROBLEM_NAME = "MARKER_ATTRIBUTE_PROBLEM_NAME";
 	
 	public static final String MARKER_ATTRIBUTE_VALUE_PROBLEM_NAME = "problemName";
@@ -24,10 +55,12 @@ public class ProblemNameMarkerManager
 	
 	private IResource m_resource;
 	
-	private ProjectValidator m_projectValidator;
+	private ProjectStateTable m_stateTable;
 	
 	/**
-	 * Конструктор класса ProblemNameMarkerManager.
+	 * Конструктор класса ProblemNameMarkerManager,
+	 * использующий общую таблицу состояния проектов
+	 * рабочей области.
 	 * @param a_resource
 	 * 		  Ресурс, к которому будет привязан маркер.
 	 * 		  NotNull
@@ -35,29 +68,56 @@ public class ProblemNameMarkerManager
 	public ProblemNameMarkerManager (IResource a_resource)
 	{
 		m_resource = Objects.requireNonNull(a_resource);
-		m_projectValidator = new ProjectValidator(m_resource);
+	}
+	
+	/**
+	 * Конструктор класса ProblemNameMarkerManager.
+	 * @param a_resource
+	 * 		  Ресурс, к которому будет привязан маркер.
+	 * 		  NotNull
+	 * @param a_stateTable
+	 * 		  Таблица состояния проектов, в которой
+	 * 		  хранятся идентификаторы маркеров. NotNull
+	 */
+	public ProblemNameMarkerManager (IResource a_resource, ProjectStateTable a_stateTable)
+	{
+		this(a_resource);
+		m_stateTable = Objects.requireNonNull(a_stateTable);
 	}
 	
 	/**
 	 * Создаёт проблемный маркер, указывающий на неверное
 	 * имя ресурса, если данный маркер ещё не был создан.
+	 * Все атрибуты маркера устанавливаются одним вызовом.
 	 * @return true - если маркер был создан, false -
 	 * иначе 
 	 * @throws CoreException
 	 */
 	public boolean createMarker () throws CoreException
 	{
-		if (!m_projectValidator.isProjectOpen() || markerExists()) return false;
-		IMarker marker = m_resource.createMarker(IMarker.PROBLEM);
-		marker.setAttribute(MARKER_ATTRIBUTE_PROBLEM_NAME, MARKER_ATTRIBUTE_VALUE_PROBLEM_NAME);
+		if (!ProjectValidator.isProjectOpen(m_resource) || markerExists()) return false;
+		MarkerWriteEvent event = new MarkerWriteEvent();
+		event.begin();
+		IMarker marker = m_resource.createMarker(MARKER_TYPE);
+		rememberMarker(marker.getId());
+		ValidatorMetrics.MARKERS_CREATED.increment();
 		IPath location = m_resource.getLocation();
 		if (location != null)
 		{
-			marker.setAttribute(IMarker.LOCATION, location.toString());
+			marker.setAttributes(new String[] {MARKER_ATTRIBUTE_PROBLEM_NAME, IMarker.LOCATION, IMarker.MESSAGE,
+											   IMarker.SEVERITY, IMarker.USER_EDITABLE, IMarker.TRANSIENT},
+								 new Object[] {MARKER_ATTRIBUTE_VALUE_PROBLEM_NAME, location.toString(),
+											   MARKER_ATTRIBUTE_VALUE_MESSAGE, IMarker.SEVERITY_ERROR, false,
+											   isTransient()});
+		}
+		else
+		{
+			marker.setAttributes(new String[] {MARKER_ATTRIBUTE_PROBLEM_NAME, IMarker.MESSAGE, IMarker.SEVERITY,
+											   IMarker.USER_EDITABLE, IMarker.TRANSIENT},
+								 new Object[] {MARKER_ATTRIBUTE_VALUE_PROBLEM_NAME, MARKER_ATTRIBUTE_VALUE_MESSAGE,
+											   IMarker.SEVERITY_ERROR, false, isTransient()});
 		}
-		marker.setAttribute(IMarker.MESSAGE, MARKER_ATTRIBUTE_VALUE_MESSAGE);
-		marker.setAttribute(IMarker.SEVERITY, IMarker.SEVERITY_ERROR);
-		marker.setAttribute(IMarker.USER_EDITABLE, false);
+		commitEvent(event, MarkerWriteEvent.OPERATION_CREATE);
 		return true;
 	}
 	
@@ -72,12 +132,33 @@ public class ProblemNameMarkerManager
 		IMarker marker = findMarker();
 		if (marker != null) 
 		{
+			MarkerWriteEvent event = new MarkerWriteEvent();
+			event.begin();
 			marker.delete();
+			rememberMarker(ProjectStateTable.NO_MARKER);
+			ValidatorMetrics.MARKERS_DELETED.increment();
+			commitEvent(event, MarkerWriteEvent.OPERATION_DELETE);
 			return true;
 		}
 		return false;
 	}
 	
+	/**
+	 * Записывает событие JFR об изменении маркера, если
+	 * запись событий включена.
+	 * @param a_event
+	 * 		  Начатое событие
+	 * @param a_operation
+	 * 		  Выполненная операция
+	 */
+	private void commitEvent (MarkerWriteEvent a_event, String a_operation)
+	{
+		a_event.end();
+		if (!a_event.shouldCommit()) return;
+		a_event.set(m_resource.getName(), a_operation);
+		a_event.commit();
+	}
+	
 	/**
 	 * @return true - если маркер существует, false -
 	 * иначе
@@ -90,6 +171,9 @@ public class ProblemNameMarkerManager
 	}
 	
 	/**
+	 * Для проекта маркер ищется по идентификатору,
+	 * хранящемуся в таблице состояния проектов, без
+	 * перебора всех проблемных маркеров проекта.
 	 * @return первый найденный на ресурсе проблемный
 	 * маркер, указывающий на неверное имя ресурса.
 	 * Может быть null.
@@ -97,16 +181,105 @@ public class ProblemNameMarkerManager
 	 */
 	public IMarker findMarker () throws CoreException
 	{
-		if (!m_projectValidator.isProjectOpen()) return null;
-		IMarker[] markers = m_resource.findMarkers(IMarker.PROBLEM, false, IResource.DEPTH_ZERO);
-		for (IMarker marker : markers)
+		if (!ProjectValidator.isProjectOpen(m_resource)) return null;
+		if (m_resource.getType() != IResource.PROJECT) return findFirstMarker();
+		long markerId = getStateTable().getMarkerId((IProject)m_resource);
+		if (markerId == ProjectStateTable.NO_MARKER) return null;
+		IMarker marker = m_resource.getMarker(markerId);
+		if (marker.exists()) return marker;
+		/*
+		 * Идентификатор в таблице устарел:
+		 */
+		marker = findFirstMarker();
+		rememberMarker(marker != null ? marker.getId() : ProjectStateTable.NO_MARKER);
+		return marker;
+	}
+	
+	/**
+	 * Ищет на ресурсе маркеры типа MARKER_TYPE.
+	 * @return первый найденный на ресурсе проблемный
+	 * маркер, указывающий на неверное имя ресурса.
+	 * Может быть null.
+	 * @throws CoreException
+	 */
+	public IMarker scanMarker () throws CoreException
+	{
+		if (!ProjectValidator.isProjectOpen(m_resource)) return null;
+		return findFirstMarker();
+	}
+	
+	/**
+	 * Ищет на ресурсе маркеры типа MARKER_TYPE, не
+	 * проверяя, открыт ли проект ресурса.
+	 * @return первый найденный маркер типа MARKER_TYPE.
+	 * Может быть null.
+	 * @throws CoreException
+	 */
+	private IMarker findFirstMarker () throws CoreException
+	{
+		IMarker[] markers = m_resource.findMarkers(MARKER_TYPE, false, IResource.DEPTH_ZERO);
+		return (markers.length > 0) ? markers[0] : null;
+	}
+	
+	/**
+	 * @return true, если маркеры плагина не должны
+	 * сохраняться вместе с рабочей областью (настройка
+	 * PREFERENCE_TRANSIENT_MARKERS), false - иначе
+	 */
+	public static boolean isTransient ()
+	{
+		return Platform.getPreferencesService().getBoolean(Activator.PLUGIN_ID, PREFERENCE_TRANSIENT_MARKERS, false,
+														   null);
+	}
+	
+	/**
+	 * Удаляет маркеры плагина, созданные предыдущими
+	 * версиями как маркеры общего типа IMarker.PROBLEM.
+	 * Просматриваются только маркеры, стоящие на самих
+	 * проектах.
+	 * @param a_root
+	 * 		  Корень рабочей области. NotNull
+	 * @return true, если были удалены маркеры, false -
+	 * иначе
+	 * @throws CoreException
+	 */
+	public static boolean removeLegacyMarkers (IWorkspaceRoot a_root) throws CoreException
+	{
+		List<IMarker> legacyMarkers = new ArrayList<>();
+		for (IMarker marker : a_root.findMarkers(IMarker.PROBLEM, false, IResource.DEPTH_ONE))
 		{
-			if (marker.getAttribute(MARKER_ATTRIBUTE_PROBLEM_NAME, null) != null)
+			if (marker.getAttribute(MARKER_ATTRIBUTE_PROBLEM_NAME, null) != null ||
+				marker.getAttribute(RuleMarkerManager.MARKER_ATTRIBUTE_NAMING_RULE, null) != null)
 			{
-				return marker;
+				legacyMarkers.add(marker);
 			}
 		}
-		return null;
+		if (legacyMarkers.isEmpty()) return false;
+		a_root.getWorkspace().deleteMarkers(legacyMarkers.toArray(new IMarker[0]));
+		return true;
+	}
+	
+	/**
+	 * Запоминает идентификатор маркера проекта в таблице
+	 * состояния проектов.
+	 * @param a_markerId
+	 * 		  Идентификатор маркера или
+	 * 		  ProjectStateTable.NO_MARKER
+	 */
+	private void rememberMarker (long a_markerId)
+	{
+		if (m_resource.getType() != IResource.PROJECT) return;
+		getStateTable().setMarkerId((IProject)m_resource, a_markerId);
+	}
+	
+	/**
+	 * @return таблица состояния проектов, в которой
+	 * хранятся идентификаторы маркеров
+	 */
+	private ProjectStateTable getStateTable ()
+	{
+		if (m_stateTable == null) m_stateTable = ProjectStateTable.getInstance();
+		return m_stateTable;
 	}
 	
 	/**
@@ -0,0 +1,133 @@
+package project.name.validator.marker;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
+
+import project.name.validator.Activator;
+import project.name.validator.jfr.MarkerWriteEvent;
+import project.name.validator.metrics.ValidatorMetrics;
+import project.name.validator.rule.NamingRule;
+import project.name.validator.state.ProjectStateTable;
+
+/**
+ * Класс для управления маркерами нарушения правил
+ * именования проекта: на проект ставится по одному
+ * маркеру на каждое нарушенное правило.
+ * Маркер нарушения правила является маркером типа
+ * MARKER_TYPE с атрибутом MARKER_ATTRIBUTE_NAMING_RULE,
+ * значение которого - идентификатор правила.
+ */
+public class RuleMarkerManager
+{
+	public static final String MARKER_ATTRIBUTE_NAMING_RULE = "namingRule";
+	
+	/**
+	 * Тип маркера нарушения правила именования.
+	 */
+	public static final String MARKER_TYPE = Activator.PLUGIN_ID + ".namingRuleMarker";
+	
+	private IProject m_project;
+	
+	private ProjectStateTable m_stateTable;
+	
+	/**
+	 * Конструктор класса RuleMarkerManager.
+	 * @param a_project
+	 * 		  Проект, маркеры которого изменяются. NotNull
+	 * @param a_stateTable
+	 * 		  Таблица состояния проектов, в которой
+	 * 		  отмечается наличие маркеров. NotNull
+	 */
+	public RuleMarkerManager (IProject a_project, ProjectStateTable a_stateTable)
+	{
+		m_project = Objects.requireNonNull(a_project);
+		m_stateTable = Objects.requireNonNull(a_stateTable);
+	}
+	
+	/**
+	 * Приводит маркеры нарушения правил проекта в
+	 * соответствие с a_violations: маркеры правил, которые
+	 * больше не нарушаются, удаляются, на каждое новое
+	 * нарушение ставится маркер, а у маркеров, текст или
+	 * важность правила которых изменились, обновляются
+	 * атрибуты. Маркеры проекта перебираются один раз.
+	 * @param a_violations
+	 * 		  Нарушенные правила. NotNull
+	 * @throws CoreException
+	 */
+	public void update (List<NamingRule> a_violations) throws CoreException
+	{
+		if (!m_project.isOpen()) return;
+		Set<String> existing = new HashSet<>();
+		for (IMarker marker : m_project.findMarkers(MARKER_TYPE, false, IResource.DEPTH_ZERO))
+		{
+			String ruleId = marker.getAttribute(MARKER_ATTRIBUTE_NAMING_RULE, null);
+			if (ruleId == null) continue;
+			NamingRule rule = findRule(a_violations, ruleId);
+			if (rule == null || !existing.add(ruleId))
+			{
+				MarkerWriteEvent event = new MarkerWriteEvent();
+				event.begin();
+				marker.delete();
+				ValidatorMetrics.MARKERS_DELETED.increment();
+				commitEvent(event, MarkerWriteEvent.OPERATION_DELETE);
+			}
+			else if (!rule.getMessage().equals(marker.getAttribute(IMarker.MESSAGE, null)) ||
+					 rule.getSeverity() != marker.getAttribute(IMarker.SEVERITY, -1))
+			{
+				marker.setAttributes(new String[] {IMarker.MESSAGE, IMarker.SEVERITY},
+									 new Object[] {rule.getMessage(), rule.getSeverity()});
+			}
+		}
+		for (NamingRule rule : a_violations)
+		{
+			if (existing.contains(rule.getId())) continue;
+			MarkerWriteEvent event = new MarkerWriteEvent();
+			event.begin();
+			IMarker marker = m_project.createMarker(MARKER_TYPE);
+			marker.setAttributes(new String[] {MARKER_ATTRIBUTE_NAMING_RULE, IMarker.MESSAGE, IMarker.SEVERITY,
+											   IMarker.USER_EDITABLE, IMarker.TRANSIENT},
+								 new Object[] {rule.getId(), rule.getMessage(), rule.getSeverity(), false,
+											   ProblemNameMarkerManager.isTransient()});
+			ValidatorMetrics.MARKERS_CREATED.increment();
+			commitEvent(event, MarkerWriteEvent.OPERATION_CREATE);
+		}
+		m_stateTable.setRuleMarkers(m_project, !a_violations.isEmpty());
+	}
+	
+	/**
+	 * @return правило из a_rules с идентификатором a_id или
+	 * null, если такого правила нет
+	 */
+	private static NamingRule findRule (List<NamingRule> a_rules, String a_id)
+	{
+		for (NamingRule rule : a_rules)
+		{
+			if (rule.getId().equals(a_id)) return rule;
+		}
+		return null;
+	}
+	
+	/**
+	 * Записывает событие JFR об изменении маркера, если
+	 * запись событий включена.
+	 * @param a_event
+	 * 		  Начатое событие
+	 * @param a_operation
+	 * 		  Выполненная операция
+	 */
+	private void commitEvent (MarkerWriteEvent a_event, String a_operation)
+	{
+		a_event.end();
+		if (!a_event.shouldCommit()) return;
+		a_event.set(m_project.getName(), a_operation);
+		a_event.commit();
+	}
+}
@@ -0,0 +1,123 @@
+package project.name.validator.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Гистограмма длительностей с корзинами, границы
+ * которых являются степенями двойки наносекунд.
+ * Запись значения не выделяет память и не
+ * блокирует потоки.
+ * Длительности измеряются, только если измерение
+ * времени включено в ValidatorMetrics, иначе
+ * методы start и stop ничего не делают.
+ */
+public class TimeHistogram
+{
+	private static final int BUCKET_COUNT = 64;
+	
+	private final LongAdder[] m_buckets = new LongAdder[BUCKET_COUNT];
+	
+	private final LongAdder m_count = new LongAdder();
+	
+	private final LongAdder m_totalNanos = new LongAdder();
+	
+	/**
+	 * Конструктор класса TimeHistogram.
+	 */
+	public TimeHistogram ()
+	{
+		for (int i = 0; i < BUCKET_COUNT; i++)
+		{
+			m_buckets[i] = new LongAdder();
+		}
+	}
+	
+	/**
+	 * @return момент начала измерения или 0, если
+	 * измерение времени выключено
+	 */
+	public long start ()
+	{
+		return ValidatorMetrics.isTimingEnabled() ? System.nanoTime() : 0;
+	}
+	
+	/**
+	 * Записывает длительность, прошедшую с момента
+	 * a_start.
+	 * @param a_start
+	 * 		  Значение, возвращённое методом start
+	 */
+	public void stop (long a_start)
+	{
+		if (a_start != 0) record(System.nanoTime() - a_start);
+	}
+	
+	/**
+	 * Записывает длительность.
+	 * @param a_nanos
+	 * 		  Длительность в наносекундах
+	 */
+	public void record (long a_nanos)
+	{
+		long nanos = Math.max(a_nanos, 1);
+		m_buckets[63 - Long.numberOfLeadingZeros(nanos)].increment();
+		m_count.increment();
+		m_totalNanos.add(nanos);
+	}
+	
+	/**
+	 * @return количество записанных длительностей
+	 */
+	public long getCount ()
+	{
+		return m_count.sum();
+	}
+	
+	/**
+	 * @return суммарная длительность в наносекундах
+	 */
+	public long getTotalNanos ()
+	{
+		return m_totalNanos.sum();
+	}
+	
+	/**
+	 * @param a_quantile
+	 * 		  Квантиль от 0 до 1
+	 * @return верхняя граница корзины, в которую попадает
+	 * квантиль a_quantile, в наносекундах, или 0, если
+	 * длительности не записывались
+	 */
+	public long getQuantileNanos (double a_quantile)
+	{
+		long[] counts = new long[BUCKET_COUNT];
+		long total = 0;
+		for (int i = 0; i < BUCKET_COUNT; i++)
+		{
+			counts[i] = m_buckets[i].sum();
+			total += counts[i];
+		}
+		if (total == 0) return 0;
+		long rank = (long)Math.ceil(a_quantile * total);
+		long seen = 0;
+		for (int i = 0; i < BUCKET_COUNT; i++)
+		{
+			seen += counts[i];
+			if (seen >= rank) return (i == BUCKET_COUNT - 1) ? Long.MAX_VALUE : (1L << (i + 1)) - 1;
+		}
+		return Long.MAX_VALUE;
+	}
+	
+	/**
+	 * Обнуляет гистограмму.
+	 */
+	public void reset ()
+	{
+		for (LongAdder bucket : m_buckets)
+		{
+			bucket.reset();
+		}
+		m_count.reset();
+		m_totalNanos.reset();
+	}
+}
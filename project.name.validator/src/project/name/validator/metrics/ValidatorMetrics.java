@@ -0,0 +1,173 @@
+package project.name.validator.metrics;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import project.name.validator.Activator;
+
+/**
+ * Счётчики и гистограммы длительностей работы
+ * плагина.
+ * Счётчики увеличиваются всегда: увеличение LongAdder
+ * не выделяет память и почти не стоит времени.
+ * Длительности измеряются, только если измерение
+ * времени включено (системным свойством
+ * project.name.validator.metrics.timing=true или
+ * открытием представления диагностики), поэтому без
+ * читателя метрик System.nanoTime не вызывается.
+ */
+public final class ValidatorMetrics
+{
+	/**
+	 * Системное свойство, включающее измерение времени
+	 * с момента запуска.
+	 */
+	public static final String TIMING_PROPERTY = "project.name.validator.metrics.timing";
+	
+	/**
+	 * Имя файла, в который сохраняются метрики, в
+	 * каталоге состояния плагина.
+	 */
+	public static final String DUMP_FILE_NAME = "metrics.txt";
+	
+	public static final LongAdder PROJECTS_VALIDATED = new LongAdder();
+	
+	public static final LongAdder MARKERS_CREATED = new LongAdder();
+	
+	public static final LongAdder MARKERS_DELETED = new LongAdder();
+	
+	public static final LongAdder PROPERTY_READS = new LongAdder();
+	
+	public static final LongAdder LISTENER_INVOCATIONS = new LongAdder();
+	
+	public static final TimeHistogram VALIDATION_TIME = new TimeHistogram();
+	
+	public static final TimeHistogram LISTENER_TIME = new TimeHistogram();
+	
+	private static volatile boolean s_timingEnabled = Boolean.getBoolean(TIMING_PROPERTY);
+	
+	private ValidatorMetrics ()
+	{
+	}
+	
+	/**
+	 * @return true, если измерение времени включено,
+	 * false - иначе
+	 */
+	public static boolean isTimingEnabled ()
+	{
+		return s_timingEnabled;
+	}
+	
+	/**
+	 * Включает или выключает измерение времени.
+	 * @param a_enabled
+	 * 		  true для включения
+	 */
+	public static void setTimingEnabled (boolean a_enabled)
+	{
+		s_timingEnabled = a_enabled;
+	}
+	
+	/**
+	 * @return текущие значения метрик: название метрики и
+	 * её значение в текстовом виде, в порядке вывода
+	 */
+	public static Map<String, String> snapshot ()
+	{
+		Map<String, String> values = new LinkedHashMap<>();
+		values.put("Projects validated", Long.toString(PROJECTS_VALIDATED.sum()));
+		values.put("Markers created", Long.toString(MARKERS_CREATED.sum()));
+		values.put("Markers deleted", Long.toString(MARKERS_DELETED.sum()));
+		values.put("Property store reads", Long.toString(PROPERTY_READS.sum()));
+		values.put("Listener invocations", Long.toString(LISTENER_INVOCATIONS.sum()));
+		putHistogram(values, "Validation time", VALIDATION_TIME);
+		putHistogram(values, "Listener time", LISTENER_TIME);
+		values.put("Timing enabled", Boolean.toString(s_timingEnabled));
+		return values;
+	}
+	
+	/**
+	 * Добавляет в a_values значения гистограммы a_histogram.
+	 */
+	private static void putHistogram (Map<String, String> a_values, String a_name, TimeHistogram a_histogram)
+	{
+		long count = a_histogram.getCount();
+		long total = a_histogram.getTotalNanos();
+		a_values.put(a_name + ": count", Long.toString(count));
+		a_values.put(a_name + ": total, ms", formatMillis(total));
+		a_values.put(a_name + ": mean, us", (count == 0) ? "0" : formatMicros(total / count));
+		a_values.put(a_name + ": p50, us", "< " + formatMicros(a_histogram.getQuantileNanos(0.5)));
+		a_values.put(a_name + ": p99, us", "< " + formatMicros(a_histogram.getQuantileNanos(0.99)));
+	}
+	
+	private static String formatMillis (long a_nanos)
+	{
+		return String.format("%.3f", a_nanos / 1_000_000.0);
+	}
+	
+	private static String formatMicros (long a_nanos)
+	{
+		return String.format("%.3f", a_nanos / 1_000.0);
+	}
+	
+	/**
+	 * Сохраняет текущие значения метрик в файл
+	 * DUMP_FILE_NAME в каталоге состояния плагина.
+	 * @return файл с метриками
+	 * @throws IOException
+	 */
+	public static File dump () throws IOException
+	{
+		Activator plugin = Activator.getDefault();
+		if (plugin == null) throw new IOException("Plug-in " + Activator.PLUGIN_ID + " is not active");
+		File file = plugin.getStateLocation().append(DUMP_FILE_NAME).toFile();
+		try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8))
+		{
+			for (Map.Entry<String, String> value : snapshot().entrySet())
+			{
+				writer.write(value.getKey() + " = " + value.getValue() + System.lineSeparator());
+			}
+		}
+		return file;
+	}
+	
+	/**
+	 * Сохраняет метрики, игнорируя ошибки записи.
+	 * Вызывается при остановке плагина.
+	 */
+	public static void dumpQuietly ()
+	{
+		try
+		{
+			dump();
+		}
+		catch (IOException | IllegalStateException e)
+		{
+			/*
+			 * Метрики носят диагностический характер, и их
+			 * потеря не должна мешать остановке плагина:
+			 */
+		}
+	}
+	
+	/**
+	 * Обнуляет все метрики.
+	 */
+	public static void reset ()
+	{
+		PROJECTS_VALIDATED.reset();
+		MARKERS_CREATED.reset();
+		MARKERS_DELETED.reset();
+		PROPERTY_READS.reset();
+		LISTENER_INVOCATIONS.reset();
+		VALIDATION_TIME.reset();
+		LISTENER_TIME.reset();
+	}
+}
@@ -0,0 +1,320 @@
+package project.name.validator.property;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.preferences.IEclipsePreferences;
+import org.eclipse.core.runtime.preferences.InstanceScope;
+import org.eclipse.osgi.util.NLS;
+
+import project.name.validator.Activator;
+import project.name.validator.Messages;
+import project.name.validator.job.RevalidateProjectsJob;
+import project.name.validator.log.ErrorStatusHandler;
+
+/**
+ * Шаблоны исключений уровня рабочей области: проект, имя
+ * которого соответствует хотя бы одному шаблону, не
+ * проверяется на совпадение имени с именем папки так же,
+ * как проект, занесённый в исключения пользователем, но
+ * без записи свойства RenameIgnoringProperty.
+ * Шаблоны хранятся в настройке PREFERENCE_EXCEPTION_PATTERNS,
+ * по одному в строке. Шаблон с префиксом REGEX_PREFIX -
+ * регулярное выражение, остальные (в том числе с
+ * префиксом GLOB_PREFIX) - шаблоны имён, в которых '*'
+ * означает любую последовательность символов, а '?' -
+ * любой символ. Пустые строки и строки, начинающиеся с
+ * '#', пропускаются.
+ * Все шаблоны компилируются в одно регулярное выражение,
+ * поэтому имя проекта проверяется одним сопоставлением
+ * независимо от количества шаблонов. При объединении
+ * номера групп сдвигаются, а имена групп могут
+ * повториться, поэтому регулярные выражения с обратными
+ * ссылками на группы по номеру и с именованными группами
+ * не поддерживаются, как и фрагмент \Q без завершающего
+ * \E, который экранировал бы следующие шаблоны.
+ */
+public class ExceptionPatterns
+{
+	/**
+	 * Настройка плагина, хранящая шаблоны исключений.
+	 */
+	public static final String PREFERENCE_EXCEPTION_PATTERNS = "exceptionPatterns";
+	
+	/**
+	 * Префикс шаблона, записанного регулярным выражением.
+	 */
+	public static final String REGEX_PREFIX = "regex:";
+	
+	/**
+	 * Префикс шаблона имени. Шаблон без префикса тоже
+	 * считается шаблоном имени.
+	 */
+	public static final String GLOB_PREFIX = "glob:";
+	
+	private static ExceptionPatterns s_instance;
+	
+	private static boolean s_listening;
+	
+	/**
+	 * Выражение, объединяющее все шаблоны, или null, если
+	 * шаблонов нет.
+	 */
+	private Pattern m_pattern;
+	
+	private String m_definition;
+	
+	/**
+	 * Объекты сопоставления выражения m_pattern, по одному
+	 * на поток, поэтому проверка имени не создаёт
+	 * объектов.
+	 */
+	private ThreadLocal<Matcher> m_matchers = new ThreadLocal<Matcher>()
+	{
+		@Override
+		protected Matcher initialValue ()
+		{
+			return m_pattern.matcher("");
+		}
+	};
+	
+	/**
+	 * Конструктор класса ExceptionPatterns. Шаблон,
+	 * записанный с ошибкой, неподдерживаемый или не
+	 * объединяемый с предыдущими шаблонами, пропускается, а
+	 * ошибка записывается в журнал.
+	 * @param a_definition
+	 * 		  Шаблоны, по одному в строке. NotNull
+	 */
+	public ExceptionPatterns (String a_definition)
+	{
+		StringBuilder regex = new StringBuilder();
+		StringBuilder definition = new StringBuilder();
+		for (String line : split(a_definition))
+		{
+			try
+			{
+				m_pattern = appendPattern(regex, line);
+			}
+			catch (PatternSyntaxException e)
+			{
+				ErrorStatusHandler.log(e, NLS.bind(Messages.Exception_Exception_Pattern, line));
+				continue;
+			}
+			if (definition.length() > 0) definition.append('\n');
+			definition.append(line);
+		}
+		m_definition = definition.toString();
+	}
+	
+	/**
+	 * @return шаблоны исключений рабочей области. При первом
+	 * вызове (и после изменения настройки шаблонов) они
+	 * компилируются заново
+	 */
+	public static synchronized ExceptionPatterns getInstance ()
+	{
+		if (s_instance == null)
+		{
+			IEclipsePreferences preferences = InstanceScope.INSTANCE.getNode(Activator.PLUGIN_ID);
+			if (!s_listening)
+			{
+				preferences.addPreferenceChangeListener(new IEclipsePreferences.IPreferenceChangeListener()
+				{
+					@Override
+					public void preferenceChange (IEclipsePreferences.PreferenceChangeEvent a_event)
+					{
+						if (PREFERENCE_EXCEPTION_PATTERNS.equals(a_event.getKey())) patternsChanged();
+					}
+				});
+				s_listening = true;
+			}
+			s_instance = new ExceptionPatterns(Platform.getPreferencesService()
+													   .getString(Activator.PLUGIN_ID,
+																  PREFERENCE_EXCEPTION_PATTERNS, "", null));
+		}
+		return s_instance;
+	}
+	
+	/**
+	 * Сбрасывает шаблоны исключений рабочей области.
+	 * Следующий вызов getInstance скомпилирует их заново.
+	 */
+	public static synchronized void reset ()
+	{
+		s_instance = null;
+	}
+	
+	/**
+	 * Сбрасывает шаблоны и запускает повторную проверку
+	 * всех проектов рабочей области, чтобы маркеры
+	 * соответствовали новым шаблонам.
+	 */
+	private static void patternsChanged ()
+	{
+		reset();
+		new RevalidateProjectsJob(Arrays.asList(ResourcesPlugin.getWorkspace().getRoot().getProjects())).schedule();
+	}
+	
+	/**
+	 * @param a_projectName
+	 * 		  Имя проекта. NotNull
+	 * @return true, если имя a_projectName соответствует
+	 * хотя бы одному шаблону, false - иначе
+	 */
+	public boolean matches (String a_projectName)
+	{
+		if (m_pattern == null) return false;
+		return m_matchers.get().reset(a_projectName).matches();
+	}
+	
+	/**
+	 * @return true, если шаблонов нет
+	 */
+	public boolean isEmpty ()
+	{
+		return m_pattern == null;
+	}
+	
+	/**
+	 * @return правильно записанные шаблоны, по одному в
+	 * строке. Входит в ключ конфигурации снимка состояния
+	 * проектов: после изменения шаблонов сохранённые
+	 * результаты проверки устаревают
+	 */
+	public String getDefinition ()
+	{
+		return m_definition;
+	}
+	
+	/**
+	 * @param a_definition
+	 * 		  Шаблоны, по одному в строке. NotNull
+	 * @return шаблоны a_definition без пустых строк,
+	 * комментариев и окружающих пробелов
+	 */
+	public static List<String> split (String a_definition)
+	{
+		List<String> lines = new ArrayList<>();
+		for (String line : a_definition.split("\\R"))
+		{
+			line = line.trim();
+			if (!line.isEmpty() && line.charAt(0) != '#') lines.add(line);
+		}
+		return lines;
+	}
+	
+	/**
+	 * @param a_line
+	 * 		  Шаблон с префиксом или без него. NotNull
+	 * @return регулярное выражение, соответствующее
+	 * шаблону a_line
+	 */
+	public static String toRegex (String a_line)
+	{
+		if (a_line.startsWith(REGEX_PREFIX)) return a_line.substring(REGEX_PREFIX.length());
+		String glob = a_line.startsWith(GLOB_PREFIX) ? a_line.substring(GLOB_PREFIX.length()) : a_line;
+		StringBuilder regex = new StringBuilder();
+		int start = 0;
+		for (int i = 0; i < glob.length(); i++)
+		{
+			char c = glob.charAt(i);
+			if (c != '*' && c != '?') continue;
+			if (i > start) regex.append(Pattern.quote(glob.substring(start, i)));
+			regex.append((c == '*') ? ".*" : ".");
+			start = i + 1;
+		}
+		if (start < glob.length()) regex.append(Pattern.quote(glob.substring(start)));
+		return regex.toString();
+	}
+	
+	/**
+	 * Добавляет шаблон a_line к объединённому выражению
+	 * a_regex и компилирует результат. Если шаблон записан
+	 * с ошибкой, не поддерживается или не объединяется с
+	 * предыдущими шаблонами, a_regex не изменяется.
+	 * @param a_regex
+	 * 		  Объединённое выражение предыдущих шаблонов.
+	 * 		  NotNull
+	 * @param a_line
+	 * 		  Шаблон с префиксом или без него. NotNull
+	 * @return скомпилированное объединённое выражение
+	 * @throws PatternSyntaxException
+	 */
+	public static Pattern appendPattern (StringBuilder a_regex, String a_line) throws PatternSyntaxException
+	{
+		String part = toRegex(a_line);
+		checkSupported(part);
+		int length = a_regex.length();
+		if (length > 0) a_regex.append('|');
+		a_regex.append("(?:").append(part).append(')');
+		try
+		{
+			return Pattern.compile(a_regex.toString());
+		}
+		catch (PatternSyntaxException e)
+		{
+			a_regex.setLength(length);
+			throw e;
+		}
+	}
+	
+	/**
+	 * Проверяет, что регулярное выражение a_regex можно
+	 * объединить с другими: в нём нет обратных ссылок на
+	 * группы по номеру (\1 - \9) и именованных групп вне
+	 * классов символов и экранированных фрагментов, а
+	 * каждый фрагмент \Q завершён \E.
+	 * @param a_regex
+	 * 		  Регулярное выражение. NotNull
+	 * @throws PatternSyntaxException
+	 * 		   если выражение нельзя объединить с другими
+	 */
+	private static void checkSupported (String a_regex) throws PatternSyntaxException
+	{
+		boolean quoted = false;
+		int quoteStart = 0;
+		int classDepth = 0;
+		for (int i = 0; i < a_regex.length(); i++)
+		{
+			char c = a_regex.charAt(i);
+			char next = (i + 1 < a_regex.length()) ? a_regex.charAt(i + 1) : 0;
+			if (quoted)
+			{
+				if (c == '\\' && next == 'E')
+				{
+					quoted = false;
+					i++;
+				}
+				continue;
+			}
+			if (c == '\\')
+			{
+				if (next == 'Q')
+				{
+					quoted = true;
+					quoteStart = i;
+				}
+				else if (classDepth == 0 && next >= '1' && next <= '9')
+				{
+					throw new PatternSyntaxException(Messages.Exception_Pattern_Back_Reference, a_regex, i);
+				}
+				i++;
+			}
+			else if (c == '[') classDepth++;
+			else if (c == ']' && classDepth > 0) classDepth--;
+			else if (classDepth == 0 && c == '(' && a_regex.startsWith("?<", i + 1) && i + 3 < a_regex.length() &&
+					 Character.isLetter(a_regex.charAt(i + 3)))
+			{
+				throw new PatternSyntaxException(Messages.Exception_Pattern_Named_Group, a_regex, i);
+			}
+		}
+		if (quoted) throw new PatternSyntaxException(Messages.Exception_Pattern_Unclosed_Quote, a_regex, quoteStart);
+	}
+}
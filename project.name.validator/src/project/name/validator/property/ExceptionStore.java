@@ -0,0 +1,312 @@
+package project.name.validator.property;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.preferences.IEclipsePreferences;
+import org.eclipse.core.runtime.preferences.InstanceScope;
+import org.osgi.service.prefs.BackingStoreException;
+import org.osgi.service.prefs.Preferences;
+
+import project.name.validator.Activator;
+import project.name.validator.Messages;
+import project.name.validator.log.ErrorStatusHandler;
+
+/**
+ * Хранилище исключений уровня рабочей области: для
+ * каждого проекта, занесённого пользователем в
+ * исключения или исключённого из них, хранится значение
+ * свойства RenameIgnoringProperty.
+ * Ключом служит имя проекта. Значения хранятся в узле
+ * настроек рабочей области (InstanceScope), целиком
+ * читаются в память при первом обращении и
+ * записываются на диск фоновым заданием, объединяющим
+ * изменения, сделанные за FLUSH_DELAY миллисекунд.
+ * Имена проектов, свойства прежнего формата которых ещё
+ * не перенесены в хранилище (проекты были закрыты во
+ * время переноса), хранятся в отдельном узле настроек.
+ */
+public class ExceptionStore
+{
+	/**
+	 * Имя узла настроек плагина, хранящего исключения.
+	 */
+	private static final String NODE_NAME = "renameExceptions";
+	
+	/**
+	 * Настройка плагина, означающая, что значения
+	 * свойств проектов прежнего формата перенесены в
+	 * хранилище.
+	 */
+	private static final String MIGRATED_KEY = "renameExceptionsMigrated";
+	
+	/**
+	 * Имя узла настроек плагина, хранящего имена проектов,
+	 * свойства прежнего формата которых ещё не перенесены.
+	 */
+	private static final String PENDING_NODE_NAME = "renameExceptionsPending";
+	
+	/**
+	 * Задержка (в миллисекундах) между изменением
+	 * хранилища и записью изменений на диск.
+	 */
+	private static final long FLUSH_DELAY = 1000;
+	
+	private static ExceptionStore s_instance;
+	
+	/**
+	 * Узел настроек плагина или null, если хранилище не
+	 * сохраняется на диск.
+	 */
+	private IEclipsePreferences m_preferences;
+	
+	private Preferences m_node;
+	
+	private Map<String, Boolean> m_values = new ConcurrentHashMap<>();
+	
+	private Preferences m_pendingNode;
+	
+	private Set<String> m_pending = ConcurrentHashMap.newKeySet();
+	
+	private volatile boolean m_migrated;
+	
+	private Job m_flushJob;
+	
+	/**
+	 * Конструктор класса ExceptionStore, создающий
+	 * хранилище, которое существует только в памяти.
+	 * Свойства прежнего формата таким хранилищем не
+	 * читаются.
+	 */
+	public ExceptionStore ()
+	{
+		m_migrated = true;
+	}
+	
+	/**
+	 * Конструктор класса ExceptionStore, читающий
+	 * исключения из узла настроек a_preferences.
+	 * @param a_preferences
+	 * 		  Узел настроек плагина. NotNull
+	 */
+	private ExceptionStore (IEclipsePreferences a_preferences)
+	{
+		m_preferences = Objects.requireNonNull(a_preferences);
+		m_node = m_preferences.node(NODE_NAME);
+		m_pendingNode = m_preferences.node(PENDING_NODE_NAME);
+		m_migrated = m_preferences.getBoolean(MIGRATED_KEY, false);
+		try
+		{
+			for (String name : m_node.keys())
+			{
+				m_values.put(name, Boolean.valueOf(m_node.getBoolean(name, false)));
+			}
+			for (String name : m_pendingNode.keys())
+			{
+				m_pending.add(name);
+			}
+		}
+		catch (BackingStoreException e)
+		{
+			ErrorStatusHandler.log(e, e.getMessage());
+		}
+		m_flushJob = new Job(Messages.Job_Save_Exceptions)
+		{
+			@Override
+			protected IStatus run (IProgressMonitor a_monitor)
+			{
+				flush();
+				return Status.OK_STATUS;
+			}
+		};
+		m_flushJob.setSystem(true);
+	}
+	
+	/**
+	 * @return хранилище исключений рабочей области. При
+	 * первом вызове исключения читаются из настроек
+	 */
+	public static synchronized ExceptionStore getInstance ()
+	{
+		if (s_instance == null) s_instance = new ExceptionStore(InstanceScope.INSTANCE.getNode(Activator.PLUGIN_ID));
+		return s_instance;
+	}
+	
+	/**
+	 * @param a_name
+	 * 		  Имя проекта
+	 * @return значение свойства RenameIgnoringProperty
+	 * проекта с именем a_name или null, если значение не
+	 * задано
+	 */
+	public Boolean get (String a_name)
+	{
+		return m_values.get(a_name);
+	}
+	
+	/**
+	 * Задаёт значение свойства RenameIgnoringProperty
+	 * проекта с именем a_name.
+	 * @param a_name
+	 * 		  Имя проекта. NotNull
+	 * @param a_ignoring
+	 * 		  Значение свойства
+	 */
+	public void set (String a_name, boolean a_ignoring)
+	{
+		m_values.put(a_name, Boolean.valueOf(a_ignoring));
+		if (m_node == null) return;
+		m_node.putBoolean(a_name, a_ignoring);
+		m_flushJob.schedule(FLUSH_DELAY);
+	}
+	
+	/**
+	 * Задаёт значения свойства RenameIgnoringProperty
+	 * нескольким проектам. Изменения записываются на диск
+	 * одной операцией.
+	 * @param a_values
+	 * 		  Значение свойства для каждого имени проекта.
+	 * 		  NotNull
+	 */
+	public void setAll (Map<String, Boolean> a_values)
+	{
+		m_values.putAll(a_values);
+		if (m_node == null) return;
+		for (Map.Entry<String, Boolean> value : a_values.entrySet())
+		{
+			m_node.putBoolean(value.getKey(), value.getValue().booleanValue());
+		}
+		m_flushJob.schedule(FLUSH_DELAY);
+	}
+	
+	/**
+	 * Переносит значение свойства переименованного
+	 * проекта на его новое имя.
+	 * @param a_oldName
+	 * 		  Прежнее имя проекта
+	 * @param a_newName
+	 * 		  Новое имя проекта
+	 */
+	public void rename (String a_oldName, String a_newName)
+	{
+		if (m_pending.remove(a_oldName))
+		{
+			m_pending.add(a_newName);
+			if (m_pendingNode != null)
+			{
+				m_pendingNode.remove(a_oldName);
+				m_pendingNode.putBoolean(a_newName, true);
+				m_flushJob.schedule(FLUSH_DELAY);
+			}
+		}
+		Boolean value = m_values.remove(a_oldName);
+		if (value == null) return;
+		m_values.put(a_newName, value);
+		if (m_node == null) return;
+		m_node.remove(a_oldName);
+		m_node.putBoolean(a_newName, value.booleanValue());
+		m_flushJob.schedule(FLUSH_DELAY);
+	}
+	
+	/**
+	 * Удаляет значение свойства удалённого проекта.
+	 * @param a_name
+	 * 		  Имя проекта
+	 */
+	public void remove (String a_name)
+	{
+		removePending(a_name);
+		if (m_values.remove(a_name) == null || m_node == null) return;
+		m_node.remove(a_name);
+		m_flushJob.schedule(FLUSH_DELAY);
+	}
+	
+	/**
+	 * @param a_name
+	 * 		  Имя проекта
+	 * @return true, если свойство прежнего формата проекта
+	 * с именем a_name может быть ещё не перенесено в
+	 * хранилище: перенос не завершён или проект был закрыт
+	 * во время переноса
+	 */
+	public boolean isPending (String a_name)
+	{
+		return !m_migrated || (!m_pending.isEmpty() && m_pending.contains(a_name));
+	}
+	
+	/**
+	 * Запоминает имена проектов, свойства прежнего формата
+	 * которых не удалось перенести в хранилище.
+	 * @param a_names
+	 * 		  Имена проектов. NotNull
+	 */
+	public void addPending (Collection<String> a_names)
+	{
+		if (a_names.isEmpty()) return;
+		m_pending.addAll(a_names);
+		if (m_pendingNode == null) return;
+		for (String name : a_names)
+		{
+			m_pendingNode.putBoolean(name, true);
+		}
+		m_flushJob.schedule(FLUSH_DELAY);
+	}
+	
+	/**
+	 * Отмечает, что свойство прежнего формата проекта с
+	 * именем a_name перенесено в хранилище.
+	 * @param a_name
+	 * 		  Имя проекта
+	 */
+	public void removePending (String a_name)
+	{
+		if (!m_pending.remove(a_name) || m_pendingNode == null) return;
+		m_pendingNode.remove(a_name);
+		m_flushJob.schedule(FLUSH_DELAY);
+	}
+	
+	/**
+	 * @return true, если свойства проектов прежнего формата
+	 * перенесены в хранилище, false - иначе
+	 */
+	public boolean isMigrated ()
+	{
+		return m_migrated;
+	}
+	
+	/**
+	 * Отмечает, что свойства проектов прежнего формата
+	 * перенесены в хранилище, и сразу записывает
+	 * хранилище на диск.
+	 */
+	public void setMigrated ()
+	{
+		m_migrated = true;
+		if (m_preferences == null) return;
+		m_preferences.putBoolean(MIGRATED_KEY, true);
+		flush();
+	}
+	
+	/**
+	 * Записывает изменения хранилища на диск.
+	 */
+	public void flush ()
+	{
+		if (m_preferences == null) return;
+		try
+		{
+			m_preferences.flush();
+		}
+		catch (BackingStoreException e)
+		{
+			ErrorStatusHandler.log(e, Messages.Exception_Exceptions_Saving);
+		}
+	}
+}
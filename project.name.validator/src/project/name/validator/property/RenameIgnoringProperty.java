@@ -1,5 +1,7 @@
 package project.name.validator.property;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
 
 import org.eclipse.core.resources.IProject;
@@ -7,32 +9,35 @@ import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.QualifiedName;
 
-import project.name.validator.ProjectValidator;
+import project.name.validator.metrics.ValidatorMetrics;
+import project.name.validator.state.ProjectStateTable;
 
 /**
  * Свойство, определяющее необходимость игнорирования
  * переименования проекта в случае, когда оно приводит
  * к несовпадению имени проекта и имени его папки в
  * файловой системе.
- * Свойство сохраняется между сессиями, а его значение
- * может быть изменено на соответствующей странице
- * окна свойств.
+ * Свойство сохраняется между сессиями в хранилище
+ * исключений рабочей области ExceptionStore, а его
+ * значение может быть изменено на соответствующей
+ * странице окна свойств.
+ * Прежде свойство хранилось в хранилище свойств
+ * проекта под ключом, зависящим от имени папки проекта.
+ * Пока такие свойства не перенесены в ExceptionStore
+ * заданием ExceptionMigrationJob, они читаются, если
+ * в хранилище нет значения.
  */
 public class RenameIgnoringProperty
 {
-	private final String m_renameIgnoringKey = "RENAME_IGNORING_KEY";
-			
-	private IProject m_project;
+	private static final String RENAME_IGNORING_KEY = "RENAME_IGNORING_KEY";
 	
-	private ProjectValidator m_projectValidator;
+	private IProject m_project;
 	
-	private QualifiedName m_qualifiedName;
+	private ExceptionStore m_store;
 	
 	/**
-	 * Конструктор класса RenameIgnoringProperty.
-	 * Вызывает метод создания квалификатора QualifiedName,
-	 * который является ключом, с помощью которого
-	 * идентифицируется свойство RenameIgnoringProperty.
+	 * Конструктор класса RenameIgnoringProperty,
+	 * использующий хранилище исключений рабочей области.
 	 * @param a_project
 	 * 		  Проект, который будет иметь свойство
 	 * 		  RenameIgnoringProperty. notNull
@@ -40,24 +45,20 @@ public class RenameIgnoringProperty
 	public RenameIgnoringProperty (IProject a_project)
 	{
 		m_project = Objects.requireNonNull(a_project);
-		m_projectValidator = new ProjectValidator(m_project);
-		createQualifiedName(m_project);
 	}
 	
 	/**
-	 * Создаёт квалификатор QualifiedName, который является
-	 * ключом, с помощью которого идентифицируется свойство
-	 * RenameIgnoringProperty.
+	 * Конструктор класса RenameIgnoringProperty.
 	 * @param a_project
-	 * 		  Проект, который будет обладать свойством
-	 * 		  RenameIgnoringProperty
+	 * 		  Проект, который будет иметь свойство
+	 * 		  RenameIgnoringProperty. notNull
+	 * @param a_store
+	 * 		  Хранилище исключений. NotNull
 	 */
-	private void createQualifiedName (IProject a_project)
+	public RenameIgnoringProperty (IProject a_project, ExceptionStore a_store)
 	{
-		IPath location = m_project.getLocation();
-		String folderName = m_project.getName();
-		if (location != null) folderName = location.lastSegment();
-		m_qualifiedName = new QualifiedName(folderName, m_renameIgnoringKey);
+		this(a_project);
+		m_store = Objects.requireNonNull(a_store);
 	}
 	
 	/**
@@ -67,9 +68,7 @@ public class RenameIgnoringProperty
 	 */
 	public boolean exists () throws CoreException
 	{
-		if (!m_projectValidator.isProjectOpen()) return false;
-		String property = m_project.getPersistentProperty(m_qualifiedName);
-		return (property != null) ? true : false;
+		return readValue() != null;
 	}
 	
 	/**
@@ -81,20 +80,122 @@ public class RenameIgnoringProperty
 	 */
 	public boolean getValue () throws CoreException
 	{
-		if (!m_projectValidator.isProjectOpen()) return false;
-		String property = m_project.getPersistentProperty(m_qualifiedName);
-		return (property == null) ? false : Boolean.parseBoolean(property);
+		return Boolean.parseBoolean(readValue());
+	}
+	
+	/**
+	 * Читает значение свойства из хранилища исключений, а
+	 * если его там нет и свойства прежнего формата ещё не
+	 * перенесены - из хранилища свойств проекта.
+	 * @return строковое значение свойства или null, если
+	 * свойство не существует или проект закрыт
+	 * @throws CoreException
+	 */
+	public String readValue () throws CoreException
+	{
+		return readValue(m_project, getStore());
 	}
 	
 	/**
-	 * Устанавливает значение свойства RenameIgnoringProperty.
+	 * Читает значение свойства проекта a_project так же,
+	 * как readValue(), но без создания объекта свойства.
+	 * Если значение есть в хранилище исключений, объекты
+	 * не создаются.
+	 * @param a_project
+	 * 		  Проект. NotNull
+	 * @param a_store
+	 * 		  Хранилище исключений. NotNull
+	 * @return строковое значение свойства или null, если
+	 * свойство не существует или проект закрыт
+	 * @throws CoreException
+	 */
+	public static String readValue (IProject a_project, ExceptionStore a_store) throws CoreException
+	{
+		if (!a_project.isOpen()) return null;
+		Boolean value = a_store.get(a_project.getName());
+		if (value != null) return value.toString();
+		if (!a_store.isPending(a_project.getName())) return null;
+		return new RenameIgnoringProperty(a_project, a_store).readLegacyValue();
+	}
+	
+	/**
+	 * Устанавливает значение свойства RenameIgnoringProperty
+	 * и запоминает его в таблице состояния проектов.
 	 * @param a_ignoring
 	 * 		  Значение свойства для установки
 	 * @throws CoreException
 	 */
 	public void setValue (boolean a_ignoring) throws CoreException
 	{
-		if (!m_projectValidator.isProjectOpen()) return;
-		m_project.setPersistentProperty(m_qualifiedName, Boolean.toString(a_ignoring));
+		if (!m_project.isOpen()) return;
+		getStore().set(m_project.getName(), a_ignoring);
+		ProjectStateTable.getInstance().setIgnored(m_project, a_ignoring);
+	}
+	
+	/**
+	 * Устанавливает значения свойства RenameIgnoringProperty
+	 * нескольким проектам. Хранилище исключений записывает
+	 * все значения на диск одной операцией. Закрытые
+	 * проекты пропускаются.
+	 * @param a_values
+	 * 		  Значение свойства для каждого проекта. NotNull
+	 */
+	public static void setValues (Map<IProject, Boolean> a_values)
+	{
+		Map<String, Boolean> values = new HashMap<>();
+		ProjectStateTable table = ProjectStateTable.getInstance();
+		for (Map.Entry<IProject, Boolean> value : a_values.entrySet())
+		{
+			IProject project = value.getKey();
+			if (!project.isOpen()) continue;
+			values.put(project.getName(), value.getValue());
+			table.setIgnored(project, value.getValue().booleanValue());
+		}
+		ExceptionStore.getInstance().setAll(values);
+	}
+	
+	/**
+	 * Читает значение свойства прежнего формата из
+	 * хранилища свойств проекта.
+	 * @return строковое значение свойства или null, если
+	 * свойство не существует
+	 * @throws CoreException
+	 */
+	public String readLegacyValue () throws CoreException
+	{
+		ValidatorMetrics.PROPERTY_READS.increment();
+		return m_project.getPersistentProperty(getLegacyQualifiedName());
+	}
+	
+	/**
+	 * Удаляет свойство прежнего формата из хранилища
+	 * свойств проекта.
+	 * @throws CoreException
+	 */
+	public void removeLegacyValue () throws CoreException
+	{
+		m_project.setPersistentProperty(getLegacyQualifiedName(), null);
+	}
+	
+	/**
+	 * @return ключ свойства прежнего формата: его
+	 * квалификатором является имя папки проекта
+	 */
+	private QualifiedName getLegacyQualifiedName ()
+	{
+		IPath location = m_project.getLocation();
+		String folderName = m_project.getName();
+		if (location != null) folderName = location.lastSegment();
+		return new QualifiedName(folderName, RENAME_IGNORING_KEY);
+	}
+	
+	/**
+	 * @return хранилище исключений, с которым работает
+	 * свойство
+	 */
+	private ExceptionStore getStore ()
+	{
+		if (m_store == null) m_store = ExceptionStore.getInstance();
+		return m_store;
 	}
 }
@@ -0,0 +1,60 @@
+package project.name.validator.report;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+
+import project.name.validator.ProjectNameChecker;
+
+/**
+ * Запись отчёта о проверке имён проектов в формате
+ * JSON. Отчёт содержит результат проверки каждого
+ * проекта и итоговые количества проектов.
+ */
+public class JsonReportWriter extends ReportWriter
+{
+	private boolean m_firstResult = true;
+	
+	/**
+	 * Конструктор класса JsonReportWriter.
+	 * @param a_writer
+	 * 		  Поток, в который записывается отчёт. NotNull
+	 */
+	public JsonReportWriter (Writer a_writer)
+	{
+		super(a_writer);
+	}
+	
+	@Override
+	public void begin (String a_workspaceLocation) throws IOException
+	{
+		append("{\n  \"workspace\": ");
+		appendJsonString(a_workspaceLocation);
+		append(",\n  \"results\": [");
+	}
+	
+	@Override
+	protected void writeResult (String a_projectName, String a_folderName, String a_location,
+								ProjectNameChecker.Result a_result) throws IOException
+	{
+		append(m_firstResult ? "\n    {\"project\": " : ",\n    {\"project\": ");
+		m_firstResult = false;
+		appendJsonString(a_projectName);
+		append(", \"folder\": ");
+		appendJsonString(a_folderName);
+		append(", \"location\": ");
+		appendJsonString(a_location);
+		append(", \"result\": ");
+		appendJsonString(a_result.name().toLowerCase(Locale.ROOT));
+		append("}");
+	}
+	
+	@Override
+	public void end () throws IOException
+	{
+		append("\n  ],\n  \"summary\": {\"checked\": " + getCheckedCount() +
+			   ", \"mismatched\": " + getMismatchedCount() +
+			   ", \"ignored\": " + getIgnoredCount() +
+			   ", \"unknown\": " + getUnknownCount() + "}\n}\n");
+	}
+}
@@ -0,0 +1,178 @@
+package project.name.validator.report;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Objects;
+
+import project.name.validator.ProjectNameChecker;
+
+/**
+ * Потоковая запись отчёта о проверке имён проектов.
+ * Результат проверки каждого проекта записывается
+ * сразу после её окончания, поэтому объём памяти,
+ * необходимый для записи отчёта, не зависит от
+ * количества проектов.
+ */
+public abstract class ReportWriter implements Closeable
+{
+	/**
+	 * Количество записанных результатов, после которого
+	 * буфер отчёта сбрасывается на диск.
+	 */
+	private static final int FLUSH_INTERVAL = 100;
+	
+	private Writer m_writer;
+	
+	private int m_checkedCount;
+	
+	private int m_mismatchedCount;
+	
+	private int m_ignoredCount;
+	
+	private int m_unknownCount;
+	
+	/**
+	 * Конструктор класса ReportWriter.
+	 * @param a_writer
+	 * 		  Поток, в который записывается отчёт. NotNull
+	 */
+	protected ReportWriter (Writer a_writer)
+	{
+		m_writer = Objects.requireNonNull(a_writer);
+	}
+	
+	/**
+	 * Записывает начало отчёта.
+	 * @param a_workspaceLocation
+	 * 		  Путь к рабочей области
+	 * @throws IOException
+	 */
+	public abstract void begin (String a_workspaceLocation) throws IOException;
+	
+	/**
+	 * Записывает результат проверки проекта.
+	 * @param a_projectName
+	 * 		  Имя проекта
+	 * @param a_folderName
+	 * 		  Имя папки проекта. Может быть null
+	 * @param a_location
+	 * 		  Путь к папке проекта. Может быть null
+	 * @param a_result
+	 * 		  Результат проверки
+	 * @throws IOException
+	 */
+	public void write (String a_projectName, String a_folderName, String a_location,
+					   ProjectNameChecker.Result a_result) throws IOException
+	{
+		m_checkedCount++;
+		switch (a_result)
+		{
+			case MISMATCH: m_mismatchedCount++; break;
+			case IGNORED: m_ignoredCount++; break;
+			case UNKNOWN: m_unknownCount++; break;
+			default: break;
+		}
+		writeResult(a_projectName, a_folderName, a_location, a_result);
+		if (m_checkedCount % FLUSH_INTERVAL == 0) m_writer.flush();
+	}
+	
+	/**
+	 * Записывает результат проверки проекта в формате
+	 * отчёта.
+	 * @throws IOException
+	 */
+	protected abstract void writeResult (String a_projectName, String a_folderName, String a_location,
+										 ProjectNameChecker.Result a_result) throws IOException;
+	
+	/**
+	 * Записывает окончание отчёта.
+	 * @throws IOException
+	 */
+	public abstract void end () throws IOException;
+	
+	@Override
+	public void close () throws IOException
+	{
+		m_writer.close();
+	}
+	
+	/**
+	 * Записывает строку в отчёт.
+	 * @param a_text
+	 * 		  Строка
+	 * @throws IOException
+	 */
+	protected void append (String a_text) throws IOException
+	{
+		m_writer.write(a_text);
+	}
+	
+	/**
+	 * Записывает строку в отчёт в виде строкового
+	 * значения JSON.
+	 * @param a_value
+	 * 		  Строка. Если null, записывается null
+	 * @throws IOException
+	 */
+	protected void appendJsonString (String a_value) throws IOException
+	{
+		if (a_value == null)
+		{
+			m_writer.write("null");
+			return;
+		}
+		m_writer.write('"');
+		for (int i = 0; i < a_value.length(); i++)
+		{
+			char c = a_value.charAt(i);
+			switch (c)
+			{
+				case '"': m_writer.write("\\\""); break;
+				case '\\': m_writer.write("\\\\"); break;
+				case '\n': m_writer.write("\\n"); break;
+				case '\r': m_writer.write("\\r"); break;
+				case '\t': m_writer.write("\\t"); break;
+				default:
+					if (c < 0x20) m_writer.write(String.format("\\u%04x", (int)c));
+					else m_writer.write(c);
+					break;
+			}
+		}
+		m_writer.write('"');
+	}
+	
+	/**
+	 * @return количество проверенных проектов
+	 */
+	public int getCheckedCount ()
+	{
+		return m_checkedCount;
+	}
+	
+	/**
+	 * @return количество проектов, имя которых не совпадает
+	 * с именем их папки
+	 */
+	public int getMismatchedCount ()
+	{
+		return m_mismatchedCount;
+	}
+	
+	/**
+	 * @return количество проектов, занесённых в исключения
+	 */
+	public int getIgnoredCount ()
+	{
+		return m_ignoredCount;
+	}
+	
+	/**
+	 * @return количество проектов с неизвестным
+	 * расположением
+	 */
+	public int getUnknownCount ()
+	{
+		return m_unknownCount;
+	}
+}
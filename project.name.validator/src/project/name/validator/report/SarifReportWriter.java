@@ -0,0 +1,76 @@
+package project.name.validator.report;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+
+import project.name.validator.ProjectNameChecker;
+import project.name.validator.marker.ProblemNameMarkerManager;
+
+/**
+ * Запись отчёта о проверке имён проектов в формате
+ * SARIF 2.1.0. В отчёт попадают только проекты, имя
+ * которых не совпадает с именем их папки.
+ */
+public class SarifReportWriter extends ReportWriter
+{
+	public static final String RULE_ID = "project-name-matches-folder";
+	
+	private static final String SARIF_SCHEMA = "https://json.schemastore.org/sarif-2.1.0.json";
+	
+	private static final String TOOL_NAME = "project.name.validator";
+	
+	private boolean m_firstResult = true;
+	
+	/**
+	 * Конструктор класса SarifReportWriter.
+	 * @param a_writer
+	 * 		  Поток, в который записывается отчёт. NotNull
+	 */
+	public SarifReportWriter (Writer a_writer)
+	{
+		super(a_writer);
+	}
+	
+	@Override
+	public void begin (String a_workspaceLocation) throws IOException
+	{
+		append("{\n  \"$schema\": \"" + SARIF_SCHEMA + "\",\n  \"version\": \"2.1.0\",\n  \"runs\": [{\n");
+		append("    \"tool\": {\"driver\": {\"name\": \"" + TOOL_NAME + "\", \"rules\": [{\"id\": \"" + RULE_ID +
+			   "\", \"shortDescription\": {\"text\": ");
+		appendJsonString(ProblemNameMarkerManager.MARKER_ATTRIBUTE_VALUE_MESSAGE);
+		append("}}]}},\n    \"originalUriBaseIds\": {\"WORKSPACE\": {\"uri\": ");
+		appendJsonString(toUri(a_workspaceLocation));
+		append("}},\n    \"results\": [");
+	}
+	
+	@Override
+	protected void writeResult (String a_projectName, String a_folderName, String a_location,
+								ProjectNameChecker.Result a_result) throws IOException
+	{
+		if (a_result != ProjectNameChecker.Result.MISMATCH) return;
+		append(m_firstResult ? "\n      {" : ",\n      {");
+		m_firstResult = false;
+		append("\"ruleId\": \"" + RULE_ID + "\", \"level\": \"error\", \"message\": {\"text\": ");
+		appendJsonString("Project '" + a_projectName + "' is located in folder '" + a_folderName + "'");
+		append("}, \"locations\": [{\"physicalLocation\": {\"artifactLocation\": {\"uri\": ");
+		appendJsonString(toUri(a_location));
+		append("}}}]}");
+	}
+	
+	@Override
+	public void end () throws IOException
+	{
+		append("\n    ]\n  }]\n}\n");
+	}
+	
+	/**
+	 * @param a_location
+	 * 		  Путь в файловой системе. Может быть null
+	 * @return URI пути a_location или null
+	 */
+	private static String toUri (String a_location)
+	{
+		return (a_location != null) ? new File(a_location).toURI().toString() : null;
+	}
+}
@@ -0,0 +1,40 @@
+package project.name.validator.resolution;
+
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.ui.IMarkerResolution;
+import org.eclipse.ui.IMarkerResolutionGenerator2;
+
+import project.name.validator.marker.ProblemNameMarkerManager;
+
+/**
+ * Генератор исправлений маркера проблемного имени
+ * проекта.
+ */
+public class ProblemNameResolutionGenerator implements IMarkerResolutionGenerator2
+{
+	@Override
+	public boolean hasResolutions (IMarker a_marker)
+	{
+		return isProblemNameMarker(a_marker);
+	}
+	
+	@Override
+	public IMarkerResolution[] getResolutions (IMarker a_marker)
+	{
+		if (!isProblemNameMarker(a_marker)) return new IMarkerResolution[0];
+		return new IMarkerResolution[] {new RenameToFolderResolution(), new RenameFolderToProjectResolution()};
+	}
+	
+	/**
+	 * @param a_marker
+	 * 		  Маркер
+	 * @return true, если a_marker - маркер проблемного
+	 * имени, поставленный на проект, false - иначе
+	 */
+	static boolean isProblemNameMarker (IMarker a_marker)
+	{
+		return a_marker.exists() && a_marker.getResource().getType() == IResource.PROJECT &&
+			   a_marker.getAttribute(ProblemNameMarkerManager.MARKER_ATTRIBUTE_PROBLEM_NAME, null) != null;
+	}
+}
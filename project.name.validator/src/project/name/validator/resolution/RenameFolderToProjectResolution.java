@@ -0,0 +1,86 @@
+package project.name.validator.resolution;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.ui.views.markers.WorkbenchMarkerResolution;
+
+import project.name.validator.job.RenameProjectFolderJob;
+
+/**
+ * Исправление маркера проблемного имени: папка проекта
+ * в файловой системе переименовывается так, чтобы её
+ * имя совпало с именем проекта (см.
+ * RenameProjectFolderJob). Имя проекта при этом не
+ * изменяется. Папки всех выбранных проектов
+ * переименовываются одним фоновым заданием.
+ */
+public class RenameFolderToProjectResolution extends WorkbenchMarkerResolution
+{
+	private static final String LABEL = "Переименовать папку проекта по имени проекта";
+	
+	private static final String DESCRIPTION = "Папка проекта в файловой системе будет переименована на месте " +
+											  "так, чтобы её имя совпало с именем проекта. Имя проекта не " +
+											  "изменяется.";
+	
+	@Override
+	public String getLabel ()
+	{
+		return LABEL;
+	}
+	
+	@Override
+	public String getDescription ()
+	{
+		return DESCRIPTION;
+	}
+	
+	@Override
+	public Image getImage ()
+	{
+		return null;
+	}
+	
+	@Override
+	public IMarker[] findOtherMarkers (IMarker[] a_markers)
+	{
+		List<IMarker> markers = new ArrayList<>();
+		for (IMarker marker : a_markers)
+		{
+			if (ProblemNameResolutionGenerator.isProblemNameMarker(marker)) markers.add(marker);
+		}
+		return markers.toArray(new IMarker[0]);
+	}
+	
+	@Override
+	public void run (IMarker a_marker)
+	{
+		run(new IMarker[] {a_marker}, null);
+	}
+	
+	@Override
+	public void run (IMarker[] a_markers, IProgressMonitor a_monitor)
+	{
+		Set<IProject> projects = new LinkedHashSet<>();
+		for (IMarker marker : a_markers)
+		{
+			if (ProblemNameResolutionGenerator.isProblemNameMarker(marker))
+			{
+				projects.add((IProject)marker.getResource());
+			}
+		}
+		/*
+		 * Копирование содержимого при переносе между
+		 * файловыми системами может быть долгим, поэтому
+		 * папки переименовываются в фоне с отображением
+		 * прогресса:
+		 */
+		if (!projects.isEmpty()) new RenameProjectFolderJob(projects).schedule();
+	}
+}
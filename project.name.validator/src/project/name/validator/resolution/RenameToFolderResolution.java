@@ -0,0 +1,214 @@
+package project.name.validator.resolution;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IProjectDescription;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceRuleFactory;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.core.runtime.URIUtil;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
+import org.eclipse.core.runtime.jobs.MultiRule;
+import org.eclipse.osgi.util.NLS;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.ui.views.markers.WorkbenchMarkerResolution;
+
+import project.name.validator.Messages;
+import project.name.validator.ProjectNameChecker;
+import project.name.validator.log.ErrorStatusHandler;
+
+/**
+ * Исправление маркера проблемного имени: проект
+ * переименовывается так, чтобы его имя совпало с именем
+ * его папки. Папка проекта при этом не изменяется.
+ * Все выбранные проекты переименовываются одной
+ * операцией рабочей области, поэтому слушатели получают
+ * одно уведомление об изменении ресурсов, а
+ * автоматическая сборка запускается не более одного раза.
+ */
+public class RenameToFolderResolution extends WorkbenchMarkerResolution
+{
+	private static final String LABEL = "Переименовать проект по имени его папки";
+	
+	private static final String DESCRIPTION = "Имя проекта будет изменено на имя папки проекта в файловой " +
+											  "системе. Папка проекта не переименовывается и не перемещается.";
+	
+	@Override
+	public String getLabel ()
+	{
+		return LABEL;
+	}
+	
+	@Override
+	public String getDescription ()
+	{
+		return DESCRIPTION;
+	}
+	
+	@Override
+	public Image getImage ()
+	{
+		return null;
+	}
+	
+	@Override
+	public IMarker[] findOtherMarkers (IMarker[] a_markers)
+	{
+		List<IMarker> markers = new ArrayList<>();
+		for (IMarker marker : a_markers)
+		{
+			if (ProblemNameResolutionGenerator.isProblemNameMarker(marker)) markers.add(marker);
+		}
+		return markers.toArray(new IMarker[0]);
+	}
+	
+	@Override
+	public void run (IMarker a_marker)
+	{
+		run(new IMarker[] {a_marker}, null);
+	}
+	
+	@Override
+	public void run (IMarker[] a_markers, IProgressMonitor a_monitor)
+	{
+		Set<IProject> projects = new LinkedHashSet<>();
+		for (IMarker marker : a_markers)
+		{
+			if (ProblemNameResolutionGenerator.isProblemNameMarker(marker))
+			{
+				projects.add((IProject)marker.getResource());
+			}
+		}
+		if (projects.isEmpty()) return;
+		
+		IWorkspace workspace = ResourcesPlugin.getWorkspace();
+		ErrorStatusHandler.beginPass();
+		try
+		{
+			/*
+			 * С флагом AVOID_UPDATE рабочая область не рассылает
+			 * промежуточные уведомления об изменении ресурсов и
+			 * не запускает автоматическую сборку, пока длится
+			 * операция, - только одно уведомление в конце:
+			 */
+			workspace.run(createRunnable(projects), createRule(workspace, projects), IWorkspace.AVOID_UPDATE,
+						  a_monitor);
+		}
+		catch (CoreException e)
+		{
+			ErrorStatusHandler.log(e, e.getMessage());
+		}
+		finally
+		{
+			ErrorStatusHandler.endPass();
+		}
+	}
+	
+	/**
+	 * Создаёт операцию, переименовывающую проекты
+	 * a_projects. Ошибка переименования отдельного проекта
+	 * не прерывает переименование остальных.
+	 * @param a_projects
+	 * 		  Проекты для переименования
+	 * @return операция рабочей области
+	 */
+	private static IWorkspaceRunnable createRunnable (Set<IProject> a_projects)
+	{
+		return new IWorkspaceRunnable()
+		{
+			@Override
+			public void run (IProgressMonitor a_monitor)
+			{
+				SubMonitor subMonitor = SubMonitor.convert(a_monitor, Messages.Task_Rename_Projects,
+														   a_projects.size());
+				for (IProject project : a_projects)
+				{
+					if (subMonitor.isCanceled()) return;
+					try
+					{
+						renameToFolder(project, subMonitor.split(1));
+					}
+					catch (CoreException e)
+					{
+						ErrorStatusHandler.log(e, NLS.bind(Messages.Exception_Project_Rename, project.getName()));
+					}
+				}
+			}
+		};
+	}
+	
+	/**
+	 * Переименовывает проект a_project по имени его папки,
+	 * если имена не совпадают, проект открыт и в рабочей
+	 * области нет другого проекта с таким именем.
+	 * @param a_project
+	 * 		  Проект. NotNull
+	 * @param a_monitor
+	 * 		  Монитор прогресса
+	 * @throws CoreException
+	 */
+	private static void renameToFolder (IProject a_project, IProgressMonitor a_monitor) throws CoreException
+	{
+		if (!a_project.isOpen()) return;
+		String folderName = ProjectNameChecker.getFolderName(a_project);
+		if (folderName == null || folderName.equals(a_project.getName())) return;
+		IWorkspaceRoot root = a_project.getWorkspace().getRoot();
+		if (root.getProject(folderName).exists())
+		{
+			ErrorStatusHandler.log(null, NLS.bind(Messages.Exception_Project_Exists, a_project.getName(),
+												  folderName));
+			return;
+		}
+		IProjectDescription description = a_project.getDescription();
+		description.setName(folderName);
+		/*
+		 * Если папка проекта находится в каталоге рабочей
+		 * области, после переименования она становится
+		 * расположением проекта по умолчанию, и явное
+		 * расположение нужно убрать:
+		 */
+		URI location = a_project.getLocationURI();
+		IPath rootLocation = root.getLocation();
+		if (location != null && rootLocation != null &&
+			URIUtil.sameURI(location, rootLocation.append(folderName).toFile().toURI()))
+		{
+			description.setLocationURI(null);
+		}
+		a_project.move(description, IResource.SHALLOW, a_monitor);
+	}
+	
+	/**
+	 * @param a_workspace
+	 * 		  Рабочая область
+	 * @param a_projects
+	 * 		  Проекты для переименования
+	 * @return правило планирования, необходимое для
+	 * переименования всех проектов из a_projects
+	 */
+	private static ISchedulingRule createRule (IWorkspace a_workspace, Set<IProject> a_projects)
+	{
+		IResourceRuleFactory ruleFactory = a_workspace.getRuleFactory();
+		IWorkspaceRoot root = a_workspace.getRoot();
+		ISchedulingRule rule = null;
+		for (IProject project : a_projects)
+		{
+			String folderName = ProjectNameChecker.getFolderName(project);
+			if (folderName == null) continue;
+			rule = MultiRule.combine(rule, ruleFactory.moveRule(project, root.getProject(folderName)));
+		}
+		return rule;
+	}
+}
@@ -0,0 +1,41 @@
+package project.name.validator.rule;
+
+import java.util.Objects;
+
+/**
+ * Правило, проверка которого выполняется условием
+ * INamingCondition, реализованным другим плагином.
+ */
+public class ConditionRule extends NamingRule
+{
+	private INamingCondition m_condition;
+	
+	/**
+	 * Конструктор класса ConditionRule.
+	 * @param a_id
+	 * 		  Идентификатор правила. NotNull
+	 * @param a_message
+	 * 		  Текст маркера нарушения правила. NotNull
+	 * @param a_severity
+	 * 		  Важность маркера (IMarker.SEVERITY_*)
+	 * @param a_condition
+	 * 		  Условие правила. NotNull
+	 */
+	public ConditionRule (String a_id, String a_message, int a_severity, INamingCondition a_condition)
+	{
+		super(a_id, a_message, a_severity);
+		m_condition = Objects.requireNonNull(a_condition);
+	}
+	
+	@Override
+	public boolean accepts (String a_projectName)
+	{
+		return m_condition.accepts(a_projectName);
+	}
+	
+	@Override
+	protected String getDefinition ()
+	{
+		return "class " + m_condition.getClass().getName();
+	}
+}
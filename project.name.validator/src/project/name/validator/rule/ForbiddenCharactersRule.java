@@ -0,0 +1,76 @@
+package project.name.validator.rule;
+
+import java.util.Arrays;
+
+/**
+ * Правило, запрещающее использовать в имени проекта
+ * заданные символы.
+ * Для символов ASCII при создании правила заполняется
+ * таблица, поэтому проверка такого символа выполняется
+ * за одно обращение к массиву; остальные символы ищутся
+ * двоичным поиском в упорядоченном массиве.
+ */
+public class ForbiddenCharactersRule extends NamingRule
+{
+	private static final int ASCII_SIZE = 128;
+	
+	private boolean[] m_asciiForbidden = new boolean[ASCII_SIZE];
+	
+	/**
+	 * Запрещённые символы за пределами ASCII в порядке
+	 * возрастания.
+	 */
+	private char[] m_otherForbidden;
+	
+	private String m_characters;
+	
+	/**
+	 * Конструктор класса ForbiddenCharactersRule.
+	 * @param a_id
+	 * 		  Идентификатор правила. NotNull
+	 * @param a_message
+	 * 		  Текст маркера нарушения правила. NotNull
+	 * @param a_severity
+	 * 		  Важность маркера (IMarker.SEVERITY_*)
+	 * @param a_characters
+	 * 		  Запрещённые символы. NotNull
+	 */
+	public ForbiddenCharactersRule (String a_id, String a_message, int a_severity, String a_characters)
+	{
+		super(a_id, a_message, a_severity);
+		m_characters = a_characters;
+		StringBuilder other = new StringBuilder();
+		for (int i = 0; i < a_characters.length(); i++)
+		{
+			char character = a_characters.charAt(i);
+			if (character < ASCII_SIZE) m_asciiForbidden[character] = true;
+			else other.append(character);
+		}
+		m_otherForbidden = other.toString().toCharArray();
+		Arrays.sort(m_otherForbidden);
+	}
+	
+	@Override
+	public boolean accepts (String a_projectName)
+	{
+		for (int i = 0; i < a_projectName.length(); i++)
+		{
+			char character = a_projectName.charAt(i);
+			if (character < ASCII_SIZE)
+			{
+				if (m_asciiForbidden[character]) return false;
+			}
+			else if (m_otherForbidden.length > 0 && Arrays.binarySearch(m_otherForbidden, character) >= 0)
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	@Override
+	protected String getDefinition ()
+	{
+		return "forbiddenCharacters " + m_characters;
+	}
+}
@@ -0,0 +1,19 @@
+package project.name.validator.rule;
+
+/**
+ * Условие собственного правила именования, задаваемого
+ * элементом rule точки расширения namingRules.
+ * Реализация должна иметь конструктор без параметров и
+ * не должна обращаться к рабочей области: условие
+ * вызывается для каждого проверяемого проекта.
+ */
+public interface INamingCondition
+{
+	/**
+	 * @param a_projectName
+	 * 		  Имя проекта. NotNull
+	 * @return true, если имя a_projectName удовлетворяет
+	 * условию, false - иначе
+	 */
+	boolean accepts (String a_projectName);
+}
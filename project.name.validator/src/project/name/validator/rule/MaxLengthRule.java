@@ -0,0 +1,39 @@
+package project.name.validator.rule;
+
+/**
+ * Правило, ограничивающее длину имени проекта.
+ */
+public class MaxLengthRule extends NamingRule
+{
+	private int m_maxLength;
+	
+	/**
+	 * Конструктор класса MaxLengthRule.
+	 * @param a_id
+	 * 		  Идентификатор правила. NotNull
+	 * @param a_message
+	 * 		  Текст маркера нарушения правила. NotNull
+	 * @param a_severity
+	 * 		  Важность маркера (IMarker.SEVERITY_*)
+	 * @param a_maxLength
+	 * 		  Максимальная длина имени в символах
+	 */
+	public MaxLengthRule (String a_id, String a_message, int a_severity, int a_maxLength)
+	{
+		super(a_id, a_message, a_severity);
+		if (a_maxLength < 0) throw new IllegalArgumentException("maxLength < 0");
+		m_maxLength = a_maxLength;
+	}
+	
+	@Override
+	public boolean accepts (String a_projectName)
+	{
+		return a_projectName.length() <= m_maxLength;
+	}
+	
+	@Override
+	protected String getDefinition ()
+	{
+		return "maxLength " + m_maxLength;
+	}
+}
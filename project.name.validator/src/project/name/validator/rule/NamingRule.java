@@ -0,0 +1,97 @@
+package project.name.validator.rule;
+
+import java.util.Objects;
+
+import org.eclipse.core.resources.IMarker;
+
+/**
+ * Правило именования проектов, подключаемое через точку
+ * расширения namingRules.
+ * Все данные, необходимые для проверки, подготавливаются
+ * в конструкторе, поэтому проверка имени не выполняет
+ * разбора и компиляции и не обращается к рабочей области.
+ */
+public abstract class NamingRule
+{
+	private String m_id;
+	
+	private String m_message;
+	
+	private int m_severity;
+	
+	/**
+	 * Конструктор класса NamingRule.
+	 * @param a_id
+	 * 		  Идентификатор правила. NotNull
+	 * @param a_message
+	 * 		  Текст маркера, который ставится на проект,
+	 * 		  нарушающий правило. NotNull
+	 * @param a_severity
+	 * 		  Важность маркера (IMarker.SEVERITY_*)
+	 */
+	protected NamingRule (String a_id, String a_message, int a_severity)
+	{
+		m_id = Objects.requireNonNull(a_id);
+		m_message = Objects.requireNonNull(a_message);
+		m_severity = a_severity;
+	}
+	
+	/**
+	 * @param a_projectName
+	 * 		  Имя проекта. NotNull
+	 * @return true, если имя a_projectName удовлетворяет
+	 * правилу, false - иначе
+	 */
+	public abstract boolean accepts (String a_projectName);
+	
+	/**
+	 * @return строка, однозначно описывающая параметры
+	 * правила. Используется для определения того, что
+	 * набор правил изменился
+	 */
+	protected abstract String getDefinition ();
+	
+	/**
+	 * @return идентификатор правила
+	 */
+	public String getId ()
+	{
+		return m_id;
+	}
+	
+	/**
+	 * @return текст маркера нарушения правила
+	 */
+	public String getMessage ()
+	{
+		return m_message;
+	}
+	
+	/**
+	 * @return важность маркера нарушения правила
+	 * (IMarker.SEVERITY_*)
+	 */
+	public int getSeverity ()
+	{
+		return m_severity;
+	}
+	
+	@Override
+	public String toString ()
+	{
+		return m_id + '[' + getDefinition() + ", " + m_severity + ", " + m_message + ']';
+	}
+	
+	/**
+	 * @param a_severity
+	 * 		  Важность в виде строки (error, warning или info)
+	 * @return важность маркера (IMarker.SEVERITY_*). Для
+	 * неизвестной строки - IMarker.SEVERITY_WARNING
+	 */
+	public static int parseSeverity (String a_severity)
+	{
+		if ("error".equals(a_severity)) return IMarker.SEVERITY_ERROR;
+		if ("info".equals(a_severity)) return IMarker.SEVERITY_INFO;
+		return IMarker.SEVERITY_WARNING;
+	}
+}
@@ -0,0 +1,44 @@
+package project.name.validator.rule;
+
+import java.util.regex.Pattern;
+
+/**
+ * Правило, требующее, чтобы имя проекта целиком
+ * соответствовало регулярному выражению. Выражение
+ * компилируется один раз, при создании правила.
+ */
+public class PatternRule extends NamingRule
+{
+	private Pattern m_pattern;
+	
+	/**
+	 * Конструктор класса PatternRule.
+	 * @param a_id
+	 * 		  Идентификатор правила. NotNull
+	 * @param a_message
+	 * 		  Текст маркера нарушения правила. NotNull
+	 * @param a_severity
+	 * 		  Важность маркера (IMarker.SEVERITY_*)
+	 * @param a_regex
+	 * 		  Регулярное выражение. NotNull
+	 * @throws java.util.regex.PatternSyntaxException
+	 * 		   если выражение записано неверно
+	 */
+	public PatternRule (String a_id, String a_message, int a_severity, String a_regex)
+	{
+		super(a_id, a_message, a_severity);
+		m_pattern = Pattern.compile(a_regex);
+	}
+	
+	@Override
+	public boolean accepts (String a_projectName)
+	{
+		return m_pattern.matcher(a_projectName).matches();
+	}
+	
+	@Override
+	protected String getDefinition ()
+	{
+		return "pattern " + m_pattern.pattern();
+	}
+}
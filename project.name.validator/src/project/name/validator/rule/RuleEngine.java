@@ -0,0 +1,261 @@
+package project.name.validator.rule;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IConfigurationElement;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.preferences.IEclipsePreferences;
+import org.eclipse.core.runtime.preferences.InstanceScope;
+import org.eclipse.osgi.util.NLS;
+
+import project.name.validator.Activator;
+import project.name.validator.Messages;
+import project.name.validator.job.RevalidateProjectsJob;
+import project.name.validator.log.ErrorStatusHandler;
+
+/**
+ * Набор правил именования проектов, собранный из
+ * расширений точки namingRules, и способ сравнения
+ * имени проекта с именем его папки.
+ * Правила создаются (и их выражения компилируются) один
+ * раз, при сборке набора, после чего имя каждого
+ * проекта проверяется всеми правилами за один проход
+ * в памяти. При изменении настройки сравнения имён
+ * набор перестраивается, а все проекты рабочей области
+ * проверяются заново.
+ */
+public class RuleEngine
+{
+	/**
+	 * Идентификатор точки расширения правил (без
+	 * идентификатора плагина).
+	 */
+	public static final String EXTENSION_POINT_ID = "namingRules";
+	
+	/**
+	 * Настройка плагина: сравнивать имя проекта с
+	 * именем его папки без учёта регистра (для папок,
+	 * расположенных на томах Windows).
+	 */
+	public static final String PREFERENCE_CASE_INSENSITIVE = "caseInsensitiveFolderMatch";
+	
+	private static final String ELEMENT_PATTERN = "pattern";
+	
+	private static final String ELEMENT_MAX_LENGTH = "maxLength";
+	
+	private static final String ELEMENT_FORBIDDEN_CHARACTERS = "forbiddenCharacters";
+	
+	private static final String ELEMENT_RULE = "rule";
+	
+	private static final String ATTRIBUTE_ID = "id";
+	
+	private static final String ATTRIBUTE_MESSAGE = "message";
+	
+	private static final String ATTRIBUTE_SEVERITY = "severity";
+	
+	private static final String ATTRIBUTE_VALUE = "value";
+	
+	private static final String ATTRIBUTE_CLASS = "class";
+	
+	private static RuleEngine s_instance;
+	
+	private static boolean s_listening;
+	
+	private NamingRule[] m_rules;
+	
+	private boolean m_caseInsensitive;
+	
+	private String m_configurationKey;
+	
+	/**
+	 * Конструктор класса RuleEngine.
+	 * @param a_rules
+	 * 		  Правила именования. NotNull
+	 * @param a_caseInsensitive
+	 * 		  true, если имя проекта сравнивается с именем
+	 * 		  его папки без учёта регистра
+	 */
+	public RuleEngine (List<NamingRule> a_rules, boolean a_caseInsensitive)
+	{
+		m_rules = a_rules.toArray(new NamingRule[0]);
+		m_caseInsensitive = a_caseInsensitive;
+		StringBuilder key = new StringBuilder(a_caseInsensitive ? "caseInsensitive" : "caseSensitive");
+		for (NamingRule rule : m_rules)
+		{
+			key.append('\n').append(rule);
+		}
+		m_configurationKey = key.toString();
+	}
+	
+	/**
+	 * @return набор правил рабочей среды. При первом вызове
+	 * (и после изменения настроек плагина) набор собирается
+	 * из расширений точки namingRules
+	 */
+	public static synchronized RuleEngine getInstance ()
+	{
+		if (s_instance == null)
+		{
+			IEclipsePreferences preferences = InstanceScope.INSTANCE.getNode(Activator.PLUGIN_ID);
+			if (!s_listening)
+			{
+				preferences.addPreferenceChangeListener(new IEclipsePreferences.IPreferenceChangeListener()
+				{
+					@Override
+					public void preferenceChange (IEclipsePreferences.PreferenceChangeEvent a_event)
+					{
+						if (PREFERENCE_CASE_INSENSITIVE.equals(a_event.getKey())) caseSensitivityChanged();
+					}
+				});
+				s_listening = true;
+			}
+			boolean caseInsensitive = Platform.getPreferencesService().getBoolean(Activator.PLUGIN_ID,
+																				  PREFERENCE_CASE_INSENSITIVE,
+																				  false, null);
+			s_instance = new RuleEngine(loadRules(), caseInsensitive);
+		}
+		return s_instance;
+	}
+	
+	/**
+	 * Сбрасывает набор правил рабочей среды. Следующий
+	 * вызов getInstance соберёт его заново.
+	 */
+	public static synchronized void reset ()
+	{
+		s_instance = null;
+	}
+	
+	/**
+	 * Сбрасывает набор правил и запускает повторную
+	 * проверку всех проектов рабочей области, чтобы маркеры
+	 * соответствовали новому способу сравнения имён.
+	 */
+	private static void caseSensitivityChanged ()
+	{
+		reset();
+		new RevalidateProjectsJob(Arrays.asList(ResourcesPlugin.getWorkspace().getRoot().getProjects())).schedule();
+	}
+	
+	/**
+	 * Создаёт правила всех расширений точки namingRules.
+	 * Расширение, описанное с ошибкой, пропускается, а
+	 * ошибка записывается в журнал.
+	 * @return правила именования
+	 */
+	private static List<NamingRule> loadRules ()
+	{
+		IConfigurationElement[] elements = Platform.getExtensionRegistry()
+												   .getConfigurationElementsFor(Activator.PLUGIN_ID,
+																				EXTENSION_POINT_ID);
+		List<NamingRule> rules = new ArrayList<>(elements.length);
+		for (IConfigurationElement element : elements)
+		{
+			/*
+			 * PatternSyntaxException и NumberFormatException
+			 * являются подклассами IllegalArgumentException:
+			 */
+			try
+			{
+				rules.add(createRule(element));
+			}
+			catch (CoreException | IllegalArgumentException | ClassCastException e)
+			{
+				ErrorStatusHandler.log(e, NLS.bind(Messages.Exception_Rule_Loading,
+												   element.getAttribute(ATTRIBUTE_ID),
+												   element.getContributor().getName()));
+			}
+		}
+		return rules;
+	}
+	
+	/**
+	 * @param a_element
+	 * 		  Элемент расширения
+	 * @return правило, описанное элементом a_element
+	 * @throws CoreException
+	 * 		   если не удалось создать класс условия
+	 * @throws IllegalArgumentException
+	 * 		   если элемент описан с ошибкой
+	 */
+	private static NamingRule createRule (IConfigurationElement a_element) throws CoreException
+	{
+		String id = a_element.getAttribute(ATTRIBUTE_ID);
+		String message = a_element.getAttribute(ATTRIBUTE_MESSAGE);
+		if (id == null || message == null) throw new IllegalArgumentException(a_element.getName());
+		int severity = NamingRule.parseSeverity(a_element.getAttribute(ATTRIBUTE_SEVERITY));
+		String value = a_element.getAttribute(ATTRIBUTE_VALUE);
+		if (value == null && !ELEMENT_RULE.equals(a_element.getName()))
+		{
+			throw new IllegalArgumentException(a_element.getName());
+		}
+		switch (a_element.getName())
+		{
+			case ELEMENT_PATTERN:
+				return new PatternRule(id, message, severity, value);
+			case ELEMENT_MAX_LENGTH:
+				return new MaxLengthRule(id, message, severity, Integer.parseInt(value));
+			case ELEMENT_FORBIDDEN_CHARACTERS:
+				return new ForbiddenCharactersRule(id, message, severity, value);
+			case ELEMENT_RULE:
+				return new ConditionRule(id, message, severity,
+										 (INamingCondition)a_element.createExecutableExtension(ATTRIBUTE_CLASS));
+			default:
+				throw new IllegalArgumentException(a_element.getName());
+		}
+	}
+	
+	/**
+	 * @return true, если имя проекта сравнивается с именем
+	 * его папки без учёта регистра
+	 */
+	public boolean isCaseInsensitive ()
+	{
+		return m_caseInsensitive;
+	}
+	
+	/**
+	 * @return true, если в наборе есть хотя бы одно
+	 * правило
+	 */
+	public boolean hasRules ()
+	{
+		return m_rules.length > 0;
+	}
+	
+	/**
+	 * Проверяет имя проекта всеми правилами набора за
+	 * один проход.
+	 * @param a_projectName
+	 * 		  Имя проекта. NotNull
+	 * @return нарушенные правила в порядке их объявления.
+	 * Если нарушений нет, возвращается неизменяемый пустой
+	 * список
+	 */
+	public List<NamingRule> evaluate (String a_projectName)
+	{
+		List<NamingRule> violations = null;
+		for (NamingRule rule : m_rules)
+		{
+			if (rule.accepts(a_projectName)) continue;
+			if (violations == null) violations = new ArrayList<>(m_rules.length);
+			violations.add(rule);
+		}
+		return (violations != null) ? violations : Collections.<NamingRule>emptyList();
+	}
+	
+	/**
+	 * @return строка, однозначно описывающая набор правил
+	 * и способ сравнения имён. Если строка изменилась,
+	 * сохранённые результаты проверки устарели
+	 */
+	public String getConfigurationKey ()
+	{
+		return m_configurationKey;
+	}
+}
@@ -0,0 +1,22 @@
+package project.name.validator.service;
+
+/**
+ * Слушатель изменения состояния имён проектов,
+ * добавляемый в службу IProjectNameValidationService.
+ */
+public interface IProjectNameStatusListener
+{
+	/**
+	 * Вызывается при изменении состояния имени проекта.
+	 * Слушатели вызываются по очереди в отдельном потоке
+	 * службы, в порядке изменений, и не задерживают
+	 * проверку проектов.
+	 * @param a_projectName
+	 * 		  Имя проекта
+	 * @param a_oldStatus
+	 * 		  Прежнее состояние
+	 * @param a_newStatus
+	 * 		  Новое состояние
+	 */
+	void statusChanged (String a_projectName, ProjectNameStatus a_oldStatus, ProjectNameStatus a_newStatus);
+}
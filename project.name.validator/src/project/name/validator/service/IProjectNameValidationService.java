@@ -0,0 +1,69 @@
+package project.name.validator.service;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import org.eclipse.core.resources.IProject;
+
+/**
+ * Служба OSGi, предоставляющая другим плагинам состояние
+ * проверки имён проектов на совпадение с именами их
+ * папок. Служба регистрируется при запуске плагина.
+ * Состояние берётся из таблицы состояния проектов в
+ * памяти, которую поддерживают проверки плагина, поэтому
+ * запускать проверку самостоятельно не нужно. Методы
+ * службы не захватывают блокировку рабочей области и
+ * могут вызываться из любого потока.
+ */
+public interface IProjectNameValidationService
+{
+	/**
+	 * Определяет состояние имени проекта. Если проект ещё
+	 * не проверялся, его имя сравнивается с именем папки
+	 * без изменения маркеров. Будущий результат
+	 * завершается в потоке службы; обращение к
+	 * недоступной файловой системе ограничено по времени.
+	 * @param a_project
+	 * 		  Проект. NotNull
+	 * @return будущее состояние имени проекта
+	 */
+	CompletableFuture<ProjectNameStatus> getStatus (IProject a_project);
+	
+	/**
+	 * Определяет состояния имён нескольких проектов так же,
+	 * как getStatus, одной задачей службы.
+	 * @param a_projects
+	 * 		  Проекты. NotNull
+	 * @return будущие состояния имён проектов в порядке
+	 * обхода a_projects
+	 */
+	CompletableFuture<Map<IProject, ProjectNameStatus>> getStatuses (Collection<IProject> a_projects);
+	
+	/**
+	 * Возвращает имена проектов, имена которых, по
+	 * результатам последних проверок, не совпадают с
+	 * именами их папок. Ответ строится только по данным в
+	 * памяти, без обращения к рабочей области.
+	 * @return неизменяемое множество имён проектов,
+	 * упорядоченных по имени
+	 */
+	Set<String> getMismatchedProjects ();
+	
+	/**
+	 * Добавляет слушатель изменения состояния имён
+	 * проектов.
+	 * @param a_listener
+	 * 		  Слушатель. NotNull
+	 */
+	void addListener (IProjectNameStatusListener a_listener);
+	
+	/**
+	 * Удаляет слушатель изменения состояния имён
+	 * проектов.
+	 * @param a_listener
+	 * 		  Слушатель
+	 */
+	void removeListener (IProjectNameStatusListener a_listener);
+}
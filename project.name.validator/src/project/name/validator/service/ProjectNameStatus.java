@@ -0,0 +1,35 @@
+package project.name.validator.service;
+
+/**
+ * Состояние имени проекта, известное службе проверки
+ * имён проектов.
+ */
+public enum ProjectNameStatus
+{
+	/**
+	 * Имя проекта совпадает с именем его папки.
+	 */
+	MATCH,
+	
+	/**
+	 * Имя проекта не совпадает с именем его папки.
+	 */
+	MISMATCH,
+	
+	/**
+	 * Проект занесён пользователем в исключения.
+	 */
+	IGNORED,
+	
+	/**
+	 * Расположение проекта неизвестно или файловая
+	 * система, в которой он находится, не ответила
+	 * вовремя.
+	 */
+	UNKNOWN,
+	
+	/**
+	 * Проект закрыт, не существует или ещё не проверялся.
+	 */
+	NOT_VALIDATED
+}
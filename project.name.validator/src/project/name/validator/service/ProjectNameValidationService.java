@@ -0,0 +1,269 @@
+package project.name.validator.service;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.eclipse.core.resources.IProject;
+
+import project.name.validator.Messages;
+import project.name.validator.ProjectNameChecker;
+import project.name.validator.log.ErrorStatusHandler;
+import project.name.validator.property.ExceptionPatterns;
+import project.name.validator.rule.RuleEngine;
+import project.name.validator.state.IProjectStateListener;
+import project.name.validator.state.ProjectStateTable;
+
+/**
+ * Реализация службы IProjectNameValidationService по
+ * общей таблице состояния проектов рабочей области.
+ * Запросы выполняются в небольшом пуле потоков службы,
+ * слушатели вызываются по очереди в отдельном потоке.
+ * Таблица состояния проектов запрашивается при первом
+ * обращении к службе, поэтому регистрация службы при
+ * запуске плагина не обращается к рабочей области.
+ */
+public class ProjectNameValidationService implements IProjectNameValidationService
+{
+	/**
+	 * Количество потоков, выполняющих запросы.
+	 */
+	private static final int QUERY_THREAD_COUNT = 4;
+	
+	/**
+	 * Время (в секундах), после которого простаивающий
+	 * поток службы завершается.
+	 */
+	private static final long THREAD_KEEP_ALIVE = 60;
+	
+	private ThreadPoolExecutor m_queryExecutor = createExecutor(QUERY_THREAD_COUNT, "Project name query");
+	
+	private ThreadPoolExecutor m_eventExecutor = createExecutor(1, "Project name events");
+	
+	private List<IProjectNameStatusListener> m_listeners = new CopyOnWriteArrayList<>();
+	
+	/**
+	 * Таблица состояния проектов или null, если к службе
+	 * ещё не обращались.
+	 */
+	private ProjectStateTable m_table;
+	
+	/**
+	 * Слушатель таблицы состояния проектов, переводящий
+	 * изменения флагов в изменения состояния имени.
+	 */
+	private IProjectStateListener m_tableListener = new IProjectStateListener()
+	{
+		@Override
+		public void projectStateChanged (String a_name, int a_oldFlags, int a_newFlags)
+		{
+			if (m_listeners.isEmpty()) return;
+			ProjectNameStatus oldStatus = toStatus(a_oldFlags);
+			ProjectNameStatus newStatus = toStatus(a_newFlags);
+			if (oldStatus != newStatus) fireStatusChanged(a_name, oldStatus, newStatus);
+		}
+	};
+	
+	@Override
+	public CompletableFuture<ProjectNameStatus> getStatus (IProject a_project)
+	{
+		Objects.requireNonNull(a_project);
+		return CompletableFuture.supplyAsync(new Supplier<ProjectNameStatus>()
+		{
+			@Override
+			public ProjectNameStatus get ()
+			{
+				return computeStatus(a_project);
+			}
+		}, m_queryExecutor);
+	}
+	
+	@Override
+	public CompletableFuture<Map<IProject, ProjectNameStatus>> getStatuses (Collection<IProject> a_projects)
+	{
+		Objects.requireNonNull(a_projects);
+		return CompletableFuture.supplyAsync(new Supplier<Map<IProject, ProjectNameStatus>>()
+		{
+			@Override
+			public Map<IProject, ProjectNameStatus> get ()
+			{
+				Map<IProject, ProjectNameStatus> statuses = new LinkedHashMap<>();
+				for (IProject project : a_projects)
+				{
+					statuses.put(project, computeStatus(project));
+				}
+				return statuses;
+			}
+		}, m_queryExecutor);
+	}
+	
+	@Override
+	public Set<String> getMismatchedProjects ()
+	{
+		ProjectStateTable.Rows rows = getTable().copyRows();
+		Set<String> names = new TreeSet<>();
+		for (int i = 0; i < rows.size(); i++)
+		{
+			if (toStatus(rows.getFlags(i)) == ProjectNameStatus.MISMATCH) names.add(rows.getName(i));
+		}
+		return Collections.unmodifiableSet(names);
+	}
+	
+	@Override
+	public void addListener (IProjectNameStatusListener a_listener)
+	{
+		m_listeners.add(Objects.requireNonNull(a_listener));
+		getTable();
+	}
+	
+	@Override
+	public void removeListener (IProjectNameStatusListener a_listener)
+	{
+		m_listeners.remove(a_listener);
+	}
+	
+	/**
+	 * Прекращает работу службы: отписывается от таблицы
+	 * состояния проектов и завершает потоки службы.
+	 * Незавершённые запросы отменяются.
+	 */
+	public synchronized void dispose ()
+	{
+		if (m_table != null) m_table.removeListener(m_tableListener);
+		m_listeners.clear();
+		m_queryExecutor.shutdownNow();
+		m_eventExecutor.shutdownNow();
+	}
+	
+	/**
+	 * @param a_project
+	 * 		  Проект. NotNull
+	 * @return состояние имени проекта a_project из таблицы
+	 * состояния проектов или, если проект ещё не
+	 * проверялся, результат сравнения его имени с именем
+	 * папки
+	 */
+	private ProjectNameStatus computeStatus (IProject a_project)
+	{
+		if (!a_project.isOpen()) return ProjectNameStatus.NOT_VALIDATED;
+		ProjectNameStatus status = toStatus(getTable().getFlags(a_project));
+		if (status != ProjectNameStatus.NOT_VALIDATED) return status;
+		boolean patternIgnored = ExceptionPatterns.getInstance().matches(a_project.getName());
+		ProjectNameChecker.Result result = ProjectNameChecker.check(a_project, patternIgnored,
+																	RuleEngine.getInstance().isCaseInsensitive());
+		switch (result)
+		{
+			case MATCH:
+				return ProjectNameStatus.MATCH;
+			case MISMATCH:
+				return ProjectNameStatus.MISMATCH;
+			case IGNORED:
+				return ProjectNameStatus.IGNORED;
+			default:
+				return ProjectNameStatus.UNKNOWN;
+		}
+	}
+	
+	/**
+	 * @param a_flags
+	 * 		  Флаги строки таблицы состояния проектов или
+	 * 		  ProjectStateTable.NO_ROW
+	 * @return состояние имени проекта с флагами a_flags.
+	 * Флаг несовпадения устанавливается только проверкой,
+	 * поэтому строки, восстановленные из снимка прежней
+	 * версии без флага FLAG_CHECKED, тоже учитываются
+	 */
+	private static ProjectNameStatus toStatus (int a_flags)
+	{
+		if (a_flags == ProjectStateTable.NO_ROW) return ProjectNameStatus.NOT_VALIDATED;
+		if ((a_flags & (ProjectStateTable.FLAG_IGNORED | ProjectStateTable.FLAG_PATTERN_IGNORED)) != 0)
+		{
+			return ProjectNameStatus.IGNORED;
+		}
+		if ((a_flags & ProjectStateTable.FLAG_UNKNOWN) != 0) return ProjectNameStatus.UNKNOWN;
+		if ((a_flags & ProjectStateTable.FLAG_MISMATCH) != 0) return ProjectNameStatus.MISMATCH;
+		if ((a_flags & ProjectStateTable.FLAG_CHECKED) != 0) return ProjectNameStatus.MATCH;
+		return ProjectNameStatus.NOT_VALIDATED;
+	}
+	
+	/**
+	 * Передаёт изменение состояния имени проекта
+	 * слушателям в потоке событий службы. Ошибка
+	 * слушателя не мешает вызову остальных.
+	 */
+	private void fireStatusChanged (String a_name, ProjectNameStatus a_oldStatus, ProjectNameStatus a_newStatus)
+	{
+		if (m_eventExecutor.isShutdown()) return;
+		m_eventExecutor.execute(new Runnable()
+		{
+			@Override
+			public void run ()
+			{
+				for (IProjectNameStatusListener listener : m_listeners)
+				{
+					try
+					{
+						listener.statusChanged(a_name, a_oldStatus, a_newStatus);
+					}
+					catch (RuntimeException e)
+					{
+						ErrorStatusHandler.log(e, Messages.Exception_Service_Listener);
+					}
+				}
+			}
+		});
+	}
+	
+	/**
+	 * @return общая таблица состояния проектов. При первом
+	 * вызове служба подписывается на её изменения
+	 */
+	private synchronized ProjectStateTable getTable ()
+	{
+		if (m_table == null)
+		{
+			m_table = ProjectStateTable.getInstance();
+			m_table.addListener(m_tableListener);
+		}
+		return m_table;
+	}
+	
+	/**
+	 * @param a_threadCount
+	 * 		  Максимальное количество потоков
+	 * @param a_threadName
+	 * 		  Имя потоков
+	 * @return пул потоков службы. Потоки создаются по мере
+	 * необходимости и завершаются после THREAD_KEEP_ALIVE
+	 * секунд бездействия
+	 */
+	private static ThreadPoolExecutor createExecutor (int a_threadCount, String a_threadName)
+	{
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(a_threadCount, a_threadCount, THREAD_KEEP_ALIVE,
+															 TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+															 new ThreadFactory()
+		{
+			@Override
+			public Thread newThread (Runnable a_runnable)
+			{
+				Thread thread = new Thread(a_runnable, a_threadName);
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+}
@@ -0,0 +1,23 @@
+package project.name.validator.state;
+
+/**
+ * Слушатель изменения строк таблицы состояния проектов.
+ */
+public interface IProjectStateListener
+{
+	/**
+	 * Вызывается после добавления, изменения или удаления
+	 * строки проекта, вне блокировки таблицы, в потоке,
+	 * изменившем таблицу. Метод не должен выполнять
+	 * долгих операций.
+	 * @param a_name
+	 * 		  Имя проекта
+	 * @param a_oldFlags
+	 * 		  Флаги проекта до изменения или
+	 * 		  ProjectStateTable.NO_ROW, если строки не было
+	 * @param a_newFlags
+	 * 		  Флаги проекта после изменения или
+	 * 		  ProjectStateTable.NO_ROW, если строка удалена
+	 */
+	void projectStateChanged (String a_name, int a_oldFlags, int a_newFlags);
+}
@@ -0,0 +1,692 @@
+package project.name.validator.state;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IMarkerDelta;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+
+import project.name.validator.log.ErrorStatusHandler;
+import project.name.validator.marker.ProblemNameMarkerManager;
+import project.name.validator.marker.RuleMarkerManager;
+import project.name.validator.property.ExceptionStore;
+import project.name.validator.property.RenameIgnoringProperty;
+
+/**
+ * Таблица состояния проектов рабочей области,
+ * хранящаяся в памяти.
+ * Для каждого проекта хранятся флаги (значение свойства
+ * RenameIgnoringProperty, признак его существования,
+ * признак несовпадения имени проекта и имени его папки,
+ * признак наличия маркеров нарушения правил именования)
+ * и идентификатор маркера проблемного имени.
+ * Строка таблицы заполняется из хранилища свойств и
+ * маркеров проекта один раз, при первом обращении к
+ * проекту, после чего поддерживается в актуальном
+ * состоянии записями свойства и изменениями маркеров.
+ * Методы класса могут вызываться из нескольких потоков
+ * одновременно.
+ */
+public class ProjectStateTable implements IResourceChangeListener
+{
+	/**
+	 * Проект занесён пользователем в исключения.
+	 */
+	public static final int FLAG_IGNORED = 1;
+	
+	/**
+	 * На проекте существует свойство RenameIgnoringProperty.
+	 */
+	public static final int FLAG_PROPERTY_EXISTS = 1 << 1;
+	
+	/**
+	 * Имя проекта не совпадает с именем его папки.
+	 */
+	public static final int FLAG_MISMATCH = 1 << 2;
+	
+	/**
+	 * Расположение проекта не удалось определить:
+	 * файловая система, в которой находится проект, не
+	 * ответила вовремя.
+	 */
+	public static final int FLAG_UNKNOWN = 1 << 3;
+	
+	/**
+	 * На проекте есть маркеры нарушения правил
+	 * именования.
+	 */
+	public static final int FLAG_RULE_MARKERS = 1 << 4;
+	
+	/**
+	 * Результат сравнения имени проекта и имени его папки
+	 * записан методом setNameCheckResult: флаги
+	 * FLAG_MISMATCH и FLAG_UNKNOWN достоверны.
+	 */
+	public static final int FLAG_CHECKED = 1 << 5;
+	
+	/**
+	 * Имя проекта соответствует шаблону исключений
+	 * рабочей области (ExceptionPatterns).
+	 */
+	public static final int FLAG_PATTERN_IGNORED = 1 << 6;
+	
+	/**
+	 * Значение флагов, передаваемое слушателям вместо
+	 * флагов отсутствующей строки.
+	 */
+	public static final int NO_ROW = -1;
+	
+	/**
+	 * Значение идентификатора маркера, означающее, что
+	 * маркер на проекте отсутствует.
+	 */
+	public static final long NO_MARKER = -1;
+	
+	private static final int INITIAL_CAPACITY = 64;
+	
+	private static ProjectStateTable s_instance;
+	
+	private Map<String, Integer> m_indices = new HashMap<>();
+	
+	private String[] m_names = new String[INITIAL_CAPACITY];
+	
+	private byte[] m_flags = new byte[INITIAL_CAPACITY];
+	
+	private long[] m_markerIds = new long[INITIAL_CAPACITY];
+	
+	private int m_size;
+	
+	/**
+	 * Номер версии таблицы, увеличивающийся при каждом
+	 * добавлении и удалении строки и изменении флагов.
+	 */
+	private int m_version;
+	
+	/**
+	 * Слушатели изменения строк таблицы.
+	 */
+	private List<IProjectStateListener> m_listeners = new CopyOnWriteArrayList<>();
+	
+	/**
+	 * Хранилище исключений, из которого читаются значения
+	 * свойства RenameIgnoringProperty.
+	 */
+	private ExceptionStore m_exceptionStore;
+	
+	/**
+	 * Конструктор класса ProjectStateTable, использующий
+	 * хранилище исключений рабочей области. Созданная
+	 * таблица не подписывается на изменения маркеров
+	 * рабочей области; общая таблица рабочей области
+	 * возвращается методом getInstance.
+	 */
+	public ProjectStateTable ()
+	{
+	}
+	
+	/**
+	 * Конструктор класса ProjectStateTable.
+	 * @param a_exceptionStore
+	 * 		  Хранилище исключений, из которого читаются
+	 * 		  значения свойства RenameIgnoringProperty.
+	 * 		  NotNull
+	 */
+	public ProjectStateTable (ExceptionStore a_exceptionStore)
+	{
+		m_exceptionStore = Objects.requireNonNull(a_exceptionStore);
+	}
+	
+	/**
+	 * @return единственный экземпляр таблицы. При первом
+	 * вызове таблица создаётся и подписывается на изменения
+	 * маркеров рабочей области
+	 */
+	public static synchronized ProjectStateTable getInstance ()
+	{
+		if (s_instance == null)
+		{
+			s_instance = new ProjectStateTable();
+			ResourcesPlugin.getWorkspace().addResourceChangeListener(s_instance, IResourceChangeEvent.POST_CHANGE);
+		}
+		return s_instance;
+	}
+	
+	/**
+	 * @param a_project
+	 * 		  Проект. NotNull
+	 * @return флаги проекта a_project (комбинация констант
+	 * FLAG_*). Для закрытого проекта возвращает 0
+	 */
+	public int getFlags (IProject a_project)
+	{
+		if (!ensureRow(a_project)) return 0;
+		synchronized (this)
+		{
+			int index = findIndex(a_project.getName());
+			return (index < 0) ? 0 : m_flags[index];
+		}
+	}
+	
+	/**
+	 * @param a_project
+	 * 		  Проект. NotNull
+	 * @return true, если проект занесён в исключения,
+	 * false - иначе
+	 */
+	public boolean isIgnored (IProject a_project)
+	{
+		return (getFlags(a_project) & FLAG_IGNORED) != 0;
+	}
+	
+	/**
+	 * @param a_project
+	 * 		  Проект. NotNull
+	 * @return true, если на проекте существует свойство
+	 * RenameIgnoringProperty, false - иначе
+	 */
+	public boolean hasRenameIgnoringProperty (IProject a_project)
+	{
+		return (getFlags(a_project) & FLAG_PROPERTY_EXISTS) != 0;
+	}
+	
+	/**
+	 * Запоминает новое значение свойства
+	 * RenameIgnoringProperty проекта a_project.
+	 * @param a_project
+	 * 		  Проект. NotNull
+	 * @param a_ignoring
+	 * 		  Значение свойства
+	 */
+	public void setIgnored (IProject a_project, boolean a_ignoring)
+	{
+		setFlag(a_project, FLAG_PROPERTY_EXISTS, true);
+		setFlag(a_project, FLAG_IGNORED, a_ignoring);
+	}
+	
+	/**
+	 * Запоминает, соответствует ли имя проекта a_project
+	 * шаблону исключений рабочей области.
+	 * @param a_project
+	 * 		  Проект. NotNull
+	 * @param a_patternIgnored
+	 * 		  true, если имя соответствует шаблону
+	 */
+	public void setPatternIgnored (IProject a_project, boolean a_patternIgnored)
+	{
+		setFlag(a_project, FLAG_PATTERN_IGNORED, a_patternIgnored);
+	}
+	
+	/**
+	 * Запоминает результат сравнения имени проекта
+	 * a_project и имени его папки.
+	 * @param a_project
+	 * 		  Проект. NotNull
+	 * @param a_mismatch
+	 * 		  true, если имена не совпадают
+	 */
+	public void setMismatch (IProject a_project, boolean a_mismatch)
+	{
+		setFlag(a_project, FLAG_MISMATCH, a_mismatch);
+	}
+	
+	/**
+	 * Запоминает, удалось ли определить расположение
+	 * проекта a_project.
+	 * @param a_project
+	 * 		  Проект. NotNull
+	 * @param a_unknown
+	 * 		  true, если расположение не удалось определить
+	 */
+	public void setUnknown (IProject a_project, boolean a_unknown)
+	{
+		setFlag(a_project, FLAG_UNKNOWN, a_unknown);
+	}
+	
+	/**
+	 * Запоминает результат проверки имени проекта
+	 * a_project так же, как setUnknown и setMismatch, но
+	 * одним обращением к таблице, и устанавливает флаг
+	 * FLAG_CHECKED. Если расположение проекта не удалось
+	 * определить, прежний результат сравнения имён
+	 * сохраняется.
+	 * @param a_project
+	 * 		  Проект. NotNull
+	 * @param a_unknown
+	 * 		  true, если расположение не удалось определить
+	 * @param a_mismatch
+	 * 		  true, если имена не совпадают
+	 * @return идентификатор маркера проблемного имени
+	 * проекта a_project или NO_MARKER, если маркер
+	 * отсутствует или проект закрыт
+	 */
+	public long setNameCheckResult (IProject a_project, boolean a_unknown, boolean a_mismatch)
+	{
+		if (!ensureRow(a_project)) return NO_MARKER;
+		int oldFlags;
+		int flags;
+		long markerId;
+		synchronized (this)
+		{
+			int index = findIndex(a_project.getName());
+			if (index < 0) return NO_MARKER;
+			oldFlags = m_flags[index];
+			flags = (a_unknown ? (oldFlags | FLAG_UNKNOWN) : (oldFlags & ~FLAG_UNKNOWN)) | FLAG_CHECKED;
+			if (!a_unknown) flags = a_mismatch ? (flags | FLAG_MISMATCH) : (flags & ~FLAG_MISMATCH);
+			markerId = m_markerIds[index];
+			if (flags == oldFlags) return markerId;
+			m_flags[index] = (byte)flags;
+			m_version++;
+		}
+		fireStateChanged(a_project.getName(), oldFlags, flags);
+		return markerId;
+	}
+	
+	/**
+	 * @param a_project
+	 * 		  Проект. NotNull
+	 * @return true, если на проекте есть маркеры нарушения
+	 * правил именования, false - иначе
+	 */
+	public boolean hasRuleMarkers (IProject a_project)
+	{
+		return (getFlags(a_project) & FLAG_RULE_MARKERS) != 0;
+	}
+	
+	/**
+	 * Запоминает, есть ли на проекте a_project маркеры
+	 * нарушения правил именования.
+	 * @param a_project
+	 * 		  Проект. NotNull
+	 * @param a_ruleMarkers
+	 * 		  true, если маркеры есть
+	 */
+	public void setRuleMarkers (IProject a_project, boolean a_ruleMarkers)
+	{
+		setFlag(a_project, FLAG_RULE_MARKERS, a_ruleMarkers);
+	}
+	
+	/**
+	 * @param a_project
+	 * 		  Проект. NotNull
+	 * @return идентификатор маркера проблемного имени
+	 * проекта a_project или NO_MARKER, если маркер
+	 * отсутствует или проект закрыт
+	 */
+	public long getMarkerId (IProject a_project)
+	{
+		if (!ensureRow(a_project)) return NO_MARKER;
+		synchronized (this)
+		{
+			int index = findIndex(a_project.getName());
+			return (index < 0) ? NO_MARKER : m_markerIds[index];
+		}
+	}
+	
+	/**
+	 * Запоминает идентификатор маркера проблемного имени
+	 * проекта a_project.
+	 * @param a_project
+	 * 		  Проект. NotNull
+	 * @param a_markerId
+	 * 		  Идентификатор маркера или NO_MARKER
+	 */
+	public void setMarkerId (IProject a_project, long a_markerId)
+	{
+		if (!ensureRow(a_project)) return;
+		synchronized (this)
+		{
+			int index = findIndex(a_project.getName());
+			if (index >= 0) m_markerIds[index] = a_markerId;
+		}
+	}
+	
+	/**
+	 * Удаляет из таблицы строку проекта с именем a_name.
+	 * При следующем обращении к проекту строка будет
+	 * заполнена заново.
+	 * @param a_name
+	 * 		  Имя проекта
+	 */
+	public void remove (String a_name)
+	{
+		int oldFlags;
+		synchronized (this)
+		{
+			Integer index = m_indices.remove(a_name);
+			if (index == null) return;
+			oldFlags = m_flags[index];
+			m_version++;
+			int last = --m_size;
+			if (index.intValue() != last)
+			{
+				/*
+				 * Перенос последней строки на место удалённой,
+				 * чтобы строки таблицы оставались непрерывными:
+				 */
+				m_names[index] = m_names[last];
+				m_flags[index] = m_flags[last];
+				m_markerIds[index] = m_markerIds[last];
+				m_indices.put(m_names[index], index);
+			}
+			m_names[last] = null;
+		}
+		fireStateChanged(a_name, oldFlags, NO_ROW);
+	}
+	
+	/**
+	 * Добавляет строку проекта с именем a_name, сохранённую
+	 * в снимке, если строки этого проекта ещё нет.
+	 * @param a_name
+	 * 		  Имя проекта. NotNull
+	 * @param a_flags
+	 * 		  Флаги проекта
+	 * @param a_markerId
+	 * 		  Идентификатор маркера проблемного имени или
+	 * 		  NO_MARKER
+	 */
+	public void restoreRow (String a_name, int a_flags, long a_markerId)
+	{
+		synchronized (this)
+		{
+			if (m_indices.containsKey(a_name)) return;
+			addRow(a_name, a_flags, a_markerId);
+		}
+		fireStateChanged(a_name, NO_ROW, a_flags);
+	}
+	
+	/**
+	 * @return снимок всех строк таблицы. Расположения
+	 * проектов определяются без блокировки таблицы
+	 */
+	public ValidationSnapshot createSnapshot ()
+	{
+		String[] names;
+		byte[] flags;
+		long[] markerIds;
+		synchronized (this)
+		{
+			names = Arrays.copyOf(m_names, m_size);
+			flags = Arrays.copyOf(m_flags, m_size);
+			markerIds = Arrays.copyOf(m_markerIds, m_size);
+		}
+		IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
+		ValidationSnapshot snapshot = new ValidationSnapshot();
+		for (int i = 0; i < names.length; i++)
+		{
+			IProject project = root.getProject(names[i]);
+			if (!project.isOpen()) continue;
+			snapshot.add(names[i], ValidationSnapshot.getLocation(project), flags[i], markerIds[i]);
+		}
+		return snapshot;
+	}
+	
+	/**
+	 * @return номер версии таблицы. Если номер не
+	 * изменился, строки и флаги таблицы остались прежними
+	 */
+	public synchronized int getVersion ()
+	{
+		return m_version;
+	}
+	
+	/**
+	 * @return копия имён и флагов всех строк таблицы.
+	 * Проекты рабочей области при копировании не
+	 * запрашиваются
+	 */
+	public synchronized Rows copyRows ()
+	{
+		return new Rows(Arrays.copyOf(m_names, m_size), Arrays.copyOf(m_flags, m_size), m_version);
+	}
+	
+	/**
+	 * Поддерживает идентификаторы маркеров в таблице в
+	 * актуальном состоянии.
+	 */
+	@Override
+	public void resourceChanged (IResourceChangeEvent a_event)
+	{
+		IMarkerDelta[] deltas = a_event.findMarkerDeltas(ProblemNameMarkerManager.MARKER_TYPE, false);
+		for (IMarkerDelta delta : deltas)
+		{
+			IResource resource = delta.getResource();
+			if (resource.getType() != IResource.PROJECT) continue;
+			synchronized (this)
+			{
+				int index = findIndex(resource.getName());
+				if (index < 0) continue;
+				if (delta.getKind() == IResourceDelta.ADDED) m_markerIds[index] = delta.getId();
+				else if (delta.getKind() == IResourceDelta.REMOVED && m_markerIds[index] == delta.getId())
+				{
+					m_markerIds[index] = NO_MARKER;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Устанавливает или снимает флаг a_flag проекта
+	 * a_project.
+	 */
+	private void setFlag (IProject a_project, int a_flag, boolean a_value)
+	{
+		if (!ensureRow(a_project)) return;
+		int oldFlags;
+		int flags;
+		synchronized (this)
+		{
+			int index = findIndex(a_project.getName());
+			if (index < 0) return;
+			oldFlags = m_flags[index];
+			flags = a_value ? (oldFlags | a_flag) : (oldFlags & ~a_flag);
+			if (flags == oldFlags) return;
+			m_flags[index] = (byte)flags;
+			m_version++;
+		}
+		fireStateChanged(a_project.getName(), oldFlags, flags);
+	}
+	
+	/**
+	 * @param a_name
+	 * 		  Имя проекта
+	 * @return индекс строки проекта с именем a_name или -1,
+	 * если строки нет. Вызывается под блокировкой таблицы
+	 */
+	private int findIndex (String a_name)
+	{
+		Integer index = m_indices.get(a_name);
+		return (index == null) ? -1 : index.intValue();
+	}
+	
+	/**
+	 * Заполняет строку проекта a_project, если её ещё нет.
+	 * Свойство и маркеры проекта читаются без блокировки
+	 * таблицы, поэтому строки разных проектов могут
+	 * заполняться параллельно.
+	 * @param a_project
+	 * 		  Проект. NotNull
+	 * @return true, если строка существует, false - если
+	 * проект закрыт
+	 */
+	private boolean ensureRow (IProject a_project)
+	{
+		String name = a_project.getName();
+		synchronized (this)
+		{
+			if (m_indices.containsKey(name)) return true;
+		}
+		if (!a_project.isOpen()) return false;
+		
+		int flags = 0;
+		long markerId = NO_MARKER;
+		try
+		{
+			if (m_exceptionStore == null) m_exceptionStore = ExceptionStore.getInstance();
+			String value = RenameIgnoringProperty.readValue(a_project, m_exceptionStore);
+			if (value != null)
+			{
+				flags |= FLAG_PROPERTY_EXISTS;
+				if (Boolean.parseBoolean(value)) flags |= FLAG_IGNORED;
+			}
+			/*
+			 * Маркер проблемного имени и маркеры нарушения
+			 * правил ищутся одним запросом по общему типу
+			 * маркеров плагина:
+			 */
+			for (IMarker marker : a_project.findMarkers(ProblemNameMarkerManager.MARKER_TYPE_BASE, true,
+														IResource.DEPTH_ZERO))
+			{
+				if (marker.getAttribute(ProblemNameMarkerManager.MARKER_ATTRIBUTE_PROBLEM_NAME, null) != null)
+				{
+					if (markerId == NO_MARKER) markerId = marker.getId();
+				}
+				else if (marker.getAttribute(RuleMarkerManager.MARKER_ATTRIBUTE_NAMING_RULE, null) != null)
+				{
+					flags |= FLAG_RULE_MARKERS;
+				}
+			}
+		}
+		catch (CoreException e)
+		{
+			ErrorStatusHandler.log(e, e.getMessage());
+		}
+		
+		synchronized (this)
+		{
+			if (m_indices.containsKey(name)) return true;
+			addRow(name, flags, markerId);
+		}
+		fireStateChanged(name, NO_ROW, flags);
+		return true;
+	}
+	
+	/**
+	 * Добавляет слушатель изменения строк таблицы.
+	 * @param a_listener
+	 * 		  Слушатель. NotNull
+	 */
+	public void addListener (IProjectStateListener a_listener)
+	{
+		m_listeners.add(Objects.requireNonNull(a_listener));
+	}
+	
+	/**
+	 * Удаляет слушатель изменения строк таблицы.
+	 * @param a_listener
+	 * 		  Слушатель
+	 */
+	public void removeListener (IProjectStateListener a_listener)
+	{
+		m_listeners.remove(a_listener);
+	}
+	
+	/**
+	 * Оповещает слушателей об изменении строки проекта с
+	 * именем a_name. Вызывается вне блокировки таблицы.
+	 */
+	private void fireStateChanged (String a_name, int a_oldFlags, int a_newFlags)
+	{
+		if (m_listeners.isEmpty()) return;
+		for (IProjectStateListener listener : m_listeners)
+		{
+			listener.projectStateChanged(a_name, a_oldFlags, a_newFlags);
+		}
+	}
+	
+	/**
+	 * Добавляет в конец таблицы строку проекта с именем
+	 * a_name. Вызывается под блокировкой таблицы.
+	 */
+	private void addRow (String a_name, int a_flags, long a_markerId)
+	{
+		ensureCapacity(m_size + 1);
+		m_names[m_size] = a_name;
+		m_flags[m_size] = (byte)a_flags;
+		m_markerIds[m_size] = a_markerId;
+		m_indices.put(a_name, m_size++);
+		m_version++;
+	}
+	
+	/**
+	 * Увеличивает размер массивов таблицы так, чтобы в них
+	 * поместилось a_capacity строк.
+	 */
+	private void ensureCapacity (int a_capacity)
+	{
+		if (a_capacity <= m_names.length) return;
+		int capacity = Math.max(a_capacity, m_names.length * 2);
+		m_names = Arrays.copyOf(m_names, capacity);
+		m_flags = Arrays.copyOf(m_flags, capacity);
+		m_markerIds = Arrays.copyOf(m_markerIds, capacity);
+	}
+	
+	/**
+	 * Копия имён и флагов строк таблицы, сделанная
+	 * методом copyRows.
+	 */
+	public static class Rows
+	{
+		private String[] m_names;
+		
+		private byte[] m_flags;
+		
+		private int m_version;
+		
+		Rows (String[] a_names, byte[] a_flags, int a_version)
+		{
+			m_names = a_names;
+			m_flags = a_flags;
+			m_version = a_version;
+		}
+		
+		/**
+		 * @return количество строк
+		 */
+		public int size ()
+		{
+			return m_names.length;
+		}
+		
+		/**
+		 * @param a_index
+		 * 		  Индекс строки
+		 * @return имя проекта строки a_index
+		 */
+		public String getName (int a_index)
+		{
+			return m_names[a_index];
+		}
+		
+		/**
+		 * @param a_index
+		 * 		  Индекс строки
+		 * @return флаги проекта строки a_index (комбинация
+		 * констант FLAG_*)
+		 */
+		public int getFlags (int a_index)
+		{
+			return m_flags[a_index];
+		}
+		
+		/**
+		 * @return номер версии таблицы, с которой сделана
+		 * копия
+		 */
+		public int getVersion ()
+		{
+			return m_version;
+		}
+	}
+}
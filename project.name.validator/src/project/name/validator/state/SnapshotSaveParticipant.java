@@ -0,0 +1,153 @@
+package project.name.validator.state;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Objects;
+
+import org.eclipse.core.resources.ISaveContext;
+import org.eclipse.core.resources.ISaveParticipant;
+import org.eclipse.core.resources.ISavedState;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.core.runtime.Status;
+
+import project.name.validator.Activator;
+import project.name.validator.Messages;
+import project.name.validator.log.ErrorStatusHandler;
+import project.name.validator.property.ExceptionPatterns;
+import project.name.validator.rule.RuleEngine;
+
+/**
+ * Участник сохранения рабочей области, записывающий
+ * снимок таблицы состояния проектов в каталог состояния
+ * плагина.
+ * Каждое сохранение записывает новый файл с номером
+ * сохранения в имени, а файл предыдущего сохранения
+ * удаляется только после успешного завершения текущего,
+ * поэтому прерванное сохранение не портит снимок.
+ */
+public class SnapshotSaveParticipant implements ISaveParticipant
+{
+	/**
+	 * Ключ, под которым рабочая область запоминает имя
+	 * файла последнего снимка.
+	 */
+	private static final IPath SNAPSHOT_KEY = new Path("validationSnapshot");
+	
+	private static final String SNAPSHOT_FILE_PREFIX = "validation-snapshot-";
+	
+	private ProjectStateTable m_table;
+	
+	/**
+	 * Конструктор класса SnapshotSaveParticipant.
+	 * @param a_table
+	 * 		  Таблица, снимок которой сохраняется. NotNull
+	 */
+	private SnapshotSaveParticipant (ProjectStateTable a_table)
+	{
+		m_table = Objects.requireNonNull(a_table);
+	}
+	
+	/**
+	 * Регистрирует участника сохранения, записывающего
+	 * снимок таблицы a_table, и читает снимок, записанный
+	 * при последнем сохранении рабочей области.
+	 * @param a_table
+	 * 		  Таблица состояния проектов. NotNull
+	 * @return снимок последнего сохранения или null, если
+	 * его нет или его не удалось прочитать
+	 */
+	public static ValidationSnapshot register (ProjectStateTable a_table)
+	{
+		try
+		{
+			ISavedState savedState = ResourcesPlugin.getWorkspace()
+													.addSaveParticipant(Activator.PLUGIN_ID,
+																		new SnapshotSaveParticipant(a_table));
+			if (savedState == null) return null;
+			IPath fileName = savedState.lookup(SNAPSHOT_KEY);
+			if (fileName == null) return null;
+			File file = getStateLocation().append(fileName).toFile();
+			return file.isFile() ? ValidationSnapshot.read(file) : null;
+		}
+		catch (CoreException | IOException e)
+		{
+			ErrorStatusHandler.log(e, Messages.Exception_Snapshot_Reading);
+			return null;
+		}
+	}
+	
+	/**
+	 * @param a_ruleEngine
+	 * 		  Набор правил именования. NotNull
+	 * @param a_patterns
+	 * 		  Шаблоны исключений рабочей области. NotNull
+	 * @return ключ конфигурации, записываемый в снимок:
+	 * снимок, сделанный с другими правилами или шаблонами
+	 * исключений, не соответствует текущим маркерам. Если
+	 * шаблонов нет, ключ совпадает с ключом набора правил,
+	 * поэтому снимки прежней версии остаются верными
+	 */
+	public static String getConfigurationKey (RuleEngine a_ruleEngine, ExceptionPatterns a_patterns)
+	{
+		if (a_patterns.isEmpty()) return a_ruleEngine.getConfigurationKey();
+		return a_ruleEngine.getConfigurationKey() + "\nexceptions\n" + a_patterns.getDefinition();
+	}
+	
+	@Override
+	public void prepareToSave (ISaveContext a_context) throws CoreException
+	{
+	}
+	
+	@Override
+	public void saving (ISaveContext a_context) throws CoreException
+	{
+		if (a_context.getKind() == ISaveContext.PROJECT_SAVE) return;
+		String fileName = SNAPSHOT_FILE_PREFIX + a_context.getSaveNumber();
+		try
+		{
+			ValidationSnapshot snapshot = m_table.createSnapshot();
+			snapshot.setConfiguration(getConfigurationKey(RuleEngine.getInstance(), ExceptionPatterns.getInstance()));
+			snapshot.write(getStateLocation().append(fileName).toFile());
+		}
+		catch (IOException e)
+		{
+			throw new CoreException(new Status(IStatus.ERROR, Activator.PLUGIN_ID, Messages.Exception_Snapshot_Saving,
+											   e));
+		}
+		a_context.map(SNAPSHOT_KEY, new Path(fileName));
+		a_context.needSaveNumber();
+	}
+	
+	@Override
+	public void doneSaving (ISaveContext a_context)
+	{
+		deleteSnapshot(a_context.getPreviousSaveNumber());
+	}
+	
+	@Override
+	public void rollback (ISaveContext a_context)
+	{
+		deleteSnapshot(a_context.getSaveNumber());
+	}
+	
+	/**
+	 * Удаляет файл снимка сохранения с номером
+	 * a_saveNumber, если он существует.
+	 */
+	private static void deleteSnapshot (int a_saveNumber)
+	{
+		getStateLocation().append(SNAPSHOT_FILE_PREFIX + a_saveNumber).toFile().delete();
+	}
+	
+	/**
+	 * @return каталог состояния плагина
+	 */
+	private static IPath getStateLocation ()
+	{
+		return Activator.getDefault().getStateLocation();
+	}
+}
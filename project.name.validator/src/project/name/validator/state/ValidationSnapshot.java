@@ -0,0 +1,217 @@
+package project.name.validator.state;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.eclipse.core.resources.IProject;
+
+/**
+ * Снимок таблицы состояния проектов, сохраняемый между
+ * запусками рабочей среды.
+ * Для каждого проекта хранятся имя, расположение, флаги
+ * и идентификатор маркера проблемного имени. При запуске
+ * строки проектов, имя и расположение которых не
+ * изменились, восстанавливаются из снимка без повторной
+ * проверки.
+ * Вместе со строками хранится описание набора правил
+ * именования, с которым они были получены: если набор
+ * изменился, снимок не используется.
+ */
+public class ValidationSnapshot
+{
+	/**
+	 * Версия формата файла снимка. Файлы другой версии не
+	 * читаются.
+	 */
+	private static final int FORMAT_VERSION = 2;
+	
+	private Map<String, Entry> m_entries = new HashMap<>();
+	
+	private String m_configuration = "";
+	
+	/**
+	 * Добавляет в снимок строку проекта.
+	 * @param a_name
+	 * 		  Имя проекта. NotNull
+	 * @param a_location
+	 * 		  Расположение проекта или null, если оно
+	 * 		  неизвестно
+	 * @param a_flags
+	 * 		  Флаги проекта (комбинация констант
+	 * 		  ProjectStateTable.FLAG_*)
+	 * @param a_markerId
+	 * 		  Идентификатор маркера проблемного имени или
+	 * 		  ProjectStateTable.NO_MARKER
+	 */
+	public void add (String a_name, String a_location, int a_flags, long a_markerId)
+	{
+		m_entries.put(Objects.requireNonNull(a_name), new Entry(a_location, a_flags, a_markerId));
+	}
+	
+	/**
+	 * @return описание набора правил именования, с которым
+	 * получены строки снимка (см.
+	 * RuleEngine.getConfigurationKey)
+	 */
+	public String getConfiguration ()
+	{
+		return m_configuration;
+	}
+	
+	/**
+	 * @param a_configuration
+	 * 		  Описание набора правил именования, с которым
+	 * 		  получены строки снимка. NotNull
+	 */
+	public void setConfiguration (String a_configuration)
+	{
+		m_configuration = Objects.requireNonNull(a_configuration);
+	}
+	
+	/**
+	 * @return количество проектов в снимке
+	 */
+	public int size ()
+	{
+		return m_entries.size();
+	}
+	
+	/**
+	 * Восстанавливает строку проекта a_project в таблице
+	 * a_table, если проект с таким именем и расположением
+	 * есть в снимке.
+	 * @param a_project
+	 * 		  Проект. NotNull
+	 * @param a_table
+	 * 		  Таблица состояния проектов. NotNull
+	 * @return true, если строка восстановлена и проект не
+	 * нуждается в проверке, false - если проекта нет в
+	 * снимке, его расположение изменилось или его не
+	 * удалось определить при последней проверке
+	 */
+	public boolean restore (IProject a_project, ProjectStateTable a_table)
+	{
+		Entry entry = m_entries.get(a_project.getName());
+		if (entry == null || (entry.m_flags & ProjectStateTable.FLAG_UNKNOWN) != 0) return false;
+		if (!Objects.equals(entry.m_location, getLocation(a_project))) return false;
+		a_table.restoreRow(a_project.getName(), entry.m_flags, entry.m_markerId);
+		return true;
+	}
+	
+	/**
+	 * @param a_project
+	 * 		  Проект. NotNull
+	 * @return расположение проекта в виде строки или null,
+	 * если оно неизвестно
+	 */
+	static String getLocation (IProject a_project)
+	{
+		URI location = a_project.getLocationURI();
+		return (location != null) ? location.toString() : null;
+	}
+	
+	/**
+	 * Записывает снимок в файл a_file.
+	 * @param a_file
+	 * 		  Файл снимка
+	 * @throws IOException
+	 */
+	public void write (File a_file) throws IOException
+	{
+		try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+																	Files.newOutputStream(a_file.toPath()))))
+		{
+			output.writeInt(FORMAT_VERSION);
+			writeLongUTF(output, m_configuration);
+			output.writeInt(m_entries.size());
+			for (Map.Entry<String, Entry> entry : m_entries.entrySet())
+			{
+				Entry value = entry.getValue();
+				output.writeUTF(entry.getKey());
+				output.writeBoolean(value.m_location != null);
+				if (value.m_location != null) output.writeUTF(value.m_location);
+				output.writeByte(value.m_flags);
+				output.writeLong(value.m_markerId);
+			}
+		}
+	}
+	
+	/**
+	 * Читает снимок из файла a_file.
+	 * @param a_file
+	 * 		  Файл снимка
+	 * @return прочитанный снимок или null, если файл
+	 * записан в другой версии формата
+	 * @throws IOException
+	 */
+	public static ValidationSnapshot read (File a_file) throws IOException
+	{
+		try (DataInputStream input = new DataInputStream(new BufferedInputStream(
+																	Files.newInputStream(a_file.toPath()))))
+		{
+			if (input.readInt() != FORMAT_VERSION) return null;
+			ValidationSnapshot snapshot = new ValidationSnapshot();
+			snapshot.setConfiguration(readLongUTF(input));
+			int size = input.readInt();
+			for (int i = 0; i < size; i++)
+			{
+				String name = input.readUTF();
+				String location = input.readBoolean() ? input.readUTF() : null;
+				int flags = input.readByte();
+				long markerId = input.readLong();
+				snapshot.add(name, location, flags, markerId);
+			}
+			return snapshot;
+		}
+	}
+	
+	/**
+	 * Записывает строку a_value, длина которой в кодировке
+	 * UTF-8 может превышать ограничение writeUTF.
+	 */
+	private static void writeLongUTF (DataOutputStream a_output, String a_value) throws IOException
+	{
+		byte[] bytes = a_value.getBytes(StandardCharsets.UTF_8);
+		a_output.writeInt(bytes.length);
+		a_output.write(bytes);
+	}
+	
+	/**
+	 * @return строка, записанная методом writeLongUTF
+	 */
+	private static String readLongUTF (DataInputStream a_input) throws IOException
+	{
+		byte[] bytes = new byte[a_input.readInt()];
+		a_input.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+	
+	/**
+	 * Строка снимка.
+	 */
+	private static class Entry
+	{
+		private String m_location;
+		
+		private int m_flags;
+		
+		private long m_markerId;
+		
+		Entry (String a_location, int a_flags, long a_markerId)
+		{
+			m_location = a_location;
+			m_flags = a_flags;
+			m_markerId = a_markerId;
+		}
+	}
+}
@@ -0,0 +1,125 @@
+package project.name.validator.ui;
+
+import java.util.regex.PatternSyntaxException;
+
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.preferences.IEclipsePreferences;
+import org.eclipse.core.runtime.preferences.InstanceScope;
+import org.eclipse.jface.preference.PreferencePage;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.events.ModifyEvent;
+import org.eclipse.swt.events.ModifyListener;
+import org.eclipse.swt.layout.GridData;
+import org.eclipse.swt.layout.GridLayout;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Label;
+import org.eclipse.swt.widgets.Text;
+import org.eclipse.ui.IWorkbench;
+import org.eclipse.ui.IWorkbenchPreferencePage;
+import org.osgi.service.prefs.BackingStoreException;
+
+import project.name.validator.Activator;
+import project.name.validator.log.ErrorStatusHandler;
+import project.name.validator.property.ExceptionPatterns;
+
+/**
+ * Страница настроек рабочей области с шаблонами
+ * исключений (ExceptionPatterns). После сохранения
+ * шаблонов все проекты рабочей области проверяются
+ * заново.
+ */
+public class ExceptionPatternsPreferencePage extends PreferencePage implements IWorkbenchPreferencePage
+{
+	public static final String PATTERNS_MESSAGE = "Не проверять совпадение имени проекта и имени его папки для " +
+												  "проектов, имена которых соответствуют шаблонам (по одному в " +
+												  "строке; '*' - любые символы, '?' - любой символ, префикс " +
+												  "\"regex:\" - регулярное выражение, '#' - комментарий):";
+	
+	private Text m_patternsText;
+	
+	@Override
+	public void init (IWorkbench a_workbench)
+	{
+	}
+	
+	@Override
+	protected Control createContents (Composite a_parent)
+	{
+		Composite composite = new Composite(a_parent, SWT.NONE);
+		composite.setLayout(new GridLayout(1, false));
+		Label label = new Label(composite, SWT.WRAP);
+		label.setText(PATTERNS_MESSAGE);
+		GridData labelData = new GridData(SWT.FILL, SWT.TOP, true, false);
+		labelData.widthHint = 400;
+		label.setLayoutData(labelData);
+		m_patternsText = new Text(composite, SWT.MULTI | SWT.BORDER | SWT.V_SCROLL | SWT.H_SCROLL);
+		GridData textData = new GridData(SWT.FILL, SWT.FILL, true, true);
+		textData.heightHint = 200;
+		m_patternsText.setLayoutData(textData);
+		m_patternsText.setText(Platform.getPreferencesService()
+										.getString(Activator.PLUGIN_ID,
+												   ExceptionPatterns.PREFERENCE_EXCEPTION_PATTERNS, "", null));
+		m_patternsText.addModifyListener(new ModifyListener()
+		{
+			@Override
+			public void modifyText (ModifyEvent a_event)
+			{
+				validatePatterns();
+			}
+		});
+		return composite;
+	}
+	
+	@Override
+	protected void performDefaults ()
+	{
+		m_patternsText.setText("");
+		super.performDefaults();
+	}
+	
+	@Override
+	public boolean performOk ()
+	{
+		IEclipsePreferences preferences = InstanceScope.INSTANCE.getNode(Activator.PLUGIN_ID);
+		String patterns = m_patternsText.getText().trim();
+		if (patterns.isEmpty()) preferences.remove(ExceptionPatterns.PREFERENCE_EXCEPTION_PATTERNS);
+		else preferences.put(ExceptionPatterns.PREFERENCE_EXCEPTION_PATTERNS, patterns);
+		try
+		{
+			preferences.flush();
+		}
+		catch (BackingStoreException e)
+		{
+			ErrorStatusHandler.log(e, e.getMessage());
+		}
+		return true;
+	}
+	
+	/**
+	 * Проверяет введённые шаблоны так же, как они
+	 * объединяются при компиляции (ExceptionPatterns).
+	 * Пока хотя бы один шаблон записан с ошибкой, не
+	 * поддерживается или не объединяется с предыдущими,
+	 * шаблоны нельзя сохранить.
+	 */
+	private void validatePatterns ()
+	{
+		StringBuilder regex = new StringBuilder();
+		for (String line : ExceptionPatterns.split(m_patternsText.getText()))
+		{
+			try
+			{
+				ExceptionPatterns.appendPattern(regex, line);
+			}
+			catch (PatternSyntaxException e)
+			{
+				setErrorMessage("Ошибка в шаблоне " + line + ": " + e.getDescription());
+				setValid(false);
+				return;
+			}
+		}
+		setErrorMessage(null);
+		setValid(true);
+	}
+}
@@ -0,0 +1,144 @@
+package project.name.validator.ui;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+
+import org.eclipse.jface.action.Action;
+import org.eclipse.jface.action.IToolBarManager;
+import org.eclipse.jface.dialogs.MessageDialog;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Table;
+import org.eclipse.swt.widgets.TableColumn;
+import org.eclipse.swt.widgets.TableItem;
+import org.eclipse.ui.part.ViewPart;
+
+import project.name.validator.log.ErrorStatusHandler;
+import project.name.validator.metrics.ValidatorMetrics;
+
+/**
+ * Представление диагностики, показывающее счётчики
+ * и длительности работы плагина. Пока представление
+ * открыто, измерение времени включено, а значения
+ * обновляются раз в секунду.
+ */
+public class MetricsView extends ViewPart
+{
+	public static final String ID = "project.name.validator.metricsView";
+	
+	private static final int REFRESH_INTERVAL = 1000;
+	
+	private Table m_table;
+	
+	private boolean m_timingWasEnabled;
+	
+	@Override
+	public void createPartControl (Composite a_parent)
+	{
+		m_timingWasEnabled = ValidatorMetrics.isTimingEnabled();
+		ValidatorMetrics.setTimingEnabled(true);
+		
+		m_table = new Table(a_parent, SWT.BORDER | SWT.FULL_SELECTION);
+		m_table.setHeaderVisible(true);
+		TableColumn nameColumn = new TableColumn(m_table, SWT.LEFT);
+		nameColumn.setText("Метрика");
+		nameColumn.setWidth(250);
+		TableColumn valueColumn = new TableColumn(m_table, SWT.RIGHT);
+		valueColumn.setText("Значение");
+		valueColumn.setWidth(150);
+		
+		createActions();
+		refresh();
+		scheduleRefresh();
+	}
+	
+	/**
+	 * Создаёт кнопки обновления, обнуления и сохранения
+	 * метрик на панели инструментов представления.
+	 */
+	private void createActions ()
+	{
+		IToolBarManager toolBar = getViewSite().getActionBars().getToolBarManager();
+		toolBar.add(new Action("Обновить")
+		{
+			@Override
+			public void run ()
+			{
+				refresh();
+			}
+		});
+		toolBar.add(new Action("Обнулить")
+		{
+			@Override
+			public void run ()
+			{
+				ValidatorMetrics.reset();
+				refresh();
+			}
+		});
+		toolBar.add(new Action("Сохранить в файл")
+		{
+			@Override
+			public void run ()
+			{
+				try
+				{
+					File file = ValidatorMetrics.dump();
+					MessageDialog.openInformation(getSite().getShell(), getPartName(),
+												  "Метрики сохранены в файл " + file.getAbsolutePath());
+				}
+				catch (IOException e)
+				{
+					ErrorStatusHandler.log(e, e.getMessage());
+				}
+			}
+		});
+	}
+	
+	/**
+	 * Показывает текущие значения метрик.
+	 */
+	private void refresh ()
+	{
+		if (m_table.isDisposed()) return;
+		Map<String, String> values = ValidatorMetrics.snapshot();
+		m_table.setItemCount(values.size());
+		int index = 0;
+		for (Map.Entry<String, String> value : values.entrySet())
+		{
+			TableItem item = m_table.getItem(index++);
+			item.setText(new String[] {value.getKey(), value.getValue()});
+		}
+	}
+	
+	/**
+	 * Планирует следующее обновление значений.
+	 */
+	private void scheduleRefresh ()
+	{
+		m_table.getDisplay().timerExec(REFRESH_INTERVAL, new Runnable()
+		{
+			@Override
+			public void run ()
+			{
+				if (m_table.isDisposed()) return;
+				refresh();
+				scheduleRefresh();
+			}
+		});
+	}
+	
+	@Override
+	public void setFocus ()
+	{
+		m_table.setFocus();
+	}
+	
+	@Override
+	public void dispose ()
+	{
+		ValidatorMetrics.setTimingEnabled(m_timingWasEnabled);
+		super.dispose();
+	}
+}
@@ -1,93 +1,169 @@
 package project.name.validator.ui;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 import org.eclipse.core.resources.IProject;
-import org.eclipse.core.runtime.CoreException;
-import org.eclipse.core.runtime.IPath;
 import org.eclipse.jface.dialogs.Dialog;
+import org.eclipse.jface.dialogs.IDialogConstants;
+import org.eclipse.jface.viewers.ArrayContentProvider;
+import org.eclipse.jface.viewers.CheckboxTableViewer;
+import org.eclipse.jface.viewers.LabelProvider;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.layout.GridData;
 import org.eclipse.swt.layout.GridLayout;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Control;
 import org.eclipse.swt.widgets.Label;
-import org.eclipse.ui.PlatformUI;
+import org.eclipse.swt.widgets.Shell;
 
-import project.name.validator.log.ErrorStatusHandler;
-import project.name.validator.property.RenameIgnoringProperty;
+import project.name.validator.ProjectNameChecker;
 
 /**
  * Диалог, предупреждающий пользователя о том,
- * что переименовывать проект нежелательно, и
- * предлагающий добавить проект в исключения.
+ * что переименовывать проекты нежелательно, и
+ * предлагающий добавить любые из них в исключения
+ * или переименовать их папки по именам проектов.
+ * Диалог сам не изменяет свойства проектов, а
+ * только запоминает выбор пользователя.
  */
 public class ProblemNameDialog extends Dialog
 {
-	private String m_warningMessage = "";
+	private static final String RENAME_FOLDERS_LABEL = "Переименовать папки";
 	
-	private RenameIgnoringProperty m_property;
+	private static final String WARNING_MESSAGE = "Не рекомендуется переименовывать проекты так, что имя проекта " +
+												  "не совпадает с именем его папки, так как это приводит к ошибке. " +
+												  "Добавить отмеченные проекты в исключения (данное действие или " +
+												  "его отмену также можно совершить на странице " +
+												  System.lineSeparator() + "\"Свойства\"->\"Переименование " +
+												  "проекта\")? Кнопка \"" + RENAME_FOLDERS_LABEL + "\" вместо этого " +
+												  "переименует папки отмеченных проектов по именам проектов.";
 	
 	/**
-	 * Конструктор класса ProblemNameDialog.
-	 * Создаёт объект класса RenameIgnoringProperty
-	 * для проекта a_project и устанавливает
-	 * предупреждающее сообщение.
-	 * @param a_project
-	 * 		  Проект, с которым связано диалоговое
-	 * 		  окно
+	 * Идентификатор кнопки переименования папок
+	 * отмеченных проектов.
 	 */
-	public ProblemNameDialog (IProject a_project)
-	{
-		super(PlatformUI.getWorkbench().getActiveWorkbenchWindow().getShell());
-		m_property = new RenameIgnoringProperty(Objects.requireNonNull(a_project));
-		setWarningMessage(a_project);
-	}
+	public static final int RENAME_FOLDERS_ID = IDialogConstants.CLIENT_ID + 1;
+	
+	private List<IProject> m_projects;
+	
+	private CheckboxTableViewer m_projectsViewer;
 	
 	/**
-	 * Устанавливает предупреждающее сообщение
-	 * о последствии переименования проекта
-	 * a_project.
-	 * @param a_project
-	 * 		  Проект, с которым связано диалоговое
-	 * 		  окно
+	 * Выбор пользователя: для каждого проекта значение
+	 * свойства RenameIgnoringProperty, которое нужно
+	 * установить.
 	 */
-	private void setWarningMessage (IProject a_project)
+	private Map<IProject, Boolean> m_decisions = new LinkedHashMap<>();
+	
+	/**
+	 * Проекты, папки которых пользователь решил
+	 * переименовать по именам проектов.
+	 */
+	private List<IProject> m_folderRenames = new ArrayList<>();
+	
+	/**
+	 * Конструктор класса ProblemNameDialog.
+	 * @param a_parentShell
+	 * 		  Родительское окно. Может быть null
+	 * @param a_projects
+	 * 		  Проекты, с которыми связано диалоговое
+	 * 		  окно. NotNull
+	 */
+	public ProblemNameDialog (Shell a_parentShell, Collection<IProject> a_projects)
 	{
-		String projectName = "";
-		IPath location = a_project.getLocation();
-		if (location != null) projectName = location.lastSegment();
-		m_warningMessage = "Не рекомендуется переименовывать проект " + projectName + ", так как это приведёт к " +
-						   "ошибке (несовпадению имени проекта и имени его папки). Добавить данный проект в " +
-						   "исключения (данное действие или его отмену также можно совершить на странице " +
-						   System.lineSeparator() + "\"Свойства\"->\"Переименование проекта\")?";
+		super(a_parentShell);
+		m_projects = new ArrayList<>(Objects.requireNonNull(a_projects));
 	}
 	
 	@Override
-	public Control createDialogArea(Composite parent) 
+	public Control createDialogArea(Composite parent)
 	{
 		Composite composite = new Composite ((Composite)super.createDialogArea(parent), SWT.NONE);
 		composite.setLayout(new GridLayout(1, false));
-		composite.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false));
+		composite.setLayoutData(new GridData(SWT.FILL, SWT.FILL, true, true));
 		
 		Label messageLabel = new Label(composite, SWT.WRAP);
-		messageLabel.setText(m_warningMessage);
+		messageLabel.setText(WARNING_MESSAGE);
 		GridData gridData = new GridData(GridData.FILL_HORIZONTAL) ;
 		gridData.widthHint = 500;
 		messageLabel.setLayoutData(gridData);
 		
+		m_projectsViewer = CheckboxTableViewer.newCheckList(composite, SWT.BORDER | SWT.V_SCROLL);
+		m_projectsViewer.setContentProvider(ArrayContentProvider.getInstance());
+		m_projectsViewer.setLabelProvider(new LabelProvider()
+		{
+			@Override
+			public String getText (Object a_element)
+			{
+				return getProjectText((IProject)a_element);
+			}
+		});
+		m_projectsViewer.setInput(m_projects);
+		m_projectsViewer.setAllChecked(true);
+		GridData tableData = new GridData(SWT.FILL, SWT.FILL, true, true);
+		tableData.heightHint = 200;
+		m_projectsViewer.getTable().setLayoutData(tableData);
+		
 		return composite;
 	}
 	
+	/**
+	 * @param a_project
+	 * 		  Проект
+	 * @return текст строки проекта a_project в
+	 * списке: имя проекта и имя его папки
+	 */
+	private static String getProjectText (IProject a_project)
+	{
+		String folderName = ProjectNameChecker.getFolderName(a_project);
+		if (folderName == null) return a_project.getName();
+		return a_project.getName() + " (" + folderName + ")";
+	}
+	
+	@Override
+	protected void createButtonsForButtonBar (Composite a_parent)
+	{
+		super.createButtonsForButtonBar(a_parent);
+		createButton(a_parent, RENAME_FOLDERS_ID, RENAME_FOLDERS_LABEL, false);
+	}
+	
+	@Override
+	protected void buttonPressed (int a_buttonId)
+	{
+		if (a_buttonId != RENAME_FOLDERS_ID)
+		{
+			super.buttonPressed(a_buttonId);
+			return;
+		}
+		/*
+		 * Папки отмеченных проектов переименовываются, ни
+		 * один из проектов не заносится в исключения:
+		 */
+		for (IProject project : m_projects)
+		{
+			m_decisions.put(project, Boolean.FALSE);
+			if (m_projectsViewer.getChecked(project)) m_folderRenames.add(project);
+		}
+		setReturnCode(RENAME_FOLDERS_ID);
+		close();
+	}
+	
 	@Override
 	public void okPressed()
 	{
 		/*
-		 * Установка свойству RenameIgnoringProperty
-		 * значения true, что означает, что проект
-		 * находится в исключениях:
+		 * Отмеченные проекты заносятся в исключения,
+		 * остальные - нет:
 		 */
-		setRenameIgnoringProperty(true);
+		for (IProject project : m_projects)
+		{
+			m_decisions.put(project, m_projectsViewer.getChecked(project));
+		}
 		super.okPressed();
 	}
 	
@@ -95,29 +171,34 @@ public class ProblemNameDialog extends Dialog
 	public void cancelPressed()
 	{
 		/*
-		 * Установка свойству RenameIgnoringProperty
-		 * значения false, что означает, что проект
-		 * не находится в исключениях:
+		 * Ни один из проектов не заносится в
+		 * исключения:
 		 */
-		setRenameIgnoringProperty(false);
+		for (IProject project : m_projects)
+		{
+			m_decisions.put(project, Boolean.FALSE);
+		}
 		super.cancelPressed();
 	}
 	
 	/**
-	 * Устанавливает значение свойства
-	 * RenameIgnoringProperty.
-	 * @param a_property
-	 * 		  Значение свойства RenameIgnoringProperty
+	 * @return выбор пользователя: для каждого проекта
+	 * значение свойства RenameIgnoringProperty, которое
+	 * нужно установить. Пуст, если диалог был закрыт
+	 * без нажатия кнопок
 	 */
-	private void setRenameIgnoringProperty (boolean a_property)
+	public Map<IProject, Boolean> getDecisions ()
 	{
-		try
-		{
-			m_property.setValue(a_property);
-		}
-		catch (CoreException e)
-		{
-			ErrorStatusHandler.log(e, e.getMessage());
-		}
+		return m_decisions;
+	}
+	
+	/**
+	 * @return проекты, папки которых нужно переименовать
+	 * по именам проектов. Пуст, если пользователь не
+	 * нажимал кнопку переименования папок
+	 */
+	public List<IProject> getFolderRenames ()
+	{
+		return m_folderRenames;
 	}
 }
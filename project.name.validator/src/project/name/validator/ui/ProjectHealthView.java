@@ -0,0 +1,482 @@
+package project.name.validator.ui;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.jface.action.Action;
+import org.eclipse.jface.action.IToolBarManager;
+import org.eclipse.jface.viewers.ILazyContentProvider;
+import org.eclipse.jface.viewers.ITableLabelProvider;
+import org.eclipse.jface.viewers.LabelProvider;
+import org.eclipse.jface.viewers.TableViewer;
+import org.eclipse.jface.viewers.Viewer;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.events.ModifyEvent;
+import org.eclipse.swt.events.ModifyListener;
+import org.eclipse.swt.events.SelectionAdapter;
+import org.eclipse.swt.events.SelectionEvent;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.layout.GridData;
+import org.eclipse.swt.layout.GridLayout;
+import org.eclipse.swt.widgets.Button;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Table;
+import org.eclipse.swt.widgets.TableColumn;
+import org.eclipse.swt.widgets.Text;
+import org.eclipse.ui.part.ViewPart;
+
+import project.name.validator.ProjectNameChecker;
+import project.name.validator.job.RenameProjectFolderJob;
+import project.name.validator.job.RevalidateProjectsJob;
+import project.name.validator.property.RenameIgnoringProperty;
+import project.name.validator.state.ProjectStateTable;
+
+/**
+ * Представление состояния имён всех проектов рабочей
+ * области, построенное по таблице состояния проектов.
+ * Таблица представления виртуальная (SWT.VIRTUAL):
+ * элементы создаются только для видимых строк, а
+ * фильтрация и сортировка выполняются над копией имён и
+ * флагов таблицы состояния без обращения к проектам.
+ * Исключения выбранных проектов изменяются одной
+ * записью в хранилище исключений.
+ */
+public class ProjectHealthView extends ViewPart
+{
+	public static final String ID = "project.name.validator.projectHealthView";
+	
+	/**
+	 * Интервал (в миллисекундах) проверки изменений
+	 * таблицы состояния проектов.
+	 */
+	private static final int REFRESH_INTERVAL = 2000;
+	
+	private static final int COLUMN_NAME = 0;
+	
+	private static final int COLUMN_FOLDER = 1;
+	
+	private static final int COLUMN_STATUS = 2;
+	
+	private static final int COLUMN_IGNORED = 3;
+	
+	private TableViewer m_viewer;
+	
+	private Text m_filterText;
+	
+	private Button m_problemsOnlyButton;
+	
+	/**
+	 * Копия строк таблицы состояния проектов.
+	 */
+	private ProjectStateTable.Rows m_rows;
+	
+	/**
+	 * Индексы строк m_rows, прошедших фильтр, в порядке
+	 * сортировки.
+	 */
+	private int[] m_visible = new int[0];
+	
+	private int m_sortColumn = COLUMN_NAME;
+	
+	private boolean m_ascending = true;
+	
+	@Override
+	public void createPartControl (Composite a_parent)
+	{
+		Composite composite = new Composite(a_parent, SWT.NONE);
+		composite.setLayout(new GridLayout(2, false));
+		
+		m_filterText = new Text(composite, SWT.SEARCH | SWT.ICON_CANCEL | SWT.BORDER);
+		m_filterText.setMessage("Фильтр по имени проекта");
+		m_filterText.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false));
+		m_filterText.addModifyListener(new ModifyListener()
+		{
+			@Override
+			public void modifyText (ModifyEvent a_event)
+			{
+				update(false);
+			}
+		});
+		m_problemsOnlyButton = new Button(composite, SWT.CHECK);
+		m_problemsOnlyButton.setText("Только проблемные");
+		m_problemsOnlyButton.addSelectionListener(new SelectionAdapter()
+		{
+			@Override
+			public void widgetSelected (SelectionEvent a_event)
+			{
+				update(false);
+			}
+		});
+		
+		m_viewer = new TableViewer(composite, SWT.VIRTUAL | SWT.MULTI | SWT.FULL_SELECTION | SWT.BORDER);
+		Table table = m_viewer.getTable();
+		table.setHeaderVisible(true);
+		table.setLinesVisible(true);
+		table.setLayoutData(new GridData(SWT.FILL, SWT.FILL, true, true, 2, 1));
+		createColumn("Проект", 250, COLUMN_NAME);
+		createColumn("Папка", 250, COLUMN_FOLDER);
+		createColumn("Состояние", 150, COLUMN_STATUS);
+		createColumn("Исключение", 100, COLUMN_IGNORED);
+		table.setSortColumn(table.getColumn(COLUMN_NAME));
+		table.setSortDirection(SWT.UP);
+		m_viewer.setContentProvider(new ILazyContentProvider()
+		{
+			@Override
+			public void updateElement (int a_index)
+			{
+				if (a_index >= m_visible.length) return;
+				int row = m_visible[a_index];
+				m_viewer.replace(new HealthRow(m_rows.getName(row), m_rows.getFlags(row)), a_index);
+			}
+			
+			@Override
+			public void inputChanged (Viewer a_viewer, Object a_oldInput, Object a_newInput)
+			{
+			}
+			
+			@Override
+			public void dispose ()
+			{
+			}
+		});
+		m_viewer.setLabelProvider(new HealthLabelProvider());
+		m_viewer.setInput(this);
+		
+		createActions();
+		update(true);
+		scheduleRefresh();
+	}
+	
+	/**
+	 * Создаёт столбец таблицы. Щелчок по заголовку
+	 * столбца, кроме столбца папки, сортирует строки по
+	 * этому столбцу.
+	 */
+	private void createColumn (String a_text, int a_width, int a_column)
+	{
+		TableColumn column = new TableColumn(m_viewer.getTable(), SWT.LEFT);
+		column.setText(a_text);
+		column.setWidth(a_width);
+		/*
+		 * Для сортировки по папке пришлось бы запрашивать
+		 * расположение каждого проекта:
+		 */
+		if (a_column == COLUMN_FOLDER) return;
+		column.addSelectionListener(new SelectionAdapter()
+		{
+			@Override
+			public void widgetSelected (SelectionEvent a_event)
+			{
+				m_ascending = (m_sortColumn == a_column) ? !m_ascending : true;
+				m_sortColumn = a_column;
+				Table table = m_viewer.getTable();
+				table.setSortColumn(column);
+				table.setSortDirection(m_ascending ? SWT.UP : SWT.DOWN);
+				update(false);
+			}
+		});
+	}
+	
+	/**
+	 * Создаёт кнопки обновления, изменения исключений и
+	 * переименования папок на панели инструментов
+	 * представления.
+	 */
+	private void createActions ()
+	{
+		IToolBarManager toolBar = getViewSite().getActionBars().getToolBarManager();
+		toolBar.add(new Action("Обновить")
+		{
+			@Override
+			public void run ()
+			{
+				update(true);
+			}
+		});
+		toolBar.add(new Action("Добавить в исключения")
+		{
+			@Override
+			public void run ()
+			{
+				setSelectionIgnored(true);
+			}
+		});
+		toolBar.add(new Action("Убрать из исключений")
+		{
+			@Override
+			public void run ()
+			{
+				setSelectionIgnored(false);
+			}
+		});
+		toolBar.add(new Action("Переименовать папки")
+		{
+			@Override
+			public void run ()
+			{
+				renameSelectionFolders();
+			}
+		});
+	}
+	
+	/**
+	 * Заносит выбранные проекты в исключения или убирает
+	 * их оттуда одной записью в хранилище исключений и
+	 * запускает их повторную проверку. Выбранные строки
+	 * определяются по индексам, поэтому элементы для
+	 * невидимых выбранных строк не создаются.
+	 * @param a_ignored
+	 * 		  Новое значение свойства RenameIgnoringProperty
+	 */
+	private void setSelectionIgnored (boolean a_ignored)
+	{
+		int[] selection = m_viewer.getTable().getSelectionIndices();
+		if (selection.length == 0) return;
+		IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
+		Map<IProject, Boolean> decisions = new LinkedHashMap<>();
+		for (int index : selection)
+		{
+			if (index < m_visible.length) decisions.put(root.getProject(m_rows.getName(m_visible[index])), a_ignored);
+		}
+		RenameIgnoringProperty.setValues(decisions);
+		new RevalidateProjectsJob(decisions.keySet()).schedule();
+		update(true);
+	}
+	
+	/**
+	 * Запускает переименование папок выбранных проектов
+	 * по именам проектов (RenameProjectFolderJob).
+	 * Проекты, имя которых совпадает с именем папки,
+	 * пропускаются заданием.
+	 */
+	private void renameSelectionFolders ()
+	{
+		int[] selection = m_viewer.getTable().getSelectionIndices();
+		IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
+		List<IProject> projects = new ArrayList<>();
+		for (int index : selection)
+		{
+			if (index < m_visible.length) projects.add(root.getProject(m_rows.getName(m_visible[index])));
+		}
+		if (!projects.isEmpty()) new RenameProjectFolderJob(projects).schedule();
+	}
+	
+	/**
+	 * Заново фильтрует и сортирует строки и обновляет
+	 * таблицу, сохраняя выбор пользователя.
+	 * @param a_reload
+	 * 		  true, если нужно заново скопировать строки
+	 * 		  таблицы состояния проектов
+	 */
+	private void update (boolean a_reload)
+	{
+		Table table = m_viewer.getTable();
+		if (table.isDisposed()) return;
+		Set<String> selectedNames = new HashSet<>();
+		for (int index : table.getSelectionIndices())
+		{
+			if (index < m_visible.length) selectedNames.add(m_rows.getName(m_visible[index]));
+		}
+		if (a_reload || m_rows == null) m_rows = ProjectStateTable.getInstance().copyRows();
+		m_visible = filterAndSort();
+		
+		m_viewer.setItemCount(m_visible.length);
+		m_viewer.refresh();
+		if (selectedNames.isEmpty()) return;
+		int[] selection = new int[selectedNames.size()];
+		int selectionSize = 0;
+		for (int i = 0; i < m_visible.length && selectionSize < selection.length; i++)
+		{
+			if (selectedNames.contains(m_rows.getName(m_visible[i]))) selection[selectionSize++] = i;
+		}
+		table.setSelection(Arrays.copyOf(selection, selectionSize));
+	}
+	
+	/**
+	 * @return индексы строк m_rows, прошедших фильтр, в
+	 * порядке сортировки
+	 */
+	private int[] filterAndSort ()
+	{
+		String filter = m_filterText.getText();
+		boolean problemsOnly = m_problemsOnlyButton.getSelection();
+		Integer[] rows = new Integer[m_rows.size()];
+		int size = 0;
+		for (int i = 0; i < m_rows.size(); i++)
+		{
+			if (problemsOnly && !isProblem(m_rows.getFlags(i))) continue;
+			if (!filter.isEmpty() && !containsIgnoreCase(m_rows.getName(i), filter)) continue;
+			rows[size++] = i;
+		}
+		Arrays.sort(rows, 0, size, new Comparator<Integer>()
+		{
+			@Override
+			public int compare (Integer a_first, Integer a_second)
+			{
+				int result = 0;
+				if (m_sortColumn == COLUMN_STATUS)
+				{
+					result = Integer.compare(getStatusRank(m_rows.getFlags(a_first)),
+											 getStatusRank(m_rows.getFlags(a_second)));
+				}
+				else if (m_sortColumn == COLUMN_IGNORED)
+				{
+					result = Boolean.compare(isIgnored(m_rows.getFlags(a_first)), isIgnored(m_rows.getFlags(a_second)));
+				}
+				if (result == 0) result = m_rows.getName(a_first).compareToIgnoreCase(m_rows.getName(a_second));
+				return m_ascending ? result : -result;
+			}
+		});
+		int[] visible = new int[size];
+		for (int i = 0; i < size; i++)
+		{
+			visible[i] = rows[i];
+		}
+		return visible;
+	}
+	
+	/**
+	 * @return true, если a_text содержит a_part без учёта
+	 * регистра
+	 */
+	private static boolean containsIgnoreCase (String a_text, String a_part)
+	{
+		for (int i = 0; i + a_part.length() <= a_text.length(); i++)
+		{
+			if (a_text.regionMatches(true, i, a_part, 0, a_part.length())) return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * @return true, если проект с флагами a_flags занесён
+	 * в исключения или соответствует шаблону исключений
+	 */
+	private static boolean isIgnored (int a_flags)
+	{
+		return (a_flags & (ProjectStateTable.FLAG_IGNORED | ProjectStateTable.FLAG_PATTERN_IGNORED)) != 0;
+	}
+	
+	/**
+	 * @return true, если на проекте с флагами a_flags есть
+	 * маркеры плагина
+	 */
+	private static boolean isProblem (int a_flags)
+	{
+		return (a_flags & ProjectStateTable.FLAG_RULE_MARKERS) != 0 ||
+			   (!isIgnored(a_flags) && (a_flags & ProjectStateTable.FLAG_MISMATCH) != 0);
+	}
+	
+	/**
+	 * @return порядковый номер состояния проекта с флагами
+	 * a_flags при сортировке: сначала проблемные проекты
+	 */
+	private static int getStatusRank (int a_flags)
+	{
+		if (isIgnored(a_flags)) return 3;
+		if ((a_flags & ProjectStateTable.FLAG_UNKNOWN) != 0) return 1;
+		if ((a_flags & ProjectStateTable.FLAG_MISMATCH) != 0) return 0;
+		return 2;
+	}
+	
+	/**
+	 * Планирует следующую проверку изменений таблицы
+	 * состояния проектов. Строки копируются заново, только
+	 * если таблица изменилась.
+	 */
+	private void scheduleRefresh ()
+	{
+		m_viewer.getTable().getDisplay().timerExec(REFRESH_INTERVAL, new Runnable()
+		{
+			@Override
+			public void run ()
+			{
+				if (m_viewer.getTable().isDisposed()) return;
+				if (ProjectStateTable.getInstance().getVersion() != m_rows.getVersion()) update(true);
+				scheduleRefresh();
+			}
+		});
+	}
+	
+	@Override
+	public void setFocus ()
+	{
+		m_viewer.getTable().setFocus();
+	}
+	
+	/**
+	 * Строка представления: имя и флаги проекта.
+	 */
+	private static class HealthRow
+	{
+		private String m_name;
+		
+		private int m_flags;
+		
+		HealthRow (String a_name, int a_flags)
+		{
+			m_name = a_name;
+			m_flags = a_flags;
+		}
+	}
+	
+	/**
+	 * Поставщик текста столбцов. Имя папки определяется
+	 * только для видимых строк и без обращения к файловой
+	 * системе.
+	 */
+	private static class HealthLabelProvider extends LabelProvider implements ITableLabelProvider
+	{
+		@Override
+		public Image getColumnImage (Object a_element, int a_columnIndex)
+		{
+			return null;
+		}
+		
+		@Override
+		public String getColumnText (Object a_element, int a_columnIndex)
+		{
+			HealthRow row = (HealthRow)a_element;
+			switch (a_columnIndex)
+			{
+				case COLUMN_NAME:
+					return row.m_name;
+				case COLUMN_FOLDER:
+					String folderName = ProjectNameChecker.getFolderName(ResourcesPlugin.getWorkspace().getRoot()
+																						.getProject(row.m_name));
+					return (folderName != null) ? folderName : "";
+				case COLUMN_STATUS:
+					return getStatusText(row.m_flags);
+				case COLUMN_IGNORED:
+					return isIgnored(row.m_flags) ? "Да" : "";
+				default:
+					return "";
+			}
+		}
+		
+		/**
+		 * @return текст состояния проекта с флагами a_flags
+		 */
+		private static String getStatusText (int a_flags)
+		{
+			String status;
+			if ((a_flags & ProjectStateTable.FLAG_IGNORED) != 0) status = "Исключение";
+			else if ((a_flags & ProjectStateTable.FLAG_PATTERN_IGNORED) != 0) status = "Исключение по шаблону";
+			else if ((a_flags & ProjectStateTable.FLAG_UNKNOWN) != 0) status = "Не определено";
+			else if ((a_flags & ProjectStateTable.FLAG_MISMATCH) != 0) status = "Не совпадает с папкой";
+			else if ((a_flags & ProjectStateTable.FLAG_CHECKED) == 0) status = "Не проверено";
+			else status = "Совпадает с папкой";
+			if ((a_flags & ProjectStateTable.FLAG_RULE_MARKERS) != 0) status += ", нарушены правила";
+			return status;
+		}
+	}
+}
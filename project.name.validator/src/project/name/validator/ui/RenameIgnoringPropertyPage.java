@@ -82,7 +82,7 @@ public class RenameIgnoringPropertyPage extends PropertyPage implements IWorkben
 	private void validateProjectName ()
 	{
 		IProject project = (IProject)getElement();
-		if (!new ProjectValidator(project).isProjectOpen()) return;
+		if (!ProjectValidator.isProjectOpen(project)) return;
 		ChangedNameValidator validator = new ChangedNameValidator();
 		validator.validateProjectName(project, false);
 	}
@@ -0,0 +1,118 @@
+package project.name.validator.ui;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.ui.PlatformUI;
+import org.eclipse.ui.progress.UIJob;
+
+import project.name.validator.Messages;
+import project.name.validator.jfr.UiPromptEvent;
+import project.name.validator.job.RenameProjectFolderJob;
+import project.name.validator.job.ValidationQueueJob;
+import project.name.validator.property.RenameIgnoringProperty;
+import project.name.validator.state.ProjectStateTable;
+
+/**
+ * Асинхронное предупреждение пользователя о
+ * несовпадении имён проектов и имён их папок.
+ * Проекты, накопленные за короткий промежуток
+ * времени, показываются в одном диалоге
+ * ProblemNameDialog. Потоки, добавляющие проекты,
+ * не ожидают ответа пользователя.
+ */
+public class RenameWarningNotifier extends UIJob
+{
+	/**
+	 * Время (в миллисекундах), в течение которого
+	 * проекты накапливаются перед показом диалога.
+	 */
+	private static final long COLLECTING_DELAY = 1000;
+	
+	private ValidationQueueJob m_queue;
+	
+	private Set<IProject> m_projects = new LinkedHashSet<>();
+	
+	/**
+	 * Конструктор класса RenameWarningNotifier.
+	 * @param a_queue
+	 * 		  Очередь, в которую добавляются проекты для
+	 * 		  повторной проверки после выбора пользователя.
+	 * 		  NotNull
+	 */
+	public RenameWarningNotifier (ValidationQueueJob a_queue)
+	{
+		super(Messages.Job_Rename_Warning);
+		m_queue = Objects.requireNonNull(a_queue);
+		setSystem(true);
+	}
+	
+	/**
+	 * Добавляет проект в список, показываемый
+	 * пользователю, и планирует показ диалога.
+	 * @param a_project
+	 * 		  Проект, имя которого не совпадает с
+	 * 		  именем его папки. NotNull
+	 */
+	public void add (IProject a_project)
+	{
+		synchronized (m_projects)
+		{
+			m_projects.add(Objects.requireNonNull(a_project));
+		}
+		schedule(COLLECTING_DELAY);
+	}
+	
+	@Override
+	public IStatus runInUIThread (IProgressMonitor a_monitor)
+	{
+		List<IProject> projects = new ArrayList<>();
+		ProjectStateTable table = ProjectStateTable.getInstance();
+		synchronized (m_projects)
+		{
+			for (IProject project : m_projects)
+			{
+				/*
+				 * Пока проекты накапливались, пользователь мог
+				 * занести их в исключения или закрыть:
+				 */
+				if (project.isOpen() && !table.hasRenameIgnoringProperty(project)) projects.add(project);
+			}
+			m_projects.clear();
+		}
+		if (projects.isEmpty()) return Status.OK_STATUS;
+		
+		ProblemNameDialog dialog = new ProblemNameDialog(PlatformUI.getWorkbench().getModalDialogShellProvider()
+																   .getShell(), projects);
+		UiPromptEvent event = new UiPromptEvent();
+		event.begin();
+		dialog.open();
+		Map<IProject, Boolean> decisions = dialog.getDecisions();
+		event.end();
+		if (event.shouldCommit())
+		{
+			event.set(projects.size(), Collections.frequency(decisions.values(), Boolean.TRUE));
+			event.commit();
+		}
+		/*
+		 * Выбор пользователя запоминается в памяти, а на
+		 * диск записывается хранилищем исключений в фоне:
+		 */
+		RenameIgnoringProperty.setValues(decisions);
+		for (IProject project : decisions.keySet())
+		{
+			m_queue.enqueue(project, false);
+		}
+		if (!dialog.getFolderRenames().isEmpty()) new RenameProjectFolderJob(dialog.getFolderRenames()).schedule();
+		return Status.OK_STATUS;
+	}
+}
@@ -0,0 +1,650 @@
+package project.name.validator.watch;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IProjectDescription;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.resources.WorkspaceJob;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.osgi.util.NLS;
+
+import project.name.validator.Activator;
+import project.name.validator.Messages;
+import project.name.validator.job.RelocateProjectJob;
+import project.name.validator.job.ValidationQueueJob;
+import project.name.validator.log.ErrorStatusHandler;
+import project.name.validator.marker.MovedFolderMarkerManager;
+
+/**
+ * Наблюдение за папками проектов средствами WatchService.
+ * Отслеживаются родительские папки расположений всех
+ * открытых проектов в локальной файловой системе; на
+ * каждую родительскую папку приходится один ключ
+ * наблюдения, сколько бы проектов в ней ни находилось.
+ * Удаление, появление, переименование и перемещение
+ * папки проекта вне рабочей среды (например, сценарием
+ * или системой контроля версий) ставят в очередь
+ * проверки только затронутые проекты, без периодического
+ * опроса и обновления рабочей области. Если папка
+ * проекта переименована или перемещена в другую
+ * наблюдаемую папку и это включено настройкой
+ * PREFERENCE_RELOCATE_PROJECTS, расположение проекта
+ * переносится в новую папку заданием RelocateProjectJob,
+ * иначе то же задание ставит на проект маркер
+ * MovedFolderMarkerManager с новым расположением папки.
+ * Маркер удаляется, когда папка возвращается на место
+ * или расположение проекта изменяется.
+ * Набор наблюдаемых папок поддерживается по изменениям
+ * проектов в рабочей области. Регистрация папок
+ * обращается к файловой системе, поэтому выполняется
+ * фоновым заданием, а не в потоке оповещения об
+ * изменениях ресурсов.
+ */
+public class ProjectFolderWatcher implements IResourceChangeListener
+{
+	/**
+	 * Настройка плагина: наблюдать за папками проектов.
+	 * По умолчанию включена.
+	 */
+	public static final String PREFERENCE_WATCH_FOLDERS = "watchProjectFolders";
+	
+	/**
+	 * Настройка плагина: переносить расположение проекта в
+	 * папку, в которую папка проекта переименована или
+	 * перемещена вне рабочей среды. По умолчанию
+	 * выключена: новое расположение папки отмечается
+	 * маркером MovedFolderMarkerManager.
+	 */
+	public static final String PREFERENCE_RELOCATE_PROJECTS = "relocateRenamedProjects";
+	
+	/**
+	 * Время (в миллисекундах), в течение которого
+	 * появившаяся папка с описанием наблюдаемого проекта
+	 * может оказаться его новым расположением. При
+	 * перемещении между двумя наблюдаемыми папками
+	 * событие появления может прийти раньше события
+	 * исчезновения, а служба наблюдения, опрашивающая
+	 * файловую систему, доставляет их с задержкой.
+	 */
+	private static final long CREATED_FOLDER_TIMEOUT = 30_000;
+	
+	private static ProjectFolderWatcher s_instance;
+	
+	private WatchService m_watchService;
+	
+	private ValidationQueueJob m_queue;
+	
+	/**
+	 * Папки наблюдаемых проектов по именам проектов.
+	 */
+	private Map<String, Path> m_folders = new HashMap<>();
+	
+	/**
+	 * Имена наблюдаемых проектов по папкам.
+	 */
+	private Map<Path, String> m_projects = new HashMap<>();
+	
+	/**
+	 * Ключи наблюдения родительских папок.
+	 */
+	private Map<Path, WatchKey> m_keys = new HashMap<>();
+	
+	/**
+	 * Количество наблюдаемых проектов в каждой
+	 * родительской папке.
+	 */
+	private Map<Path, Integer> m_keyUsers = new HashMap<>();
+	
+	/**
+	 * Имена проектов, папки которых исчезли. Появившаяся
+	 * папка с описанием такого проекта считается его
+	 * новым расположением.
+	 */
+	private Set<String> m_missing = new HashSet<>();
+	
+	/**
+	 * Недавно появившиеся папки с описаниями наблюдаемых
+	 * проектов по именам проектов. Если папка такого
+	 * проекта затем исчезнет, появившаяся папка считается
+	 * его новым расположением.
+	 */
+	private Map<String, CreatedFolder> m_created = new HashMap<>();
+	
+	/**
+	 * Имена проектов, на которые поставлен маркер
+	 * переименованной или перемещённой папки.
+	 */
+	private Set<String> m_marked = new HashSet<>();
+	
+	/**
+	 * Проекты, папки которых нужно зарегистрировать заново
+	 * заданием m_updateJob.
+	 */
+	private Set<IProject> m_changedProjects = new LinkedHashSet<>();
+	
+	private Job m_updateJob;
+	
+	/**
+	 * Конструктор класса ProjectFolderWatcher.
+	 * @param a_queue
+	 * 		  Очередь проверки проектов. NotNull
+	 * @throws IOException
+	 */
+	private ProjectFolderWatcher (ValidationQueueJob a_queue) throws IOException
+	{
+		m_queue = Objects.requireNonNull(a_queue);
+		m_watchService = FileSystems.getDefault().newWatchService();
+		m_updateJob = new Job(Messages.Job_Watch_Folders)
+		{
+			@Override
+			protected IStatus run (IProgressMonitor a_monitor)
+			{
+				updateChangedProjects();
+				return Status.OK_STATUS;
+			}
+		};
+		m_updateJob.setSystem(true);
+	}
+	
+	/**
+	 * Начинает наблюдение за папками проектов, если оно
+	 * включено настройкой PREFERENCE_WATCH_FOLDERS и ещё
+	 * не начато. Папки проектов регистрируются в потоке
+	 * наблюдения, а не в вызывающем потоке.
+	 * @param a_queue
+	 * 		  Очередь проверки проектов. NotNull
+	 */
+	public static synchronized void start (ValidationQueueJob a_queue)
+	{
+		if (s_instance != null || !isEnabled()) return;
+		ProjectFolderWatcher watcher;
+		try
+		{
+			watcher = new ProjectFolderWatcher(a_queue);
+		}
+		catch (IOException e)
+		{
+			ErrorStatusHandler.log(e, Messages.Exception_Folder_Watch);
+			return;
+		}
+		ResourcesPlugin.getWorkspace().addResourceChangeListener(watcher, IResourceChangeEvent.POST_CHANGE);
+		Thread thread = new Thread(new Runnable()
+		{
+			@Override
+			public void run ()
+			{
+				watcher.watch();
+			}
+		}, "Project folder watcher");
+		thread.setDaemon(true);
+		thread.start();
+		s_instance = watcher;
+	}
+	
+	/**
+	 * Прекращает наблюдение за папками проектов.
+	 */
+	public static synchronized void stop ()
+	{
+		if (s_instance == null) return;
+		ResourcesPlugin.getWorkspace().removeResourceChangeListener(s_instance);
+		s_instance.m_updateJob.cancel();
+		try
+		{
+			s_instance.m_watchService.close();
+		}
+		catch (IOException e)
+		{
+			ErrorStatusHandler.log(e, Messages.Exception_Folder_Watch);
+		}
+		s_instance = null;
+	}
+	
+	/**
+	 * @return true, если наблюдение за папками проектов
+	 * включено настройкой PREFERENCE_WATCH_FOLDERS, false -
+	 * иначе
+	 */
+	public static boolean isEnabled ()
+	{
+		return Platform.getPreferencesService().getBoolean(Activator.PLUGIN_ID, PREFERENCE_WATCH_FOLDERS, true,
+														   null);
+	}
+	
+	/**
+	 * @return true, если перенос расположения проекта в
+	 * переименованную папку включён настройкой
+	 * PREFERENCE_RELOCATE_PROJECTS, false - иначе
+	 */
+	public static boolean isRelocationEnabled ()
+	{
+		return Platform.getPreferencesService().getBoolean(Activator.PLUGIN_ID, PREFERENCE_RELOCATE_PROJECTS,
+														   false, null);
+	}
+	
+	/**
+	 * Регистрирует папки открытых проектов и обрабатывает
+	 * события наблюдения, пока служба наблюдения не будет
+	 * закрыта.
+	 */
+	private void watch ()
+	{
+		for (IProject project : ResourcesPlugin.getWorkspace().getRoot().getProjects())
+		{
+			updateProject(project);
+		}
+		while (true)
+		{
+			WatchKey key;
+			try
+			{
+				key = m_watchService.take();
+			}
+			catch (InterruptedException | ClosedWatchServiceException e)
+			{
+				return;
+			}
+			Path parent = (Path)key.watchable();
+			for (WatchEvent<?> event : key.pollEvents())
+			{
+				if (event.kind() == StandardWatchEventKinds.OVERFLOW)
+				{
+					/*
+					 * Часть событий потеряна, поэтому проверяются
+					 * все проекты этой папки:
+					 */
+					revalidateFolder(parent);
+					continue;
+				}
+				Path folder = parent.resolve((Path)event.context());
+				if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE) folderDeleted(folder);
+				else folderCreated(folder);
+			}
+			if (!key.reset())
+			{
+				synchronized (this)
+				{
+					m_keys.remove(parent);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Обрабатывает исчезновение папки a_folder: если это
+	 * папка проекта, проект ставится в очередь проверки;
+	 * если перед этим появилась папка с описанием этого
+	 * проекта, она считается его новым расположением.
+	 * @param a_folder
+	 * 		  Исчезнувшая папка
+	 */
+	private void folderDeleted (Path a_folder)
+	{
+		String name;
+		CreatedFolder created;
+		synchronized (this)
+		{
+			name = m_projects.get(a_folder);
+			if (name == null) return;
+			created = m_created.remove(name);
+			if (created != null && created.isExpired()) created = null;
+			if (created == null) m_missing.add(name);
+		}
+		if (created != null) folderMoved(name, created.m_folder);
+		else revalidate(name);
+	}
+	
+	/**
+	 * Обрабатывает появление папки a_folder: если это
+	 * папка проекта, вернувшаяся на место, проект ставится
+	 * в очередь проверки; если в ней находится описание
+	 * проекта, папка которого исчезла, a_folder считается
+	 * новой папкой этого проекта. Папка с описанием
+	 * наблюдаемого проекта, прежняя папка которого ещё не
+	 * исчезла, запоминается на CREATED_FOLDER_TIMEOUT
+	 * миллисекунд.
+	 * @param a_folder
+	 * 		  Появившаяся папка
+	 */
+	private void folderCreated (Path a_folder)
+	{
+		String name;
+		boolean marked = false;
+		synchronized (this)
+		{
+			name = m_projects.get(a_folder);
+			if (name != null)
+			{
+				m_missing.remove(name);
+				marked = m_marked.remove(name);
+			}
+			else if (m_missing.isEmpty() && m_folders.isEmpty()) return;
+		}
+		if (name != null)
+		{
+			if (marked) clearMarker(name);
+			revalidate(name);
+			return;
+		}
+		Path descriptionFile = a_folder.resolve(IProjectDescription.DESCRIPTION_FILE_NAME);
+		if (!Files.isRegularFile(descriptionFile)) return;
+		IWorkspace workspace = ResourcesPlugin.getWorkspace();
+		IProjectDescription description;
+		try
+		{
+			description = workspace.loadProjectDescription(org.eclipse.core.runtime.Path
+																.fromOSString(descriptionFile.toString()));
+		}
+		catch (CoreException e)
+		{
+			/*
+			 * Описание ещё не записано полностью или
+			 * повреждено; такая папка не считается новым
+			 * расположением проекта:
+			 */
+			return;
+		}
+		name = description.getName();
+		synchronized (this)
+		{
+			if (!m_missing.remove(name))
+			{
+				if (m_folders.containsKey(name)) rememberCreated(name, a_folder);
+				return;
+			}
+		}
+		folderMoved(name, a_folder);
+	}
+	
+	/**
+	 * Запоминает папку a_folder, появившуюся с описанием
+	 * проекта с именем a_name, и забывает устаревшие папки.
+	 */
+	private void rememberCreated (String a_name, Path a_folder)
+	{
+		for (Iterator<CreatedFolder> iterator = m_created.values().iterator(); iterator.hasNext();)
+		{
+			if (iterator.next().isExpired()) iterator.remove();
+		}
+		m_created.put(a_name, new CreatedFolder(a_folder));
+	}
+	
+	/**
+	 * Обрабатывает переименование или перемещение папки
+	 * проекта с именем a_name в папку a_folder: если это
+	 * включено настройкой PREFERENCE_RELOCATE_PROJECTS,
+	 * расположение проекта переносится в a_folder, иначе
+	 * новое расположение папки отмечается маркером.
+	 * @param a_name
+	 * 		  Имя проекта
+	 * @param a_folder
+	 * 		  Новая папка проекта
+	 */
+	private void folderMoved (String a_name, Path a_folder)
+	{
+		boolean relocate = isRelocationEnabled();
+		if (!relocate)
+		{
+			synchronized (this)
+			{
+				m_marked.add(a_name);
+			}
+		}
+		IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject(a_name);
+		IPath location = org.eclipse.core.runtime.Path.fromOSString(a_folder.toString());
+		new RelocateProjectJob(project, location, m_queue, relocate).schedule();
+	}
+	
+	/**
+	 * Удаляет маркер переименованной или перемещённой
+	 * папки проекта с именем a_name фоновым заданием.
+	 * @param a_name
+	 * 		  Имя проекта
+	 */
+	private static void clearMarker (String a_name)
+	{
+		IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject(a_name);
+		WorkspaceJob job = new WorkspaceJob(NLS.bind(Messages.Job_Clear_Folder_Marker, a_name))
+		{
+			@Override
+			public IStatus runInWorkspace (IProgressMonitor a_monitor)
+			{
+				try
+				{
+					MovedFolderMarkerManager.clear(project);
+				}
+				catch (CoreException e)
+				{
+					ErrorStatusHandler.log(e, NLS.bind(Messages.Exception_Folder_Marker, a_name));
+				}
+				return Status.OK_STATUS;
+			}
+		};
+		job.setSystem(true);
+		job.setRule(project.getWorkspace().getRuleFactory().markerRule(project));
+		job.schedule();
+	}
+	
+	/**
+	 * Ставит в очередь проверки все наблюдаемые проекты,
+	 * находящиеся в папке a_parent.
+	 * @param a_parent
+	 * 		  Родительская папка
+	 */
+	private void revalidateFolder (Path a_parent)
+	{
+		List<String> names = new ArrayList<>();
+		synchronized (this)
+		{
+			for (Map.Entry<Path, String> project : m_projects.entrySet())
+			{
+				if (a_parent.equals(project.getKey().getParent())) names.add(project.getValue());
+			}
+		}
+		for (String name : names)
+		{
+			revalidate(name);
+		}
+	}
+	
+	/**
+	 * Ставит проект с именем a_name в очередь проверки,
+	 * если он открыт.
+	 * @param a_name
+	 * 		  Имя проекта
+	 */
+	private void revalidate (String a_name)
+	{
+		IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject(a_name);
+		if (project.isOpen()) m_queue.enqueue(project, false);
+	}
+	
+	/**
+	 * Поддерживает набор наблюдаемых папок: папка
+	 * добавленного, открытого проекта или проекта с
+	 * изменённым описанием регистрируется заново, папка
+	 * удалённого или закрытого проекта перестаёт
+	 * наблюдаться. Обход не спускается ниже уровня
+	 * проектов. Изменённые проекты только запоминаются, а
+	 * регистрируются заданием m_updateJob.
+	 */
+	@Override
+	public void resourceChanged (IResourceChangeEvent a_event)
+	{
+		IResourceDelta rootDelta = a_event.getDelta();
+		if (rootDelta == null) return;
+		boolean changed = false;
+		for (IResourceDelta delta : rootDelta.getAffectedChildren())
+		{
+			if (delta.getResource().getType() != IResource.PROJECT) continue;
+			if (delta.getKind() == IResourceDelta.CHANGED &&
+				(delta.getFlags() & (IResourceDelta.OPEN | IResourceDelta.DESCRIPTION)) == 0)
+			{
+				continue;
+			}
+			synchronized (m_changedProjects)
+			{
+				m_changedProjects.add((IProject)delta.getResource());
+			}
+			changed = true;
+		}
+		if (changed) m_updateJob.schedule();
+	}
+	
+	/**
+	 * Регистрирует заново папки проектов, изменения которых
+	 * накоплены в m_changedProjects.
+	 */
+	private void updateChangedProjects ()
+	{
+		List<IProject> projects;
+		synchronized (m_changedProjects)
+		{
+			projects = new ArrayList<>(m_changedProjects);
+			m_changedProjects.clear();
+		}
+		for (IProject project : projects)
+		{
+			updateProject(project);
+		}
+	}
+	
+	/**
+	 * Регистрирует папку проекта a_project заново: прежняя
+	 * папка проекта перестаёт наблюдаться, а папка
+	 * открытого проекта в локальной файловой системе
+	 * начинает наблюдаться. Маркер переименованной папки
+	 * проекта удаляется.
+	 * @param a_project
+	 * 		  Проект. NotNull
+	 */
+	private void updateProject (IProject a_project)
+	{
+		String name = a_project.getName();
+		Path parent;
+		synchronized (this)
+		{
+			unregister(name);
+			if (m_marked.remove(name)) clearMarker(name);
+			if (!a_project.isOpen()) return;
+			IPath location = a_project.getLocation();
+			if (location == null) return;
+			Path folder = location.toFile().toPath();
+			parent = folder.getParent();
+			if (parent == null) return;
+			m_folders.put(name, folder);
+			m_projects.put(folder, name);
+			Integer users = m_keyUsers.get(parent);
+			m_keyUsers.put(parent, (users != null) ? users.intValue() + 1 : 1);
+			if (m_keys.containsKey(parent)) return;
+		}
+		/*
+		 * Регистрация обращается к файловой системе и может
+		 * долго ждать сетевой диск, поэтому выполняется без
+		 * блокировки:
+		 */
+		WatchKey key;
+		try
+		{
+			key = parent.register(m_watchService, StandardWatchEventKinds.ENTRY_CREATE,
+								  StandardWatchEventKinds.ENTRY_DELETE);
+		}
+		catch (IOException | ClosedWatchServiceException e)
+		{
+			/*
+			 * Папка недоступна или служба наблюдения закрыта;
+			 * проект проверяется обычным образом:
+			 */
+			return;
+		}
+		synchronized (this)
+		{
+			/*
+			 * Пока папка регистрировалась, в ней могло не
+			 * остаться наблюдаемых проектов:
+			 */
+			if (m_keyUsers.containsKey(parent)) m_keys.put(parent, key);
+			else key.cancel();
+		}
+	}
+	
+	/**
+	 * Прекращает наблюдение за папкой проекта с именем
+	 * a_name. Ключ родительской папки отменяется, когда в
+	 * ней не остаётся наблюдаемых проектов.
+	 * @param a_name
+	 * 		  Имя проекта
+	 */
+	private void unregister (String a_name)
+	{
+		m_missing.remove(a_name);
+		m_created.remove(a_name);
+		Path folder = m_folders.remove(a_name);
+		if (folder == null) return;
+		m_projects.remove(folder);
+		Path parent = folder.getParent();
+		Integer users = m_keyUsers.get(parent);
+		if (users != null && users.intValue() > 1)
+		{
+			m_keyUsers.put(parent, users.intValue() - 1);
+			return;
+		}
+		m_keyUsers.remove(parent);
+		WatchKey key = m_keys.remove(parent);
+		if (key != null) key.cancel();
+	}
+	
+	/**
+	 * Недавно появившаяся папка с описанием наблюдаемого
+	 * проекта.
+	 */
+	private static class CreatedFolder
+	{
+		private Path m_folder;
+		
+		private long m_time = System.currentTimeMillis();
+		
+		CreatedFolder (Path a_folder)
+		{
+			m_folder = a_folder;
+		}
+		
+		/**
+		 * @return true, если папка появилась раньше, чем
+		 * CREATED_FOLDER_TIMEOUT миллисекунд назад
+		 */
+		boolean isExpired ()
+		{
+			return System.currentTimeMillis() - m_time > CREATED_FOLDER_TIMEOUT;
+		}
+	}
+}